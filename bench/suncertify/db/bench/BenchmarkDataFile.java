@@ -0,0 +1,126 @@
+package suncertify.db.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import suncertify.db.Data;
+import suncertify.db.DatabaseConstants;
+import suncertify.db.tools.DataFileGenerator;
+
+/**
+ * Generates the database files used by the benchmarks with
+ * <code>DataFileGenerator</code>, and opens them.
+ * <br />A file is opened by setting the db.path system property, which
+ * overrides the suncertify.properties file without updating it.
+ *
+ * @author Leo Gutierrez
+ */
+public final class BenchmarkDataFile {
+
+	/**
+	 * Hotel names used in the records created by the benchmarks.
+	 */
+	public static final String[] HOTEL_NAMES = {"Palace", "Castle",
+		"Excelsior", "Grandview", "Bed & Breakfast & Business",
+		"Dew Drop Inn", "Elephant Inn", "Pandemonium", "Splendide",
+		"Mayfair"};
+
+	/**
+	 * Locations used in the records created by the benchmarks.
+	 */
+	public static final String[] LOCATIONS = {"Smallville", "Whoville",
+		"Lendmarch", "Atlantis", "Xanadu", "EmeraldCity", "Hobbiton",
+		"Pleasantville", "Bali Hai", "Digitopolis"};
+
+	/**
+	 * Seed of the generated values, so every run uses the same records.
+	 */
+	private static final long SEED = 257;
+
+	/**
+	 * Constructs a <code>BenchmarkDataFile</code> object.
+	 */
+	private BenchmarkDataFile() {
+
+	}
+
+	/**
+	 * Generates a temporary database file, deleted when the JVM exits.
+	 *
+	 * @param rows Number of records in the file.
+	 * @param deletedRatio Ratio, from 0 to 1, of deleted records.
+	 * @return The generated file.
+	 * @throws IOException If the file can't be written.
+	 */
+	public static File create(final int rows, final double deletedRatio)
+			throws IOException {
+
+		final File file = File.createTempFile("bench-" + rows + "-", ".db");
+		file.deleteOnExit();
+
+		final DataFileGenerator generator = new DataFileGenerator();
+		generator.setRows(rows);
+		generator.setDeletedRatio(deletedRatio);
+		generator.setSeed(SEED);
+		generator.generate(file);
+
+		return file;
+	}
+
+	/**
+	 * Opens the given database file with a new <code>Data</code>. Only one
+	 * database file can be opened per JVM.
+	 *
+	 * @param file Database file.
+	 * @return Data connected to the file, with all the records loaded.
+	 */
+	public static Data open(final File file) {
+
+		System.setProperty(DatabaseConstants.DB_PATH_PROP,
+				file.getAbsolutePath());
+
+		final Data data = new Data();
+
+		// Waits until the records are loaded
+		data.find(null);
+
+		return data;
+	}
+
+	/**
+	 * Returns a new record with generated values.
+	 *
+	 * @param random Source of the values.
+	 * @param row Number of the record, makes the hotel name unique.
+	 * @return Record values, by field position.
+	 */
+	public static String[] record(final Random random, final int row) {
+
+		return new String[] {
+			HOTEL_NAMES[random.nextInt(HOTEL_NAMES.length)] + " " + row,
+			LOCATIONS[random.nextInt(LOCATIONS.length)],
+			String.valueOf(1 + random.nextInt(6)),
+			random.nextBoolean() ? "Y" : "N",
+			"$" + (50 + random.nextInt(250)) + ".00",
+			"2005/" + twoDigits(1 + random.nextInt(12)) + "/"
+					+ twoDigits(1 + random.nextInt(28)),
+			""};
+	}
+
+	/**
+	 * Formats a number with two digits.
+	 *
+	 * @param number Number from 0 to 99.
+	 * @return The number with a leading zero if needed.
+	 */
+	private static String twoDigits(final int number) {
+
+		if (number < 10) {
+			return "0" + number;
+		}
+
+		return String.valueOf(number);
+	}
+
+}
@@ -0,0 +1,117 @@
+package suncertify.db.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import suncertify.db.Data;
+import suncertify.db.DuplicateKeyException;
+import suncertify.db.RecordNotFoundException;
+
+/**
+ * Measures <code>Data.create</code>. With free-list reuse, the record
+ * created by the previous invocation is deleted before each invocation,
+ * outside the measured time, so every create reuses a deleted row; without
+ * it, the file has no deleted rows and every record is appended to the end
+ * of the file.
+ *
+ * @author Leo Gutierrez
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreateBenchmark {
+
+	/**
+	 * True if the deleted rows are reused; False if the records are
+	 * appended.
+	 */
+	@Param({"true", "false"})
+	private boolean reuseDeleted;
+
+	/**
+	 * Data connected to the generated file.
+	 */
+	private Data data;
+
+	/**
+	 * Source of the created values.
+	 */
+	private final Random random = new Random();
+
+	/**
+	 * Number of records created, makes each hotel name unique.
+	 */
+	private int created;
+
+	/**
+	 * Row of the record created by the last invocation, -1 if none.
+	 */
+	private int createdRecordRow = -1;
+
+	/**
+	 * Generates and opens the database file.
+	 *
+	 * @throws Exception If the file can't be generated.
+	 */
+	@Setup(Level.Trial)
+	public final void setUp() throws Exception {
+
+		data = BenchmarkDataFile.open(
+				BenchmarkDataFile.create(10000, reuseDeleted ? 0.1 : 0));
+
+		// Names after the generated ones, so they are never duplicated
+		created = 10000;
+	}
+
+	/**
+	 * Deletes the record created by the last invocation, if the deleted rows
+	 * are reused, so the next create finds a deleted row.
+	 *
+	 * @throws RecordNotFoundException If the record can't be deleted.
+	 */
+	@Setup(Level.Invocation)
+	public final void deleteCreatedRecord() throws RecordNotFoundException {
+
+		if ((reuseDeleted) && (createdRecordRow != -1)) {
+
+			final long cookie = data.lock(createdRecordRow);
+			try {
+				data.delete(createdRecordRow, cookie);
+			} finally {
+				data.unlock(createdRecordRow, cookie);
+			}
+		}
+	}
+
+	/**
+	 * Creates a record.
+	 *
+	 * @return Row of the created record.
+	 * @throws DuplicateKeyException If the record already exists.
+	 */
+	@Benchmark
+	public final int create() throws DuplicateKeyException {
+
+		createdRecordRow =
+				data.create(BenchmarkDataFile.record(random, created++));
+
+		return createdRecordRow;
+	}
+
+}
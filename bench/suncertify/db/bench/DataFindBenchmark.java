@@ -0,0 +1,104 @@
+package suncertify.db.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import suncertify.db.Data;
+
+/**
+ * Measures <code>Data.find</code> with different criteria shapes:
+ * <br />all - null criteria, every valid record.
+ * <br />name - prefix of the hotel name.
+ * <br />nameLocation - prefix of the hotel name and a location.
+ * <br />location - a location, a large share of the records.
+ * <br />allFields - every field but the owner.
+ * <br />noMatch - a hotel name prefix that matches nothing.
+ *
+ * @author Leo Gutierrez
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataFindBenchmark {
+
+	/**
+	 * Number of records in the database file.
+	 */
+	@Param({"10000", "1000000"})
+	private int rows;
+
+	/**
+	 * Criteria shape.
+	 */
+	@Param({"all", "name", "nameLocation", "location", "allFields",
+		"noMatch"})
+	private String criteriaShape;
+
+	/**
+	 * Data connected to the generated file.
+	 */
+	private Data data;
+
+	/**
+	 * Criteria of the search.
+	 */
+	private String[] criteria;
+
+	/**
+	 * Generates and opens the database file, and builds the criteria.
+	 *
+	 * @throws Exception If the file can't be generated.
+	 */
+	@Setup(Level.Trial)
+	public final void setUp() throws Exception {
+
+		data = BenchmarkDataFile.open(BenchmarkDataFile.create(rows, 0.1));
+
+		final String[] record = data.read(data.find(null)[rows / 20]);
+
+		if ("all".equals(criteriaShape)) {
+			criteria = null;
+		} else if ("name".equals(criteriaShape)) {
+			criteria = new String[] {"Pal", null, null, null, null, null,
+				null};
+		} else if ("nameLocation".equals(criteriaShape)) {
+			criteria = new String[] {"Pal", "Xanadu", null, null, null, null,
+				null};
+		} else if ("location".equals(criteriaShape)) {
+			criteria = new String[] {null, "Xanadu", null, null, null, null,
+				null};
+		} else if ("allFields".equals(criteriaShape)) {
+			criteria = new String[] {record[0], record[1], record[2],
+				record[3], record[4], record[5], null};
+		} else {
+			criteria = new String[] {"Zzz", null, null, null, null, null,
+				null};
+		}
+	}
+
+	/**
+	 * Searches the records that match the criteria.
+	 *
+	 * @return The record rows found.
+	 */
+	@Benchmark
+	public final int[] find() {
+		return data.find(criteria);
+	}
+
+}
@@ -0,0 +1,80 @@
+package suncertify.db.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import suncertify.db.Data;
+import suncertify.db.RecordNotFoundException;
+
+/**
+ * Measures <code>Data.read</code> of random valid records.
+ *
+ * @author Leo Gutierrez
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataReadBenchmark {
+
+	/**
+	 * Number of records in the database file.
+	 */
+	@Param({"10000", "1000000"})
+	private int rows;
+
+	/**
+	 * Data connected to the generated file.
+	 */
+	private Data data;
+
+	/**
+	 * Rows of the valid records.
+	 */
+	private int[] recordRows;
+
+	/**
+	 * Source of the records to read.
+	 */
+	private final Random random = new Random();
+
+	/**
+	 * Generates and opens the database file.
+	 *
+	 * @throws Exception If the file can't be generated.
+	 */
+	@Setup(Level.Trial)
+	public final void setUp() throws Exception {
+
+		data = BenchmarkDataFile.open(BenchmarkDataFile.create(rows, 0.1));
+
+		recordRows = data.find(null);
+	}
+
+	/**
+	 * Reads a random record.
+	 *
+	 * @return The record read.
+	 * @throws RecordNotFoundException If the record is not found.
+	 */
+	@Benchmark
+	public final String[] read() throws RecordNotFoundException {
+		return data.read(recordRows[random.nextInt(recordRows.length)]);
+	}
+
+}
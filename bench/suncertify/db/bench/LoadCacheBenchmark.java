@@ -0,0 +1,121 @@
+package suncertify.db.bench;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import suncertify.db.CacheLoader;
+import suncertify.db.DataFileFormat;
+import suncertify.db.DatabaseConstants;
+import suncertify.db.FieldIndex;
+import suncertify.db.IDataStorage;
+import suncertify.db.MappedDataStorage;
+import suncertify.db.RandomAccessDataStorage;
+import suncertify.db.RecordStore;
+
+/**
+ * Measures loading the records cache of a database file, the work done by
+ * <code>Data</code> when the database is opened. The loader is run
+ * directly because <code>Data</code> loads the cache only once per JVM.
+ * <br />The 10M rows file needs about 1.6 GB of disk and a large heap.
+ *
+ * @author Leo Gutierrez
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class LoadCacheBenchmark {
+
+	/**
+	 * Number of records in the database file.
+	 */
+	@Param({"10000", "1000000", "10000000"})
+	private int rows;
+
+	/**
+	 * Storage used to read the database file.
+	 */
+	@Param({DatabaseConstants.FILE_STORAGE, DatabaseConstants.MAPPED_STORAGE})
+	private String storageType;
+
+	/**
+	 * Generated database file.
+	 */
+	private File file;
+
+	/**
+	 * Generates the database file.
+	 *
+	 * @throws Exception If the file can't be generated.
+	 */
+	@Setup(Level.Trial)
+	public final void setUp() throws Exception {
+		file = BenchmarkDataFile.create(rows, 0.1);
+	}
+
+	/**
+	 * Loads all the records of the database file.
+	 *
+	 * @return The loaded records.
+	 * @throws Exception If the file can't be read.
+	 */
+	@Benchmark
+	public final RecordStore loadCache() throws Exception {
+
+		final RandomAccessFile database = new RandomAccessFile(file,
+				DatabaseConstants.READ_WRITE_ACCESS_MODE);
+		try {
+
+			final DataFileFormat dataFileFormat = new DataFileFormat(database);
+
+			final IDataStorage storage;
+			if (DatabaseConstants.MAPPED_STORAGE.equals(storageType)) {
+				storage = new MappedDataStorage(database,
+						dataFileFormat.getDataSectionOffset());
+			} else {
+				storage = new RandomAccessDataStorage(database);
+			}
+
+			final RecordStore records = new RecordStore(dataFileFormat,
+					dataFileFormat.getRecordCount());
+
+			final FieldIndex[] fieldIndexes =
+					new FieldIndex[dataFileFormat.getNumberOfFieldsPerRecord()];
+			for (int field = 0; field < fieldIndexes.length; field++) {
+				fieldIndexes[field] = new FieldIndex();
+			}
+
+			final CacheLoader loader = new CacheLoader(storage,
+					dataFileFormat, records, fieldIndexes,
+					new PriorityQueue<Integer>(),
+					new ReentrantReadWriteLock().writeLock(),
+					(int) DatabaseConstants.DEFAULT_LOAD_CHUNK_SIZE);
+			loader.load();
+			loader.awaitLoaded();
+
+			return records;
+
+		} finally {
+			database.close();
+		}
+	}
+
+}
@@ -0,0 +1,115 @@
+package suncertify.db.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import suncertify.db.Data;
+import suncertify.db.RecordNotFoundException;
+
+/**
+ * Measures <code>lock</code>/<code>update</code>/<code>unlock</code> cycles
+ * from several threads. The number of hot records controls the contention:
+ * with one hot record every thread waits for the same lock.
+ *
+ * @author Leo Gutierrez
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class LockUpdateBenchmark {
+
+	/**
+	 * Number of records updated by the threads.
+	 */
+	@Param({"1", "16", "10000"})
+	private int hotRecords;
+
+	/**
+	 * Data connected to the generated file.
+	 */
+	private Data data;
+
+	/**
+	 * Rows of the hot records.
+	 */
+	private int[] recordRows;
+
+	/**
+	 * Values of the hot records.
+	 */
+	private String[][] records;
+
+	/**
+	 * Generates and opens the database file, and reads the hot records.
+	 *
+	 * @throws Exception If the file can't be generated.
+	 */
+	@Setup(Level.Trial)
+	public final void setUp() throws Exception {
+
+		data = BenchmarkDataFile.open(
+				BenchmarkDataFile.create(Math.max(hotRecords, 10000), 0));
+
+		recordRows = new int[hotRecords];
+		records = new String[hotRecords][];
+
+		final int[] validRows = data.find(null);
+		for (int record = 0; record < hotRecords; record++) {
+			recordRows[record] = validRows[record];
+			records[record] = data.read(recordRows[record]);
+		}
+	}
+
+	/**
+	 * Per thread source of the records to update.
+	 */
+	@State(Scope.Thread)
+	public static class ThreadState {
+
+		/**
+		 * Source of the records to update.
+		 */
+		private final Random random = new Random();
+
+	}
+
+	/**
+	 * Locks, updates and unlocks a random hot record.
+	 *
+	 * @param threadState State of the calling thread.
+	 * @throws RecordNotFoundException If the record is not found.
+	 */
+	@Benchmark
+	public final void lockUpdateUnlock(final ThreadState threadState)
+			throws RecordNotFoundException {
+
+		final int record = threadState.random.nextInt(hotRecords);
+		final int recordRow = recordRows[record];
+
+		final long cookie = data.lock(recordRow);
+		try {
+			data.update(recordRow, records[record], cookie);
+		} finally {
+			data.unlock(recordRow, cookie);
+		}
+	}
+
+}
@@ -172,51 +172,25 @@ public class BookRoomListener implements ActionListener, MouseListener {
 
 		final JTable recordTable = clientWindow.getRecordTable();
 
-		if (isRoomAlreadyBooked(recordTable)) {
-			
-			ControllerLogger.severe(CLASS_NAME, methodName,
-					"Unable to book the room, it is already booked");
-
-			displayErrorToUser(
-					GUIMessages.ROOM_ALREADY_BOOKED_MESSAGE);
-			
-		} else {
-
-			try {
-
-				final int selectedRow = recordTable.getSelectedRow();
-
-				final Record recordToUpdate =
-						clientWindow.getRecordFromTable(selectedRow);
-
-				recordToUpdate.setOwner(ownerId);
-
-				if (updateDatabase(recordToUpdate)) {
-
-					recordTable.setValueAt(ownerId, selectedRow,
-							Record.OWNER_FIELD_INDEX);
+		final int selectedRow = recordTable.getSelectedRow();
 
-					recordTable.getSelectionModel().setSelectionInterval(
-							selectedRow, selectedRow);
+		final Record recordSelected =
+				clientWindow.getRecordFromTable(selectedRow);
 
-					final String messageToUser = GUIUtils.formatMessage(
-							GUIMessages.ROOM_BOOKED_MESSAGE, 
-							new Object[]{recordToUpdate.getHotelName(), 
-									recordToUpdate.getLocation(), recordToUpdate.getOwner()});
-					
-					GUIUtils.showInformationMessage(clientWindow, messageToUser);
-					
-				}
+		if (bookInDatabase(recordSelected.getDatabaseRow(), ownerId)) {
 
-			} catch (IllegalArgumentException e) {
+			recordTable.setValueAt(ownerId, selectedRow,
+					Record.OWNER_FIELD_INDEX);
 
-				ControllerLogger.warning(CLASS_NAME, methodName,
-						"Invalid owner id value: " + ownerId);
+			recordTable.getSelectionModel().setSelectionInterval(
+					selectedRow, selectedRow);
 
-				GUIUtils.showWarningMessage(clientWindow,
-						GUIMessages.INVALID_VALUE_TO_SET_MESSAGE);
+			final String messageToUser = GUIUtils.formatMessage(
+					GUIMessages.ROOM_BOOKED_MESSAGE, 
+					new Object[]{recordSelected.getHotelName(), 
+							recordSelected.getLocation(), ownerId});
 
-			}
+			GUIUtils.showInformationMessage(clientWindow, messageToUser);
 
 		}
 
@@ -225,46 +199,66 @@ public class BookRoomListener implements ActionListener, MouseListener {
 	}
 
 	/**
-	 * Verifies if the given <code>Record</code> is already booked.
-	 * <br />Reads the given record from the database to get a fresh data,
-	 * and verify if the record was or was not booked previously by another
-	 * instance.
+	 * Books the room of the given record row in the database, only if it is
+	 * not booked yet, in a single call to the database. If the room is 
+	 * already booked, the records table is updated with its owner.
 	 *
-	 *@param recordTable JTable object from where extract the
-	 *                    <code>Record</code> selected by user.
-	 * @return True if it is booked; False otherwise.
+	 * @param recordRow Record row of the room to book.
+	 * @param ownerId Owner Id value to use to book room.
+	 * @return True if the room was booked in the database; False otherwise.
 	 */
-	private boolean isRoomAlreadyBooked(final JTable recordTable) {
+	private boolean bookInDatabase(final int recordRow, final String ownerId) {
 
-		final String methodName = "isRoomAlreadyBooked";
-		ControllerLogger.entering(CLASS_NAME, methodName);
+		final String methodName = "bookInDatabase";
+		ControllerLogger.entering(CLASS_NAME, methodName, ownerId);
 
 		boolean roomBooked = false;
 
-		final int selectedRow = recordTable.getSelectedRow();
+		final IDatabase database = clientWindow.getDatabase();
 
-		final Record recordSelected =
-				clientWindow.getRecordFromTable(selectedRow);
+		try {
 
-		final Record freshRecord = readRecordFromDatabase(
-				recordSelected.getDatabaseRow());
+			roomBooked = database.book(recordRow, ownerId);
 
-		if (freshRecord != null) {
+			if (!roomBooked) {
 
-			final String ownerId = freshRecord.getOwner();
+				ControllerLogger.severe(CLASS_NAME, methodName,
+						"Unable to book the room, it is already booked");
 
-			if ((ownerId != null) && (!"".equals(ownerId))) {
+				showCurrentOwner(recordRow);
 
-				roomBooked = true;
+				displayErrorToUser(
+						GUIMessages.ROOM_ALREADY_BOOKED_MESSAGE);
 
-				// Update record selected with owner that already has booked the room.
-				recordTable.setValueAt(ownerId, selectedRow,
-						Record.OWNER_FIELD_INDEX);
+			}
 
-				recordTable.getSelectionModel().setSelectionInterval(
-						selectedRow, selectedRow);
+		} catch (IllegalArgumentException e) {
 
-			}
+			ControllerLogger.warning(CLASS_NAME, methodName,
+					"Invalid owner id value: " + ownerId);
+
+			GUIUtils.showWarningMessage(clientWindow,
+					GUIMessages.INVALID_VALUE_TO_SET_MESSAGE);
+
+		} catch (RemoteException e) {
+
+			ControllerLogger.severe(CLASS_NAME, methodName,
+					"Unable to book the room due to networking problems: "
+							+ e.getMessage());
+
+			displayErrorToUser(GUIMessages.FAILED_BOOK_ROOM_DB_MESSAGE);
+			
+			clientWindow.setStatusLabelText(
+					GUIMessages.NOT_CONNECTED_TO_SERVER_MESSAGE);
+
+		} catch (RecordNotFoundException e) {
+
+			ControllerLogger.severe(CLASS_NAME, methodName,
+					"Unable to book the room, the record was not found in db: "
+							+ e.getMessage());
+
+			displayErrorToUser(
+					GUIMessages.FAILED_BOOK_ROOM_RECORD_NOT_FOUND_MESSAGE);
 
 		}
 
@@ -273,6 +267,32 @@ public class BookRoomListener implements ActionListener, MouseListener {
 		return roomBooked;
 	}
 
+	/**
+	 * Updates the selected row of the records table with the owner that 
+	 * already has booked the room, read from the database.
+	 *
+	 * @param recordRow Record row of the room.
+	 */
+	private void showCurrentOwner(final int recordRow) {
+
+		final JTable recordTable = clientWindow.getRecordTable();
+
+		final int selectedRow = recordTable.getSelectedRow();
+
+		final Record freshRecord = readRecordFromDatabase(recordRow);
+
+		if (freshRecord != null) {
+
+			recordTable.setValueAt(freshRecord.getOwner(), selectedRow,
+					Record.OWNER_FIELD_INDEX);
+
+			recordTable.getSelectionModel().setSelectionInterval(
+					selectedRow, selectedRow);
+
+		}
+
+	}
+
 	/**
 	 * Reads a record in the given position form the database.
 	 *
@@ -311,57 +331,6 @@ public class BookRoomListener implements ActionListener, MouseListener {
 
 	}
 
-	/**
-	 * Updates the database with the given <code>Record</code> that contains
-	 * the owner id value specified by user.
-	 *
-	 * @param record <code>Record</code> to update in database.
-	 * @return True if the the <code>Record</code> was updated successfully in
-	 *         the database; False otherwise.
-	 */
-	private boolean updateDatabase(final Record record) {
-
-		final String methodName = "updateDatabase";
-		ControllerLogger.entering(CLASS_NAME, methodName, record);
-
-		boolean recordUpdated = true;
-
-		final IDatabase database = clientWindow.getDatabase();
-
-		try {
-
-			database.update(record.getDatabaseRow(), record);
-
-		} catch (RemoteException e) {
-
-			ControllerLogger.severe(CLASS_NAME, methodName,
-					"Unable to book the room due to networking problems: "
-							+ e.getMessage());
-
-			displayErrorToUser(GUIMessages.FAILED_BOOK_ROOM_DB_MESSAGE);
-			
-			clientWindow.setStatusLabelText(
-					GUIMessages.NOT_CONNECTED_TO_SERVER_MESSAGE);
-			
-			recordUpdated = false;
-
-		} catch (RecordNotFoundException e) {
-
-			ControllerLogger.severe(CLASS_NAME, methodName,
-					"Unable to book the room, the record was not found in db: "
-							+ e.getMessage());
-
-			displayErrorToUser(
-					GUIMessages.FAILED_BOOK_ROOM_RECORD_NOT_FOUND_MESSAGE);
-
-			recordUpdated = false;
-		}
-
-		ControllerLogger.exiting(CLASS_NAME, methodName, recordUpdated);
-
-		return recordUpdated;
-	}
-
 	/**
 	 * Updates the main window's status bar and displays the given error
 	 * message to the user.
@@ -8,6 +8,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import suncertify.db.IDatabase;
+import suncertify.db.MatchMode;
 import suncertify.db.Record;
 import suncertify.gui.GUIMessages;
 import suncertify.gui.GUIUtils;
@@ -157,7 +158,9 @@ public class SearchRecordsListener implements ActionListener {
 
 	/**
 	 * Searches records in the given database that exactly match the Hotel 
-	 * name and location with the specified string values.
+	 * name and location with the specified string values. The values are
+	 * matched by the database server, so only the matching records are 
+	 * retrieved. An empty value matches any value.
 	 * 
 	 * @param searchHotel Hotel name value to apply in the search criteria.
 	 * @param searchLocation Location value to apply in the search criteria.
@@ -172,30 +175,14 @@ public class SearchRecordsListener implements ActionListener {
 		ControllerLogger.entering(CLASS_NAME, methodName, searchHotel, 
 				searchLocation);
 
-		final List<Record> recordsFound = new ArrayList<Record>();
-
 		try {
 
-			final List<Record> allRecords = searchAllRecords();
-
-			for (Record record: allRecords) {
-
-				final boolean exactlyMatchHotel = isExactlyMatch(searchHotel,
-						record.getHotelName());
-				final boolean exactlyMatchLocation =
-						isExactlyMatch(searchLocation, record.getLocation());
-
-				if (exactlyMatchHotel && exactlyMatchLocation) {
-					recordsFound.add(record);
-				}
-
-			}
+			final IDatabase database = clientWindow.getDatabase();
+			return database.find(searchHotel, searchLocation, MatchMode.EXACT);
 
 		} finally {
 			ControllerLogger.exiting(CLASS_NAME, methodName);
 		}
-		
-		return recordsFound;
 	}
 
 	/**
@@ -220,39 +207,6 @@ public class SearchRecordsListener implements ActionListener {
 
 	}
 
-	/**
-	 * Verifies if the given strings exactly match or not, returns true if 
-	 * they do, false otherwise.
-	 * 
-	 * @param searchInput User input search value (If the value is empty, will
-	 *                    match any value).
-	 * @param recordValue Record value.
-	 * @return True of they exactly match; False otherwise.
-	 */
-	private boolean isExactlyMatch(final String searchInput, 
-			final String recordValue) {
-		
-		final String methodName = "isExactlyMatch";
-		ControllerLogger.entering(CLASS_NAME, methodName, searchInput, 
-				recordValue);
-		
-		boolean match = false;
-		
-		if (isEmptyString(searchInput)) {
-			
-			match = true;
-			
-		} else {
-		
-			match = searchInput.equals(recordValue);
-			
-		}
-		
-		ControllerLogger.exiting(CLASS_NAME, methodName, match);
-		
-		return match;
-	}
-	
 	/**
 	 * Verifies if the given value is null or empty.
 	 * 
@@ -0,0 +1,25 @@
+package suncertify.db;
+
+/**
+ * Result of booking the room of a record.
+ *
+ * @author Leo Gutierrez
+ */
+public enum BookResult {
+
+	/**
+	 * The room was booked for the given owner.
+	 */
+	BOOKED,
+
+	/**
+	 * The room was already booked, it was not changed.
+	 */
+	ALREADY_BOOKED,
+
+	/**
+	 * A client holds the lock on the record, it was not changed.
+	 */
+	RECORD_LOCKED
+
+}
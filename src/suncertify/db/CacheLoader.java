@@ -0,0 +1,541 @@
+package suncertify.db;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Loads the records of the database file into the records cache in the
+ * background.
+ * <br />The data section is read sequentially in large chunks aligned to the
+ * record length. Each chunk is copied into the record store as soon as it is
+ * read, so the records it contains can be served right away, and the
+ * values of its indexed fields are decoded in parallel on a fork/join pool
+ * while the next chunks are read. The decoded chunks are added to the field indexes in reading
+ * order.
+ * <br />The field indexes and the deleted record rows are filled when the
+ * whole file is loaded; they must not be used before {@link #awaitLoaded()}
+ * returns.
+ *
+ * @author Leo Gutierrez
+ */
+public class CacheLoader {
+
+	/**
+	 * Class name.
+	 */
+	private static final String CLASS_NAME = CacheLoader.class.getName();
+
+	/**
+	 * Number of records below which a chunk is not split between tasks.
+	 */
+	private static final int MIN_RECORDS_PER_TASK = 1024;
+
+	/**
+	 * Number of progress messages logged while loading.
+	 */
+	private static final int PROGRESS_STEPS = 10;
+
+	/**
+	 * Storage from where the records are read.
+	 */
+	private final IDataStorage storage;
+
+	/**
+	 * Format of the database file.
+	 */
+	private final DataFileFormat dataFileFormat;
+
+	/**
+	 * Store where the records are loaded.
+	 */
+	private final RecordStore records;
+
+	/**
+	 * Field indexes filled with the valid records, by field position.
+	 */
+	private final FieldIndex[] fieldIndexes;
+
+	/**
+	 * Positions of the fields that are indexed, the only ones decoded.
+	 */
+	private final int[] indexedFields;
+
+	/**
+	 * Queue filled with the deleted record rows.
+	 */
+	private final Queue<Integer> deletedRecordRows;
+
+	/**
+	 * Lock that guards the record store.
+	 */
+	private final Lock writeLock;
+
+	/**
+	 * Number of records read in each chunk.
+	 */
+	private final int recordsPerChunk;
+
+	/**
+	 * Decoder of the field values of the records loaded.
+	 */
+	private final RecordDecoder decoder;
+
+	/**
+	 * Guards the loading state.
+	 */
+	private final ReentrantLock mutex = new ReentrantLock();
+
+	/**
+	 * Signaled when a chunk is loaded, or the loading ends.
+	 */
+	private final Condition progressed = mutex.newCondition();
+
+	/**
+	 * Position in the database file up to where the records are loaded.
+	 */
+	private long loadedPosition;
+
+	/**
+	 * True when all the records are loaded and indexed.
+	 */
+	private boolean loaded;
+
+	/**
+	 * Error that stopped the loading, null if none.
+	 */
+	private String failure;
+
+	/**
+	 * Constructs a <code>CacheLoader</code> object.
+	 *
+	 * @param storage Storage from where the records are read.
+	 * @param dataFileFormat Format of the database file.
+	 * @param records Empty store where the records are loaded.
+	 * @param fieldIndexes Empty field indexes, by field position; null for
+	 *                     the fields that are not indexed.
+	 * @param deletedRecordRows Empty queue for the deleted record rows.
+	 * @param writeLock Lock that guards the record store.
+	 * @param chunkSize Size, in bytes, of the chunks read from the storage.
+	 */
+	public CacheLoader(final IDataStorage storage,
+			final DataFileFormat dataFileFormat, final RecordStore records,
+			final FieldIndex[] fieldIndexes,
+			final Queue<Integer> deletedRecordRows, final Lock writeLock,
+			final int chunkSize) {
+
+		this.storage = storage;
+		this.dataFileFormat = dataFileFormat;
+		this.records = records;
+		this.fieldIndexes = fieldIndexes;
+		this.deletedRecordRows = deletedRecordRows;
+		this.writeLock = writeLock;
+
+		int indexedFieldCount = 0;
+		for (FieldIndex fieldIndex: fieldIndexes) {
+			if (fieldIndex != null) {
+				indexedFieldCount++;
+			}
+		}
+
+		indexedFields = new int[indexedFieldCount];
+		for (int field = 0, index = 0; field < fieldIndexes.length; field++) {
+			if (fieldIndexes[field] != null) {
+				indexedFields[index++] = field;
+			}
+		}
+
+		recordsPerChunk = Math.max(1,
+				chunkSize / dataFileFormat.getRecordLength());
+
+		decoder = new RecordDecoder(dataFileFormat);
+
+		loadedPosition = dataFileFormat.getDataSectionOffset();
+	}
+
+	/**
+	 * Starts loading the records in a background thread.
+	 */
+	public final void start() {
+
+		final Thread loader = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				load();
+			}
+
+		}, "CacheLoader");
+
+		loader.setDaemon(true);
+		loader.start();
+	}
+
+	/**
+	 * Loads all the records in the calling thread.
+	 */
+	public final void load() {
+
+		final String methodName = "load";
+		DatabaseLogger.entering(CLASS_NAME, methodName);
+
+		final long startTime = System.currentTimeMillis();
+
+		final ForkJoinPool pool = new ForkJoinPool();
+
+		try {
+
+			final int recordLength = dataFileFormat.getRecordLength();
+			final int recordCount = dataFileFormat.getRecordCount();
+
+			// Bounds the chunks kept in memory while they are indexed
+			final int maxPendingChunks = pool.getParallelism() * 2;
+			final Queue<DecodeTask> pendingChunks = 
+					new ArrayDeque<DecodeTask>();
+
+			int progressStep = 1;
+
+			for (int record = 0; record < recordCount;
+					record += recordsPerChunk) {
+
+				final int chunkRecords =
+						Math.min(recordsPerChunk, recordCount - record);
+				final int chunkRecordRow = dataFileFormat.getRecordRow(record);
+
+				final byte[] chunk = new byte[chunkRecords * recordLength];
+				storage.read(chunkRecordRow, chunk, 0, chunk.length);
+
+				writeLock.lock();
+				try {
+					records.write(chunkRecordRow, chunk, 0, chunk.length);
+				} finally {
+					writeLock.unlock();
+				}
+
+				publishProgress(chunkRecordRow + chunk.length);
+
+				final DecodeTask decodeTask = new DecodeTask(chunk, 
+						chunkRecordRow, 
+						new String[chunkRecords * indexedFields.length],
+						new boolean[chunkRecords], 0, chunkRecords);
+				pool.execute(decodeTask);
+				pendingChunks.add(decodeTask);
+
+				if (pendingChunks.size() > maxPendingChunks) {
+					addToIndexes(joinNext(pendingChunks));
+				}
+
+				final int recordsLoaded = record + chunkRecords;
+				if (recordsLoaded * (long) PROGRESS_STEPS
+						>= recordCount * (long) progressStep) {
+
+					DatabaseLogger.info(CLASS_NAME, methodName, "Loaded "
+							+ recordsLoaded + " of " + recordCount
+							+ " records");
+
+					progressStep = (int) (recordsLoaded * (long) PROGRESS_STEPS
+							/ recordCount) + 1;
+				}
+			}
+
+			while (!pendingChunks.isEmpty()) {
+				addToIndexes(joinNext(pendingChunks));
+			}
+
+			for (int recordRow: records.deletedRecordRows()) {
+				deletedRecordRows.add(recordRow);
+			}
+
+			finish(null);
+
+			DatabaseLogger.info(CLASS_NAME, methodName, "Loaded "
+					+ recordCount + " records in "
+					+ (System.currentTimeMillis() - startTime) + " ms");
+
+		} catch (IOException e) {
+
+			final String errorMessage = "Unable to load to cache all the "
+					+ "records from the database: " + e.getMessage();
+
+			DatabaseLogger.severe(CLASS_NAME, methodName, errorMessage);
+
+			finish(errorMessage);
+
+		} catch (RuntimeException e) {
+
+			final String errorMessage = "Unable to load to cache all the "
+					+ "records from the database: " + e;
+
+			DatabaseLogger.severe(CLASS_NAME, methodName, errorMessage);
+
+			finish(errorMessage);
+
+		} finally {
+
+			pool.shutdown();
+
+			DatabaseLogger.exiting(CLASS_NAME, methodName);
+		}
+	}
+
+	/**
+	 * Waits until the record in the given record row is loaded, or all the
+	 * records are loaded if the row is out of the data section.
+	 *
+	 * @param recordRow Record row.
+	 * @throws RuntimeException If the records could not be loaded.
+	 */
+	public final void awaitRecordRow(final int recordRow)
+			throws RuntimeException {
+
+		mutex.lock();
+		try {
+
+			while ((!loaded) && (failure == null)
+					&& (recordRow >= loadedPosition)) {
+				progressed.awaitUninterruptibly();
+			}
+
+			checkFailure();
+
+		} finally {
+			mutex.unlock();
+		}
+	}
+
+	/**
+	 * Waits until all the records are loaded and indexed.
+	 *
+	 * @throws RuntimeException If the records could not be loaded.
+	 */
+	public final void awaitLoaded() throws RuntimeException {
+
+		mutex.lock();
+		try {
+
+			while ((!loaded) && (failure == null)) {
+				progressed.awaitUninterruptibly();
+			}
+
+			checkFailure();
+
+		} finally {
+			mutex.unlock();
+		}
+	}
+
+	/**
+	 * Throws the error that stopped the loading, if any. Must be called
+	 * while holding the mutex.
+	 *
+	 * @throws RuntimeException If the records could not be loaded.
+	 */
+	private void checkFailure() throws RuntimeException {
+
+		if (failure != null) {
+			throw new RuntimeException(failure);
+		}
+	}
+
+	/**
+	 * Records that the records are loaded up to the given position and wakes
+	 * up the threads waiting for them.
+	 *
+	 * @param position Position in the database file up to where the records
+	 *                 are loaded.
+	 */
+	private void publishProgress(final long position) {
+
+		mutex.lock();
+		try {
+
+			loadedPosition = position;
+
+			progressed.signalAll();
+
+		} finally {
+			mutex.unlock();
+		}
+	}
+
+	/**
+	 * Ends the loading and wakes up all the waiting threads.
+	 *
+	 * @param errorMessage Error that stopped the loading, null if the
+	 *                     records were loaded.
+	 */
+	private void finish(final String errorMessage) {
+
+		mutex.lock();
+		try {
+
+			if (errorMessage == null) {
+				loaded = true;
+			} else {
+				failure = errorMessage;
+			}
+
+			progressed.signalAll();
+
+		} finally {
+			mutex.unlock();
+		}
+	}
+
+	/**
+	 * Waits until the oldest pending chunk is decoded.
+	 *
+	 * @param pendingChunks Chunks being decoded, in reading order.
+	 * @return The oldest pending chunk, decoded.
+	 */
+	private DecodeTask joinNext(final Queue<DecodeTask> pendingChunks) {
+
+		final DecodeTask decodedChunk = pendingChunks.poll();
+		decodedChunk.join();
+
+		return decodedChunk;
+	}
+
+	/**
+	 * Adds the valid records of the given decoded chunk to the field 
+	 * indexes.
+	 *
+	 * @param decodedChunk Chunk whose field values are decoded.
+	 */
+	private void addToIndexes(final DecodeTask decodedChunk) {
+
+		final int recordLength = dataFileFormat.getRecordLength();
+		final String[] values = decodedChunk.values;
+
+		for (int record = 0; record < decodedChunk.recordCount; record++) {
+
+			if (decodedChunk.deleted[record]) {
+				continue;
+			}
+
+			final int valuesStart = record * indexedFields.length;
+			final int recordRow =
+					decodedChunk.chunkRecordRow + record * recordLength;
+
+			for (int index = 0; index < indexedFields.length; index++) {
+				fieldIndexes[indexedFields[index]].add(
+						values[valuesStart + index], recordRow);
+			}
+		}
+	}
+
+	/**
+	 * Task that decodes the indexed field values of the valid records in a
+	 * range of a chunk, and flags its deleted records, splitting the range
+	 * in halves until it is small enough.
+	 */
+	private final class DecodeTask extends RecursiveAction {
+
+		/**
+		 * Serial version UID.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Chunk bytes.
+		 */
+		private final byte[] chunk;
+
+		/**
+		 * Record row of the first record in the chunk.
+		 */
+		private final int chunkRecordRow;
+
+		/**
+		 * Indexed field values of the chunk records, by record and indexed
+		 * field.
+		 */
+		private final String[] values;
+
+		/**
+		 * Deleted flags of the chunk records.
+		 */
+		private final boolean[] deleted;
+
+		/**
+		 * First record of the range, relative to the chunk.
+		 */
+		private final int firstRecord;
+
+		/**
+		 * Number of records in the range.
+		 */
+		private final int recordCount;
+
+		/**
+		 * Constructs a <code>DecodeTask</code> object.
+		 *
+		 * @param chunk Chunk bytes.
+		 * @param chunkRecordRow Record row of the first record in the chunk.
+		 * @param values Indexed field values of the chunk records.
+		 * @param deleted Deleted flags of the chunk records.
+		 * @param firstRecord First record of the range.
+		 * @param recordCount Number of records in the range.
+		 */
+		DecodeTask(final byte[] chunk, final int chunkRecordRow,
+				final String[] values, final boolean[] deleted,
+				final int firstRecord, final int recordCount) {
+
+			this.chunk = chunk;
+			this.chunkRecordRow = chunkRecordRow;
+			this.values = values;
+			this.deleted = deleted;
+			this.firstRecord = firstRecord;
+			this.recordCount = recordCount;
+		}
+
+		@Override
+		protected void compute() {
+
+			if (recordCount <= MIN_RECORDS_PER_TASK) {
+				decodeRecords();
+				return;
+			}
+
+			final int half = recordCount / 2;
+
+			invokeAll(new DecodeTask(chunk, chunkRecordRow, values, deleted,
+					firstRecord, half),
+					new DecodeTask(chunk, chunkRecordRow, values, deleted,
+							firstRecord + half, recordCount - half));
+		}
+
+		/**
+		 * Decodes the indexed field values of the valid records in the range,
+		 * and flags the deleted ones.
+		 */
+		private void decodeRecords() {
+
+			final int recordLength = dataFileFormat.getRecordLength();
+
+			for (int record = firstRecord;
+					record < firstRecord + recordCount; record++) {
+
+				final int recordStart = record * recordLength;
+
+				if (chunk[recordStart] == DatabaseConstants.DELETED_RECORD) {
+					deleted[record] = true;
+					continue;
+				}
+
+				for (int index = 0; index < indexedFields.length; index++) {
+
+					values[record * indexedFields.length + index] =
+							decoder.decodeField(chunk, recordStart,
+									indexedFields[index]);
+				}
+			}
+		}
+	}
+
+}
@@ -4,56 +4,186 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
 import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import suncertify.metrics.IGaugeMXBean;
+import suncertify.metrics.MetricsRegistry;
+import suncertify.metrics.OperationMetrics;
+
 /**
  * Provides the access to perform the CRUD operations on the database file.
  * 
  * @author Leo Gutierrez
  */
-public class Data implements DB {
+public class Data implements ITimedLockDB {
 
 	/**
 	 * Class name.
 	 */
 	private static final String CLASS_NAME = Data.class.getName();
 	
-	 /**
-     * Thread manager.
-     */
-    private ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
-    
-    /**
-     * Read Lock instance.
-     */
-    private Lock readLock = readWriteLock.readLock();
-    
-    /**
-     * Write Lock instance.
-     */
-    private Lock writeLock = readWriteLock.writeLock();
-    
-    /**
-     * Condition when locking a row.
-     */
-    private Condition lockNotReleased = writeLock.newCondition();
+	/**
+	 * Thread manager, shared by all the <code>Data</code> instances as the
+	 * cache is.
+	 */
+	private static final ReadWriteLock READ_WRITE_LOCK =
+			new ReentrantReadWriteLock();
 	
-    /**
-     * Contains all the record numbers that are locked.
-     */
-    private static final Map<Integer, Long> RECORDS_LOCKED =
-			new HashMap<Integer, Long>();
+	/**
+	 * Read Lock instance.
+	 */
+	private static final Lock READ_LOCK = READ_WRITE_LOCK.readLock();
+	
+	/**
+	 * Write Lock instance.
+	 */
+	private static final Lock WRITE_LOCK = READ_WRITE_LOCK.writeLock();
+	
+	/**
+	 * Manages the records locked by the clients.
+	 */
+	private static final RecordLockManager LOCK_MANAGER =
+			new RecordLockManager();
+	
+	/**
+	 * Generates the cookies of the record locks.
+	 */
+	private static final LockCookieGenerator COOKIE_GENERATOR = 
+			new LockCookieGenerator();
+	
+	/**
+	 * Timeout of the lock requests that wait until the record is unlocked.
+	 */
+	private static final long NO_LOCK_TIMEOUT = -1;
+	
+	/**
+	 * Metrics of the read operation.
+	 */
+	private static final OperationMetrics READ_METRICS = 
+			MetricsRegistry.operation("Data.read");
+	
+	/**
+	 * Metrics of the batch read operation.
+	 */
+	private static final OperationMetrics READ_MANY_METRICS = 
+			MetricsRegistry.operation("Data.readMany");
+	
+	/**
+	 * Metrics of the find operation.
+	 */
+	private static final OperationMetrics FIND_METRICS = 
+			MetricsRegistry.operation("Data.find");
+	
+	/**
+	 * Metrics of the find operations that match the whole field values.
+	 */
+	private static final OperationMetrics FIND_EXACT_METRICS = 
+			MetricsRegistry.operation("Data.findExact");
+	
+	/**
+	 * Metrics of the create operation.
+	 */
+	private static final OperationMetrics CREATE_METRICS = 
+			MetricsRegistry.operation("Data.create");
+	
+	/**
+	 * Metrics of the update operation.
+	 */
+	private static final OperationMetrics UPDATE_METRICS = 
+			MetricsRegistry.operation("Data.update");
+	
+	/**
+	 * Metrics of the updates applied without locking the record, only if 
+	 * its room is not booked; the updates refused because the record is 
+	 * locked by a client are counted as successes.
+	 */
+	private static final OperationMetrics UPDATE_IF_NOT_BOOKED_METRICS = 
+			MetricsRegistry.operation("Data.updateIfNotBooked");
+	
+	/**
+	 * Metrics of the book operation.
+	 */
+	private static final OperationMetrics BOOK_METRICS = 
+			MetricsRegistry.operation("Data.book");
+	
+	/**
+	 * Metrics of the delete operation.
+	 */
+	private static final OperationMetrics DELETE_METRICS = 
+			MetricsRegistry.operation("Data.delete");
+	
+	/**
+	 * Metrics of the lock operation.
+	 */
+	private static final OperationMetrics LOCK_METRICS = 
+			MetricsRegistry.operation("Data.lock");
+	
+	/**
+	 * Metrics of the unlock operation.
+	 */
+	private static final OperationMetrics UNLOCK_METRICS = 
+			MetricsRegistry.operation("Data.unlock");
+	
+	/**
+	 * Time waited for the records locked by other clients.
+	 */
+	private static final OperationMetrics LOCK_WAIT_METRICS = 
+			MetricsRegistry.operation("Data.lockWait");
+	
+	/**
+	 * Configures the lock leases and starts their reaper, and publishes the 
+	 * number of locked records and the lock contention profiler.
+	 */
+	static {
+		
+		final DatabaseProperties databaseProperties = new DatabaseProperties();
+		
+		LOCK_MANAGER.setProfiling(
+				databaseProperties.readLockProfilingEnabled());
+		
+		final long leaseTimeout = databaseProperties.readLockLeaseTimeout();
+		
+		LOCK_MANAGER.setLeaseTimeout(leaseTimeout);
+		
+		if (leaseTimeout > 0) {
+			LOCK_MANAGER.startLeaseReaper(Math.min(
+					DatabaseConstants.MAX_LEASE_REAPER_PERIOD, 
+					Math.max(1, leaseTimeout / 4)));
+		}
+		
+		MetricsRegistry.registerProfiler("Data.locks", 
+				new LockContentionProfiler(LOCK_MANAGER));
+		
+		MetricsRegistry.registerGauge("Data.lockedRecords", 
+				new IGaugeMXBean() {
+			
+			public long getValue() {
+				return LOCK_MANAGER.lockedRecordCount();
+			}
+			
+		});
+		
+		MetricsRegistry.registerGauge("Data.expiredLockLeases", 
+				new IGaugeMXBean() {
+			
+			public long getValue() {
+				return LOCK_MANAGER.expiredLeaseCount();
+			}
+			
+		});
+	}
     
 	/**
      * Cache that contains all the deleted record rows in the database.
@@ -62,16 +192,55 @@ public class Data implements DB {
     		new PriorityQueue<Integer>();
     
     /**
-     * Cache that contains all valid records (not deleted) in the database.
+     * Writes applied to the cache whose entry in the write-ahead log may not
+     * be saved yet, oldest first. Guarded by the write lock.
      */
-    private static final Map<Integer, String []> VALID_RECORDS = 
-    		new LinkedHashMap<Integer, String[]>();
-  		
+    private static final Deque<UnsavedWrite> UNSAVED_WRITES = 
+    		new ArrayDeque<UnsavedWrite>();
+    
     /**
 	 * Reference to the database file.
 	 */
 	private static RandomAccessFile database;
 	
+	/**
+	 * Cache that contains all the records (valid and deleted) in the 
+	 * database, in the same layout as the database file.
+	 */
+	private static RecordStore records;
+	
+	/**
+	 * Encoder of the records written into the database file.
+	 */
+	private static RecordEncoder encoder;
+	
+	/**
+	 * Loader of the records cache.
+	 */
+	private static CacheLoader cacheLoader;
+	
+	/**
+	 * Field indexes over the valid records, by field position; null for the
+	 * fields that are not indexed.
+	 */
+	private static FieldIndex[] fieldIndexes;
+	
+	/**
+	 * Storage used to read and write the records in the database file.
+	 */
+	private static IDataStorage storage;
+	
+	/**
+	 * Log where the writes are saved before they are applied to the 
+	 * database file, null if the log is disabled or closed.
+	 */
+	private static volatile WriteAheadLog writeAheadLog;
+	
+	/**
+	 * Row where the next record appended to the database file is written.
+	 */
+	private static int nextRecordRow;
+	
 	/**
 	 * Reference to the data file format.
 	 */
@@ -97,7 +266,9 @@ public class Data implements DB {
 
 	/**
 	 * Loads to cache all records in the database, dividing the deleted 
-	 * records from the valid records.
+	 * records from the valid records. The records are loaded in the 
+	 * background; the operations wait until the records they need are
+	 * loaded.
 	 * 
 	 * @throws RuntimeException If can't access to the database file.
 	 */
@@ -106,39 +277,32 @@ public class Data implements DB {
 		final String methodName = "loadCache";
 		DatabaseLogger.entering(CLASS_NAME, methodName);
 		
-		readLock.lock();
+		READ_LOCK.lock();
 		try {
 			
 			dataFileFormat = new DataFileFormat(database);
+			
+			storage = openDataStorage();
+			
+			writeAheadLog = openWriteAheadLog();
+			
+			// Only the fields the clients search by are indexed
+			fieldIndexes = 
+					new FieldIndex[dataFileFormat.getNumberOfFieldsPerRecord()];
+			fieldIndexes[Record.HOTEL_NAME_FIELD_INDEX] = new FieldIndex();
+			fieldIndexes[Record.LOCATION_FIELD_INDEX] = new FieldIndex();
 
-			final Set<Integer> recordRows = dataFileFormat.getRecordRows();
-
-			for (int currentRecordRow: recordRows) {
-				
-				database.seek(currentRecordRow);
-				
-				final int deletedRecord = database.readByte();
-				if (deletedRecord == DatabaseConstants.DELETED_RECORD) {
-					
-					DELETED_RECORD_ROWS.add(currentRecordRow);
-					
-				} else {
-					
-					try {
-						
-						VALID_RECORDS.put(currentRecordRow, 
-								readFromFile(currentRecordRow));
-						
-					} catch (RecordNotFoundException e) {
-						
-						DatabaseLogger.warning(CLASS_NAME, methodName, 
-								"Unable to load to cache a record: " 
-										+ e.getMessage());
-					}
-					
-				}
-				
-			}
+			records = new RecordStore(dataFileFormat, 
+					dataFileFormat.getRecordCount());
+			
+			encoder = new RecordEncoder(dataFileFormat);
+			
+			cacheLoader = new CacheLoader(storage, dataFileFormat, records, 
+					fieldIndexes, DELETED_RECORD_ROWS, WRITE_LOCK, 
+					new DatabaseProperties().readLoadChunkSize());
+			cacheLoader.start();
+			
+			nextRecordRow = (int) storage.length();
 			
 		} catch (IOException e) {
 			
@@ -150,7 +314,7 @@ public class Data implements DB {
 			throw new RuntimeException(errorMessage);
 			
 		} finally {
-			readLock.unlock();
+			READ_LOCK.unlock();
 		}
 		
 	}
@@ -234,7 +398,7 @@ public class Data implements DB {
 		
 		boolean dbOpen = true;
 		
-		readLock.lock();
+		READ_LOCK.lock();
 		try {
 			if (database == null) {
 
@@ -251,7 +415,7 @@ public class Data implements DB {
 			}
 		} finally {
 			
-			readLock.unlock();
+			READ_LOCK.unlock();
 			
 			DatabaseLogger.exiting(CLASS_NAME, methodName, dbOpen);
 		}
@@ -274,10 +438,15 @@ public class Data implements DB {
 		final String methodName = "read";
 		DatabaseLogger.entering(CLASS_NAME, methodName, recNo);
 		
-		readLock.lock();
+		final long startTime = System.nanoTime();
+		boolean succeeded = false;
+		
+		cacheLoader.awaitRecordRow(recNo);
+		
+		READ_LOCK.lock();
 		try {
 			
-			final String [] record = VALID_RECORDS.get(recNo);
+			final String [] record = records.read(recNo);
 			
 			if (record == null) {
 				
@@ -288,11 +457,15 @@ public class Data implements DB {
 				throw new RecordNotFoundException(errorMessage);
 			}
 			
+			succeeded = true;
+			
 			return record;
 					
 		} finally {
 			
-			readLock.unlock();
+			READ_LOCK.unlock();
+			
+			READ_METRICS.record(startTime, succeeded);
 			
 			DatabaseLogger.exiting(CLASS_NAME, methodName);
 		}
@@ -300,67 +473,163 @@ public class Data implements DB {
 	}
 
 	/**
-	 * Reads a record from the database file to be loaded to cache.
+	 * Reads the given records from the file at once. Returns an array with
+	 * the values of each record, in the same order as the record numbers.
 	 * 
-	 * @param recNo Record position.
-	 * @return Array of String representing the record.
-	 * @throws RecordNotFoundException If the record is deleted or any I/O
-	 *                                 error occurs.
+	 * @param recNos Record numbers to read from the database.
+	 * @return An array with an array of values for each record number, or
+	 *         null for the record numbers not found in the database.
 	 */
-	private String[] readFromFile(final int recNo) 
-			throws RecordNotFoundException {
+	public final String [][] readMany(final int[] recNos) {
 		
-		final String methodName = "readFromFile";
-		DatabaseLogger.entering(CLASS_NAME, methodName, recNo);
+		final String methodName = "readMany";
+		DatabaseLogger.entering(CLASS_NAME, methodName, recNos.length);
 		
-		final String[] record = 
-				new String[dataFileFormat.getNumberOfFieldsPerRecord()];
+		final long startTime = System.nanoTime();
+		boolean succeeded = false;
+		
+		int lastRecNo = -1;
+		for (int recNo: recNos) {
+			lastRecNo = Math.max(lastRecNo, recNo);
+		}
 		
+		cacheLoader.awaitRecordRow(lastRecNo);
+		
+		final String [][] recordsRead = new String[recNos.length][];
+		
+		READ_LOCK.lock();
 		try {
 			
-			final byte[] buffer = new byte[dataFileFormat.getRecordLength()];
+			for (int index = 0; index < recNos.length; index++) {
+				recordsRead[index] = records.read(recNos[index]);
+			}
+			
+			succeeded = true;
 			
-			database.seek(recNo);
-			database.read(buffer);
+			return recordsRead;
+					
+		} finally {
+			
+			READ_LOCK.unlock();
+			
+			READ_MANY_METRICS.record(startTime, succeeded);
+			
+			DatabaseLogger.exiting(CLASS_NAME, methodName);
+		}
+		
+	}
+
+	/**
+	 * Opens the storage defined in the properties file to access the 
+	 * database file. If the memory mapped storage is defined but the data
+	 * section can't be mapped, the random access file storage is used.
+	 * 
+	 * @return Storage to access the database file.
+	 */
+	private IDataStorage openDataStorage() {
+		
+		final String methodName = "openDataStorage";
+		DatabaseLogger.entering(CLASS_NAME, methodName);
+		
+		IDataStorage dataStorage = null;
+		
+		final DatabaseProperties properties = new DatabaseProperties();
+		
+		if (DatabaseConstants.MAPPED_STORAGE.equals(
+				properties.readDataStorage())) {
 			
-			final int deletedRecordIndex = Integer.valueOf(buffer[0]);
-			if (deletedRecordIndex == DatabaseConstants.DELETED_RECORD) {
+			try {
 				
-				final String errorMessage = "Record deleted: " + recNo;
+				dataStorage = new MappedDataStorage(database, 
+						dataFileFormat.getDataSectionOffset());
 				
-				DatabaseLogger.warning(CLASS_NAME, methodName, errorMessage);
+			} catch (IOException e) {
 				
-				throw new RecordNotFoundException(errorMessage);
+				DatabaseLogger.warning(CLASS_NAME, methodName, "Unable to map "
+						+ "the database file, using the random access file "
+						+ "storage: " + e.getMessage());
 				
 			}
 			
-			int offset = 1;
-			for (RecordField field: dataFileFormat.getRecordFields()) {
+		}
+		
+		if (dataStorage == null) {
+			dataStorage = new RandomAccessDataStorage(database);
+		}
+		
+		DatabaseLogger.exiting(CLASS_NAME, methodName);
+		
+		return dataStorage;
+	}
+	
+	/**
+	 * Opens the write-ahead log next to the database file if it is enabled
+	 * in the properties file, applying to the database file the writes left
+	 * in the log by a previous execution. If any write is recovered the data
+	 * file format is loaded again, as the data section may have grown.
+	 * <br />The log is closed when the virtual machine shuts down, so the
+	 * writes it holds are applied to the database file.
+	 * 
+	 * @return The write-ahead log, or null if it is disabled or can't be
+	 *         opened.
+	 * @throws IOException If the writes left in the log can't be applied.
+	 */
+	private WriteAheadLog openWriteAheadLog() throws IOException {
+		
+		final String methodName = "openWriteAheadLog";
+		DatabaseLogger.entering(CLASS_NAME, methodName);
+		
+		final DatabaseProperties properties = new DatabaseProperties();
+		
+		WriteAheadLog log = null;
+		
+		try {
+		
+			if (!properties.readWriteAheadLogEnabled()) {
+				return null;
+			}
+			
+			final File logFile = new File(properties.readDatabasePath() 
+					+ DatabaseConstants.WRITE_AHEAD_LOG_EXTENSION);
+			
+			try {
 				
-				final String recordFieldValue = 
-						new String(buffer, offset, 
-								field.getFieldValueLength());
+				log = new WriteAheadLog(logFile, storage, 
+						properties.readCheckpointSize(), 
+						properties.readCheckpointInterval());
 				
-				record[field.getFieldPosition()] = recordFieldValue.trim();
+			} catch (IOException e) {
 				
-				offset += field.getFieldValueLength();
+				DatabaseLogger.warning(CLASS_NAME, methodName, "Unable to open "
+						+ "the write-ahead log, writing directly to the "
+						+ "database file: " + e.getMessage());
 				
+				return null;
 			}
 			
-		} catch (IOException e) {
+			if (log.recover() > 0) {
+				
+				database.seek(0);
+				dataFileFormat = new DataFileFormat(database);
+				
+			}
 			
-			final String errorMessage = "Unable to read record " + recNo
-					+ "due to an I/O error: " + e.getMessage();
+			log.start();
 			
-			DatabaseLogger.warning(CLASS_NAME, methodName, errorMessage);
+			Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+				
+				@Override
+				public void run() {
+					closeWriteAheadLog();
+				}
+				
+			}, "WriteAheadLog-shutdown"));
 			
-			throw new RecordNotFoundException(errorMessage);
+			return log;
 			
 		} finally {
 			DatabaseLogger.exiting(CLASS_NAME, methodName);
 		}
-		
-		return record;
 	}
 
 	/**
@@ -391,34 +660,46 @@ public class Data implements DB {
 		final String methodName = "update";
 		DatabaseLogger.entering(CLASS_NAME, methodName);
 		
-		writeLock.lock();
+		final long startTime = System.nanoTime();
+		boolean succeeded = false;
+		
 		try {
 			
-			if (DELETED_RECORD_ROWS.contains(recNo)) {
+			final long writeSequence;
+			
+			cacheLoader.awaitLoaded();
+			
+			WRITE_LOCK.lock();
+			try {
 				
-				final String errorMessage = "The record is deleted";
+				if (records.isDeleted(recNo)) {
+					
+					final String errorMessage = "The record is deleted";
+					
+					DatabaseLogger.severe(CLASS_NAME, methodName, errorMessage);
+					
+					throw new RecordNotFoundException(errorMessage);
+				}
 				
-				DatabaseLogger.severe(CLASS_NAME, methodName, errorMessage);
+				if (!isRecordLocked(recNo, lockCookie)) {
+					
+					final String errorMessage = "The given lock cookie does "
+							+ "not own the lock on record";
+					
+					DatabaseLogger.severe(CLASS_NAME, methodName, errorMessage);
+					
+					throw new SecurityException(errorMessage);
+				}
 				
-				throw new RecordNotFoundException(errorMessage);
-			}
-			
-			if (!isRecordLocked(recNo, lockCookie)) {
+				writeSequence = writeRecord(recNo, data);
 				
-				final String errorMessage = "The given lock cookie does not " 
-						+ "own the lock on record";
-
-				DatabaseLogger.severe(CLASS_NAME, methodName, errorMessage);
-
-				throw new SecurityException(errorMessage);
+			} finally {
+				WRITE_LOCK.unlock();
 			}
 			
-			final byte[] record = dataToByteArray(data);
+			awaitWriteSaved(writeSequence);
 			
-			database.seek(recNo);
-			database.write(record);
-			
-			VALID_RECORDS.put(recNo, data);
+			succeeded = true;
 			
 		} catch (IOException e) {
 			
@@ -431,58 +712,282 @@ public class Data implements DB {
 			
 		} finally {
 			
-			writeLock.unlock();
+			UPDATE_METRICS.record(startTime, succeeded);
 			
 			DatabaseLogger.exiting(CLASS_NAME, methodName);
 		}
 		
 	}
-
+	
 	/**
-	 * Returns a byte representation of the given record data to 
-	 * insert/update into the database.
-	 * <br />If a given field value length is bigger than the field length 
-	 * defined in the database, it gets a substring from the beginning
-	 * of the value to the field value length permitted. 
+	 * Modifies the fields of a record only if its room is not booked and it
+	 * is not locked by any client, without locking it. The owner is verified
+	 * and the record written in the same critical section, so no other 
+	 * client can book the room in between. The new value for field n 
+	 * appears in data[n].
 	 * 
-	 * @param data Array of string that contains the record data.
-	 * @return A byte representation of the given record data.
+	 * @param recNo Record number to update.
+	 * @param data Array that contains the data to update.
+	 * @return True if the record was updated; False if it is locked by a 
+	 *         client.
+	 * @throws RecordNotFoundException If the record is not found in the
+	 *                                 database, or its room is already 
+	 *                                 booked.
 	 */
-	private byte[] dataToByteArray(final String [] data) {
+	public final boolean updateIfNotBooked(final int recNo, 
+			final String[] data) throws RecordNotFoundException {
 		
-		final String methodName = "dataToByteArray";
-		DatabaseLogger.entering(CLASS_NAME, methodName);
+		final String methodName = "updateIfNotBooked";
+		DatabaseLogger.entering(CLASS_NAME, methodName, recNo);
 		
-		final StringBuilder byteArray = new StringBuilder();
-		byteArray.append(DatabaseConstants.NOT_DELETED_RECORD);
+		final long startTime = System.nanoTime();
+		boolean succeeded = false;
 		
-		for (RecordField field: dataFileFormat.getRecordFields()) {
+		try {
 			
-			final String fieldDataValue = data[field.getFieldPosition()];
+			final long writeSequence;
 			
-			StringBuilder currentFieldValue = null;
+			cacheLoader.awaitLoaded();
 			
-			if (fieldDataValue.length() > field.getFieldValueLength()) {
-				currentFieldValue = new StringBuilder(
-						fieldDataValue.substring(0, 
-								field.getFieldValueLength()));
-			} else {
-				currentFieldValue = new StringBuilder(fieldDataValue);
+			WRITE_LOCK.lock();
+			try {
+				
+				if (!records.contains(recNo)) {
+					
+					final String errorMessage = "Record not found: " + recNo;
+					
+					DatabaseLogger.severe(CLASS_NAME, methodName, errorMessage);
+					
+					throw new RecordNotFoundException(errorMessage);
+				}
+				
+				if (!"".equals(records.readField(recNo, 
+						ownerField().getFieldPosition()))) {
+					
+					final String errorMessage = "Unable to update the record, "
+							+ "the room is already booked";
+					
+					DatabaseLogger.severe(CLASS_NAME, methodName, errorMessage);
+					
+					throw new RecordNotFoundException(errorMessage);
+				}
+				
+				if (LOCK_MANAGER.isLocked(recNo)) {
+					
+					succeeded = true;
+					
+					return false;
+				}
+				
+				writeSequence = writeRecord(recNo, data);
+				
+			} finally {
+				WRITE_LOCK.unlock();
 			}
 			
-			while (currentFieldValue.length() < field.getFieldValueLength()) {
-				currentFieldValue.append(DatabaseConstants.EMPTY_SPACE);
-			}
+			awaitWriteSaved(writeSequence);
+			
+			succeeded = true;
+			
+			return true;
 			
-			byteArray.append(currentFieldValue.toString());
+		} catch (IOException e) {
+			
+			final String errorMessage = "Unable to update record due to "
+					+ "an I/O error: " + e.getMessage();
+			
+			DatabaseLogger.severe(CLASS_NAME, methodName, errorMessage);
+			
+			throw new RecordNotFoundException(errorMessage);
 			
+		} finally {
+			
+			UPDATE_IF_NOT_BOOKED_METRICS.record(startTime, succeeded);
+			
+			DatabaseLogger.exiting(CLASS_NAME, methodName);
 		}
-		
-		DatabaseLogger.exiting(CLASS_NAME, methodName);
-		
-		return byteArray.toString().getBytes();
 	}
-
+	
+	/**
+	 * Books a record for the given owner, only if it is not booked yet and 
+	 * it is not locked by any client, without locking it. Only the owner 
+	 * field is encoded and written.
+	 * 
+	 * @param recNo Record number to book.
+	 * @param ownerId Owner id value to set.
+	 * @return <code>BookResult.BOOKED</code> if the record was booked; 
+	 *         <code>BookResult.ALREADY_BOOKED</code> if it already has an 
+	 *         owner; <code>BookResult.RECORD_LOCKED</code> if it is locked by
+	 *         a client.
+	 * @throws RecordNotFoundException If the record is not found in the
+	 *                                 database.
+	 */
+	public final BookResult book(final int recNo, final String ownerId) 
+			throws RecordNotFoundException {
+		
+		final String methodName = "book";
+		DatabaseLogger.entering(CLASS_NAME, methodName, recNo, ownerId);
+		
+		final long startTime = System.nanoTime();
+		boolean succeeded = false;
+		
+		try {
+			
+			final long writeSequence;
+			
+			cacheLoader.awaitLoaded();
+			
+			WRITE_LOCK.lock();
+			try {
+				
+				if (!records.contains(recNo)) {
+					
+					final String errorMessage = "Record not found: " + recNo;
+					
+					DatabaseLogger.severe(CLASS_NAME, methodName, errorMessage);
+					
+					throw new RecordNotFoundException(errorMessage);
+				}
+				
+				if (LOCK_MANAGER.isLocked(recNo)) {
+					return BookResult.RECORD_LOCKED;
+				}
+				
+				final int ownerPosition = ownerField().getFieldPosition();
+				
+				final String owner = records.readField(recNo, ownerPosition);
+				
+				if (!"".equals(owner)) {
+					
+					succeeded = true;
+					
+					return BookResult.ALREADY_BOOKED;
+				}
+				
+				final ByteBuffer ownerBytes = 
+						encoder.encodeField(ownerPosition, ownerId);
+				
+				writeSequence = writeThrough(recNo, ownerBytes.array(), 
+						ownerBytes.position(), ownerBytes.remaining());
+				
+				if (fieldIndexes[ownerPosition] != null) {
+					fieldIndexes[ownerPosition].remove(owner, recNo);
+					fieldIndexes[ownerPosition].add(
+							records.readField(recNo, ownerPosition), recNo);
+				}
+				
+			} finally {
+				WRITE_LOCK.unlock();
+			}
+			
+			awaitWriteSaved(writeSequence);
+			
+			succeeded = true;
+			
+			return BookResult.BOOKED;
+			
+		} catch (IOException e) {
+			
+			final String errorMessage = "Unable to book record due to "
+					+ "an I/O error: " + e.getMessage();
+			
+			DatabaseLogger.severe(CLASS_NAME, methodName, errorMessage);
+			
+			throw new RecordNotFoundException(errorMessage);
+			
+		} finally {
+			
+			BOOK_METRICS.record(startTime, succeeded);
+			
+			DatabaseLogger.exiting(CLASS_NAME, methodName);
+		}
+	}
+	
+	/**
+	 * Returns the owner field of the database file format.
+	 * 
+	 * @return The owner field.
+	 * @throws IllegalStateException If the database file has no owner field.
+	 */
+	private RecordField ownerField() throws IllegalStateException {
+		
+		for (RecordField field: dataFileFormat.getRecordFields()) {
+			
+			if (DatabaseConstants.OWNER_FIELD.equals(field.getFieldName())) {
+				return field;
+			}
+		}
+		
+		throw new IllegalStateException("The database file has no "
+				+ DatabaseConstants.OWNER_FIELD + " field");
+	}
+	
+	/**
+	 * Writes the given data into an existing record of the database file 
+	 * and the cache, and updates the field indexes. Only the fields whose 
+	 * value changed are written; adjacent changed fields are written 
+	 * together. If a write fails, the field indexes are still updated with 
+	 * the fields written before it. Must be called while holding the write 
+	 * lock.
+	 * 
+	 * @param recNo Record number to write.
+	 * @param data Array that contains the record data.
+	 * @return Sequence of the last write to wait for, or 
+	 *         <code>DatabaseConstants.NO_WRITE_SEQUENCE</code>.
+	 * @throws IOException If the record can't be written.
+	 */
+	private long writeRecord(final int recNo, final String[] data) 
+			throws IOException {
+		
+		final byte[] record = encoder.encode(data).array();
+		
+		final int numberOfFields = dataFileFormat.getNumberOfFieldsPerRecord();
+		final boolean[] changedFields = new boolean[numberOfFields];
+		
+		for (int field = 0; field < numberOfFields; field++) {
+			
+			final int offset = records.fieldOffset(field);
+			
+			changedFields[field] = !records.regionMatches(recNo + offset, 
+					record, offset, records.fieldLength(field));
+		}
+		
+		final String[] previousData = records.read(recNo);
+		
+		long writeSequence = DatabaseConstants.NO_WRITE_SEQUENCE;
+		
+		try {
+			
+			int field = 0;
+			while (field < numberOfFields) {
+				
+				if (!changedFields[field]) {
+					field++;
+					continue;
+				}
+				
+				final int runStart = records.fieldOffset(field);
+				int runEnd = runStart + records.fieldLength(field);
+				
+				field++;
+				while ((field < numberOfFields) && (changedFields[field]) 
+						&& (records.fieldOffset(field) == runEnd)) {
+					
+					runEnd += records.fieldLength(field);
+					field++;
+				}
+				
+				writeSequence = writeThrough(recNo, record, runStart, 
+						runEnd - runStart);
+			}
+			
+		} finally {
+			reindex(recNo, previousData);
+		}
+		
+		return writeSequence;
+	}
+
 	/**
 	 * Deletes a record, making the record number and associated disk storage 
 	 * available for reuse. Throws SecurityException if the record is locked 
@@ -501,33 +1006,58 @@ public class Data implements DB {
 		final String methodName = "delete";
 		DatabaseLogger.entering(CLASS_NAME, methodName, recNo, lockCookie);
 		
-		writeLock.lock();
+		final long startTime = System.nanoTime();
+		boolean succeeded = false;
+		
 		try {
 			
-			if (DELETED_RECORD_ROWS.contains(recNo)) {
+			final long writeSequence;
+			
+			cacheLoader.awaitLoaded();
+			
+			WRITE_LOCK.lock();
+			try {
 				
-				final String errorMessage = "Record is already deleted";
+				if (records.isDeleted(recNo)) {
+					
+					final String errorMessage = "Record is already deleted";
+					
+					DatabaseLogger.severe(CLASS_NAME, methodName, errorMessage);
+					
+					throw new RecordNotFoundException(errorMessage);
+				}
 				
-				DatabaseLogger.severe(CLASS_NAME, methodName, errorMessage);
+				if (!isRecordLocked(recNo, lockCookie)) {
+					
+					final String errorMessage = "The given lock cookie does "
+							+ "not own the lock on record";
+					
+					DatabaseLogger.severe(CLASS_NAME, methodName, errorMessage);
+					
+					throw new SecurityException(errorMessage);
+				}
 				
-				throw new RecordNotFoundException(errorMessage);
-			}
-			
-			if (!isRecordLocked(recNo, lockCookie)) {
+				final byte[] deletedFlag = 
+						new byte[] {(byte) DatabaseConstants.DELETED_RECORD};
 				
-				final String errorMessage = "The given lock cookie does not "
-						+ "own the lock on record";
+				final String[] previousData = records.read(recNo);
 				
-				DatabaseLogger.severe(CLASS_NAME, methodName, errorMessage);
+				writeSequence = writeThrough(recNo, deletedFlag, 0, 
+						deletedFlag.length);
 				
-				throw new SecurityException(errorMessage);
+				if (previousData != null) {
+					removeFromIndexes(recNo, previousData);
+				}
+				
+				DELETED_RECORD_ROWS.add(recNo);
+				
+			} finally {
+				WRITE_LOCK.unlock();
 			}
 			
-			database.seek(recNo);
-			database.write((byte) DatabaseConstants.DELETED_RECORD);
+			awaitWriteSaved(writeSequence);
 			
-			DELETED_RECORD_ROWS.add(recNo);
-			VALID_RECORDS.remove(recNo);
+			succeeded = true;
 			
 		} catch (IOException e) {
 
@@ -540,7 +1070,7 @@ public class Data implements DB {
 			
 		} finally {
 			
-			writeLock.unlock();
+			DELETE_METRICS.record(startTime, succeeded);
 			
 			DatabaseLogger.exiting(CLASS_NAME, methodName);
 		}
@@ -571,18 +1101,54 @@ public class Data implements DB {
 	 * @return An array containing all the records numbers found.
 	 */
 	public final int [] find(final String[] criteria) {
+		return find(criteria, MatchMode.STARTS_WITH);
+	}
+
+	/**
+	 * Returns an array of record numbers that match the specified criteria,
+	 * comparing each criteria value with the field value in the given match
+	 * mode (ignoring the leading and trailing spaces). A null or empty value
+	 * in criteria[n] matches any field value. The record numbers are 
+	 * resolved through the field indexes, without comparing every record.
+	 * <br />The criteria content must be in the same order as in 
+	 * {@link #find(String[])}. If the given criteria does not match it, an 
+	 * empty array is returned.
+	 * 
+	 * @param criteria Array containing the search criteria, or null if 
+	 *                 want all records numbers in the database.
+	 * @param matchMode How the criteria values are compared with the field
+	 *                  values.
+	 * @return An array containing all the records numbers found.
+	 */
+	public final int [] find(final String[] criteria, 
+			final MatchMode matchMode) {
 		
 		final String methodName = "find";
-		DatabaseLogger.entering(CLASS_NAME, methodName);
+		DatabaseLogger.entering(CLASS_NAME, methodName, matchMode);
 	
-		readLock.lock();
+		final long startTime = System.nanoTime();
+		boolean succeeded = false;
+		
+		cacheLoader.awaitLoaded();
+		
+		READ_LOCK.lock();
 		try {
 			
-			return searchByCriteria(criteria);
+			final int[] recordRows = searchByCriteria(criteria, matchMode);
+			
+			succeeded = true;
+			
+			return recordRows;
 			
 		} finally {
 			
-			readLock.unlock();
+			READ_LOCK.unlock();
+			
+			if (matchMode.isExact()) {
+				FIND_EXACT_METRICS.record(startTime, succeeded);
+			} else {
+				FIND_METRICS.record(startTime, succeeded);
+			}
 			
 			DatabaseLogger.exiting(CLASS_NAME, methodName);
 		}
@@ -608,45 +1174,82 @@ public class Data implements DB {
 	 * from the beginning of the value to the field value length permitted.
 	 * 
 	 * @param criteria Criteria to apply in the search. Can be null.
+	 * @param matchMode How the criteria values are compared with the field
+	 *                  values.
 	 * @return An array that contains all the record rows found during the 
 	 *         searching.
 	 */
-	private int[] searchByCriteria(final String [] criteria) {
+	private int[] searchByCriteria(final String [] criteria,
+			final MatchMode matchMode) {
 		
 		final String methodName = "searchCriteria";
 		DatabaseLogger.entering(CLASS_NAME, methodName);
 		
-		Set<Integer> filteredRowsFound = null;
+		int [] recordRowsFound = null;
 		
 		if (criteria == null) {
 			
-			filteredRowsFound = VALID_RECORDS.keySet();
+			recordRowsFound = records.validRecordRows();
 			
 		} else if (criteria.length 
 				< dataFileFormat.getNumberOfFieldsPerRecord()) {
 			
-			filteredRowsFound = new TreeSet<Integer>();
+			recordRowsFound = new int[0];
 			
 		} else {
 			
-			filteredRowsFound = searchFilterByCriteria(criteria);
+			recordRowsFound = 
+					toArray(searchFilterByCriteria(criteria, matchMode));
 			
 		}
 		
-		int [] recordRowsFound = new int[filteredRowsFound.size()];
+		DatabaseLogger.exiting(CLASS_NAME, methodName);
+		
+		return recordRowsFound;		
+	}
+	
+	/**
+	 * Returns an array with the given record rows.
+	 * 
+	 * @param recordRows Record rows.
+	 * @return An array with the given record rows, in iteration order.
+	 */
+	private int[] toArray(final Set<Integer> recordRows) {
+		
+		final int [] recordRowsArray = new int[recordRows.size()];
 		
 		int index = 0;
-		for (int currentRow: filteredRowsFound) {
-			recordRowsFound[index++] = currentRow;
+		for (int currentRow: recordRows) {
+			recordRowsArray[index++] = currentRow;
 		}
 		
-		DatabaseLogger.exiting(CLASS_NAME, methodName);
+		return recordRowsArray;
+	}
+
+	/**
+	 * Returns a sorted set with the given record rows.
+	 * 
+	 * @param recordRows Record rows.
+	 * @return A sorted set with the given record rows.
+	 */
+	private Set<Integer> toSet(final int[] recordRows) {
 		
-		return recordRowsFound;		
+		final Set<Integer> recordRowsSet = new TreeSet<Integer>();
+		
+		for (int currentRow: recordRows) {
+			recordRowsSet.add(currentRow);
+		}
+		
+		return recordRowsSet;
 	}
 
 	/**
-	 * Performs a search into the database filtering by the given criteria.
+	 * Performs a search into the database filtering by the given criteria,
+	 * using the field indexes to locate the record rows that match each
+	 * criteria value and intersecting them. The criteria values of the 
+	 * fields that are not indexed are compared with the records found 
+	 * through the indexes, or with all the valid records if no criteria 
+	 * value is indexed.
 	 * <br />The criteria content must be as the follow order:
 	 * <br />0 - Hotel name.
      * <br />1 - Location.
@@ -657,58 +1260,68 @@ public class Data implements DB {
      * <br />6 - Owner ID.
 	 * <br /><br />If the given criteria does not match as above, an empty 
 	 * list is returned.
-	 * <br /><br />If a given field value length in the criteria is bigger 
-	 * than the field length defined in the database, it gets a substring 
-	 * from the beginning of the value to the field value length permitted.
 	 * 
 	 * @param criteria Criteria to apply in the search filter.
+	 * @param matchMode How the criteria values are compared with the field
+	 *                  values.
 	 * @return A list that contains all the record rows found during the 
 	 *         searching with the criteria applied.
 	 */
-	private Set<Integer> searchFilterByCriteria(final String[] criteria) {
+	private Set<Integer> searchFilterByCriteria(final String[] criteria,
+			final MatchMode matchMode) {
 		
 		final String methodName = "searchFilterByCriteria";
 		DatabaseLogger.entering(CLASS_NAME, methodName);
 		
 		try {
 			
-			final Set<Integer> filteredRowsFound = new TreeSet<Integer>();
-
 			if (criteria.length 
 					< dataFileFormat.getNumberOfFieldsPerRecord()) {
-				return filteredRowsFound;
+				return new TreeSet<Integer>();
 			}
 			
-			final Set<Entry<Integer, String[]>> allRecords = 
-					VALID_RECORDS.entrySet();
-
-			for (Entry<Integer, String[]> currentRecord: allRecords) {
-
-				final int recordRow = currentRecord.getKey();
-				final String [] recordData = currentRecord.getValue();
-
-				boolean match = true;
+			final List<Set<Integer>> rowsFoundByField = 
+					new ArrayList<Set<Integer>>();
+			final List<Integer> fieldsNotIndexed = new ArrayList<Integer>();
 
-				for (RecordField field: dataFileFormat.getRecordFields()) {
-					
-					final int fieldIndex = field.getFieldPosition();
-					
-					String fieldInCriteria = criteria[fieldIndex];
-					
-					if (!matchCriteria(recordData[fieldIndex], 
-							fieldInCriteria)) {
-						match = false;
-						break;
-					}
-					
+			for (RecordField field: dataFileFormat.getRecordFields()) {
+				
+				final int fieldIndex = field.getFieldPosition();
+				
+				final String fieldInCriteria = criteria[fieldIndex];
+				
+				if (isEmptyCriteria(fieldInCriteria)) {
+					continue;
 				}
-
-				if (match) {
-					filteredRowsFound.add(recordRow);
+				
+				if (fieldIndexes[fieldIndex] == null) {
+					fieldsNotIndexed.add(fieldIndex);
+					continue;
+				}
+				
+				final Set<Integer> fieldRowsFound = fieldIndexes[fieldIndex]
+						.rowsMatching(fieldInCriteria, matchMode);
+				
+				if (fieldRowsFound.isEmpty()) {
+					return new TreeSet<Integer>();
 				}
+				
+				rowsFoundByField.add(fieldRowsFound);
+			}
+			
+			final Set<Integer> rowsFound;
+			if (rowsFoundByField.isEmpty()) {
+				rowsFound = toSet(records.validRecordRows());
+			} else {
+				rowsFound = intersect(rowsFoundByField);
+			}
+			
+			if (!fieldsNotIndexed.isEmpty()) {
+				filterByCriteria(rowsFound, criteria, fieldsNotIndexed, 
+						matchMode);
 			}
 			
-			return filteredRowsFound;
+			return rowsFound;
 			
 		} finally {
 			
@@ -718,37 +1331,162 @@ public class Data implements DB {
 	}
 	
 	/**
-	 * Verifies if the given record field value matches with the given 
-	 * criteria. If the criteria is null, returns true.
+	 * Removes from the given record rows the records whose values of the 
+	 * given fields don't match the criteria.
+	 * 
+	 * @param recordRows Record rows to filter.
+	 * @param criteria Criteria to apply in the filter.
+	 * @param fields Positions of the fields to compare.
+	 * @param matchMode How the criteria values are compared with the field
+	 *                  values.
+	 */
+	private void filterByCriteria(final Set<Integer> recordRows, 
+			final String[] criteria, final List<Integer> fields, 
+			final MatchMode matchMode) {
+		
+		final Iterator<Integer> recordRowIterator = recordRows.iterator();
+		
+		while (recordRowIterator.hasNext()) {
+			
+			final int recordRow = recordRowIterator.next();
+			
+			for (int field: fields) {
+				
+				if (!matchMode.matches(records.readField(recordRow, field), 
+						criteria[field])) {
+					
+					recordRowIterator.remove();
+					
+					break;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Returns the record rows contained in all the given sets. The smallest
+	 * set is iterated and each of its rows is looked up in the other sets.
 	 * 
-	 * @param recordFieldSource Record field to compare with the criteria.
-	 * @param recordFieldCriteria Criteria to apply in comparison.
-	 * @return True if record field value matches with the criteria or
-	 *         if criteria is null; otherwise, false.
+	 * @param rowsFoundByField Record rows found for each criteria value.
+	 * @return A sorted set with the record rows contained in all the sets.
 	 */
-	private boolean matchCriteria(final String recordFieldSource, 
-			final String recordFieldCriteria) {
+	private Set<Integer> intersect(final List<Set<Integer>> rowsFoundByField) {
 		
-		final String methodName = "matchCriteria";
-		DatabaseLogger.entering(CLASS_NAME, methodName, recordFieldSource, 
-				recordFieldCriteria);
+		Set<Integer> smallestRowsFound = rowsFoundByField.get(0);
+		for (Set<Integer> fieldRowsFound: rowsFoundByField) {
+			if (fieldRowsFound.size() < smallestRowsFound.size()) {
+				smallestRowsFound = fieldRowsFound;
+			}
+		}
 		
-		boolean match = false;
+		final Set<Integer> filteredRowsFound = new TreeSet<Integer>();
 		
-		if ((recordFieldCriteria == null) 
-				|| ("".equals(recordFieldCriteria.trim()))) {
+		for (Integer recordRow: smallestRowsFound) {
 			
-			match = true;
+			boolean match = true;
 			
-		} else {
+			for (Set<Integer> fieldRowsFound: rowsFoundByField) {
+				if ((fieldRowsFound != smallestRowsFound) 
+						&& (!fieldRowsFound.contains(recordRow))) {
+					match = false;
+					break;
+				}
+			}
 			
-			match = recordFieldsEqual(recordFieldSource, recordFieldCriteria);
+			if (match) {
+				filteredRowsFound.add(recordRow);
+			}
+		}
+		
+		return filteredRowsFound;
+	}
+	
+	/**
+	 * Verifies if the given criteria value is null or empty, that is, it 
+	 * matches any field value.
+	 * 
+	 * @param recordFieldCriteria Criteria value to verify.
+	 * @return True if the criteria value is null or empty; otherwise, false.
+	 */
+	private boolean isEmptyCriteria(final String recordFieldCriteria) {
+		
+		return (recordFieldCriteria == null) 
+				|| ("".equals(recordFieldCriteria.trim()));
+	}
+	
+	/**
+	 * Updates the field indexes of a record whose values changed, removing
+	 * the previous values that differ from the current ones and adding the
+	 * current ones.
+	 * 
+	 * @param recordRow Record row.
+	 * @param previousData Record data the record was indexed with, or null
+	 *                     if it was not indexed.
+	 */
+	private void reindex(final int recordRow, final String[] previousData) {
+		
+		for (RecordField field: dataFileFormat.getRecordFields()) {
+			
+			final int fieldIndex = field.getFieldPosition();
+			
+			if (fieldIndexes[fieldIndex] == null) {
+				continue;
+			}
+			
+			final String previousValue = (previousData == null) 
+					? null : previousData[fieldIndex];
+			final String currentValue = 
+					records.readField(recordRow, fieldIndex);
+			
+			if ((previousValue == null) ? (currentValue == null) 
+					: previousValue.equals(currentValue)) {
+				continue;
+			}
 			
+			if (previousValue != null) {
+				fieldIndexes[fieldIndex].remove(previousValue, recordRow);
+			}
+			
+			if (currentValue != null) {
+				fieldIndexes[fieldIndex].add(currentValue, recordRow);
+			}
 		}
+	}
+	
+	/**
+	 * Adds the given record to the field indexes.
+	 * 
+	 * @param recordRow Record row.
+	 * @param data Record data.
+	 */
+	private void addToIndexes(final int recordRow, final String[] data) {
 		
-		DatabaseLogger.exiting(CLASS_NAME, methodName, match);
+		for (RecordField field: dataFileFormat.getRecordFields()) {
+			
+			final int fieldIndex = field.getFieldPosition();
+			
+			if (fieldIndexes[fieldIndex] != null) {
+				fieldIndexes[fieldIndex].add(data[fieldIndex], recordRow);
+			}
+		}
+	}
+	
+	/**
+	 * Removes the given record from the field indexes.
+	 * 
+	 * @param recordRow Record row.
+	 * @param data Record data the record was indexed with.
+	 */
+	private void removeFromIndexes(final int recordRow, final String[] data) {
 		
-		return match;
+		for (RecordField field: dataFileFormat.getRecordFields()) {
+			
+			final int fieldIndex = field.getFieldPosition();
+			
+			if (fieldIndexes[fieldIndex] != null) {
+				fieldIndexes[fieldIndex].remove(data[fieldIndex], recordRow);
+			}
+		}
 	}
 	
 	/**
@@ -777,26 +1515,49 @@ public class Data implements DB {
 		
 		int newRecordRow = -1;
 		
-		writeLock.lock();
+		final long startTime = System.nanoTime();
+		boolean succeeded = false;
+		
 		try {
 			
-			if (isRecordDuplicated(data)) {
+			final long writeSequence;
+			
+			cacheLoader.awaitLoaded();
+			
+			WRITE_LOCK.lock();
+			try {
+				
+				if (isRecordDuplicated(data)) {
+					
+					final String errorMessage = "Record already exists in "
+							+ "database";
+					
+					DatabaseLogger.severe(CLASS_NAME, errorMessage, 
+							errorMessage);
+					
+					throw new DuplicateKeyException(errorMessage);
+				}
+				
+				final ByteBuffer newRecord = encoder.encode(data);
+				newRecordRow = locateNewRecordRow();
 				
-				final String errorMessage = "Record already exists in "
-						+ "database";
+				try {
+					writeSequence = writeThrough(newRecordRow, 
+							newRecord.array(), 0, newRecord.limit());
+				} catch (IOException e) {
+					releaseRecordRow(newRecordRow);
+					throw e;
+				}
 				
-				DatabaseLogger.severe(CLASS_NAME, errorMessage, errorMessage);
+				addToIndexes(newRecordRow, records.read(newRecordRow));
 				
-				throw new DuplicateKeyException(errorMessage);
+			} finally {
+				WRITE_LOCK.unlock();
 			}
 			
-			final byte [] newRecord = dataToByteArray(data);
-			newRecordRow = locateNewRecordRow();
-			
-			database.seek(newRecordRow);
-			database.write(newRecord);
+			awaitWriteSaved(writeSequence);
 			
-			VALID_RECORDS.put(newRecordRow, data);
+			succeeded = true;
 			
 		} catch (IOException e) {
 			
@@ -808,7 +1569,7 @@ public class Data implements DB {
 			
 		} finally {
 			
-			writeLock.unlock();
+			CREATE_METRICS.record(startTime, succeeded);
 			
 			DatabaseLogger.exiting(CLASS_NAME, methodName);
 		}
@@ -816,13 +1577,212 @@ public class Data implements DB {
 		return newRecordRow;
 	}
 
+	/**
+	 * Writes the given bytes into the database file. If the write-ahead log
+	 * is enabled, the bytes are appended to the log and applied to the 
+	 * database file in the background; otherwise, they are written directly
+	 * into the database file.
+	 * <br />Must be called while holding the write lock, so the writes are
+	 * logged in the same order they are applied to the cache.
+	 * 
+	 * @param position Position in the database file where to write.
+	 * @param bytes Buffer that contains the bytes to write.
+	 * @param offset Offset in the buffer where the bytes to write start.
+	 * @param length Number of bytes to write.
+	 * @return Sequence number of the write in the log, or
+	 *         <code>DatabaseConstants.NO_WRITE_SEQUENCE</code> if the log is
+	 *         disabled.
+	 * @throws IOException If any I/O error occurs.
+	 */
+	private long writeToDatabase(final int position, final byte[] bytes,
+			final int offset, final int length) throws IOException {
+		
+		if (writeAheadLog == null) {
+			
+			storage.write(position, bytes, offset, length);
+			
+			return DatabaseConstants.NO_WRITE_SEQUENCE;
+		}
+		
+		return writeAheadLog.append(position, bytes, offset, length);
+	}
+	
+	/**
+	 * Writes the given bytes of a record into the database file and then 
+	 * into the cache, so the cache is left untouched if the bytes can't be
+	 * written into the database file or the write-ahead log. If the bytes 
+	 * are appended to the log, the cache bytes they overwrite are kept 
+	 * until the log saves them, to roll the cache back if it fails.
+	 * <br />Must be called while holding the write lock.
+	 * 
+	 * @param recordRow Record row to write.
+	 * @param record Buffer that contains the record bytes, in the same 
+	 *               layout as the database file.
+	 * @param offset Offset in the record where the bytes to write start.
+	 * @param length Number of bytes to write.
+	 * @return Sequence number of the write in the log, or
+	 *         <code>DatabaseConstants.NO_WRITE_SEQUENCE</code> if the log is
+	 *         disabled.
+	 * @throws IOException If any I/O error occurs.
+	 */
+	private long writeThrough(final int recordRow, final byte[] record,
+			final int offset, final int length) throws IOException {
+		
+		final int position = recordRow + offset;
+		
+		final long writeSequence = 
+				writeToDatabase(position, record, offset, length);
+		
+		if (writeSequence != DatabaseConstants.NO_WRITE_SEQUENCE) {
+			
+			final long savedSequence = writeAheadLog.getSavedSequence();
+			
+			while ((!UNSAVED_WRITES.isEmpty()) 
+					&& (UNSAVED_WRITES.peekFirst().sequence <= savedSequence)) {
+				UNSAVED_WRITES.pollFirst();
+			}
+			
+			UNSAVED_WRITES.addLast(new UnsavedWrite(writeSequence, recordRow,
+					position, records.copyOf(position, length)));
+		}
+		
+		records.write(position, record, offset, length);
+		
+		return writeSequence;
+	}
+	
+	/**
+	 * Rolls the cache back from the writes that the given write-ahead log 
+	 * failed to save, newest first, restoring the bytes they overwrote and 
+	 * the field indexes and deleted rows of their records. A record 
+	 * appended by a lost write is left deleted.
+	 * 
+	 * @param log Write-ahead log that failed.
+	 */
+	private void rollBackUnsavedWrites(final WriteAheadLog log) {
+		
+		final String methodName = "rollBackUnsavedWrites";
+		DatabaseLogger.entering(CLASS_NAME, methodName);
+		
+		WRITE_LOCK.lock();
+		try {
+			
+			final long savedSequence = log.getSavedSequence();
+			
+			while ((!UNSAVED_WRITES.isEmpty()) 
+					&& (UNSAVED_WRITES.peekLast().sequence > savedSequence)) {
+				
+				final UnsavedWrite write = UNSAVED_WRITES.pollLast();
+				
+				final String[] currentData = records.read(write.recordRow);
+				
+				if (write.previousBytes == null) {
+					
+					final byte[] deletedFlag = new byte[] 
+							{(byte) DatabaseConstants.DELETED_RECORD};
+					
+					records.write(write.recordRow, deletedFlag, 0, 
+							deletedFlag.length);
+				} else {
+					
+					records.write(write.position, write.previousBytes, 0, 
+							write.previousBytes.length);
+				}
+				
+				reindex(write.recordRow, currentData);
+				
+				DELETED_RECORD_ROWS.remove(write.recordRow);
+				if (records.isDeleted(write.recordRow)) {
+					DELETED_RECORD_ROWS.add(write.recordRow);
+				}
+			}
+			
+			UNSAVED_WRITES.clear();
+			
+		} finally {
+			
+			WRITE_LOCK.unlock();
+			
+			DatabaseLogger.exiting(CLASS_NAME, methodName);
+		}
+	}
+	
+	/**
+	 * Closes the write-ahead log, saving its pending writes and applying 
+	 * them to the database file. The writes done after it is closed are 
+	 * written directly into the database file.
+	 */
+	private static void closeWriteAheadLog() {
+		
+		final String methodName = "closeWriteAheadLog";
+		DatabaseLogger.entering(CLASS_NAME, methodName);
+		
+		WRITE_LOCK.lock();
+		try {
+			
+			if (writeAheadLog != null) {
+				
+				writeAheadLog.close();
+				
+				writeAheadLog = null;
+				
+				UNSAVED_WRITES.clear();
+			}
+			
+		} catch (IOException e) {
+			
+			DatabaseLogger.severe(CLASS_NAME, methodName, "Unable to apply "
+					+ "the write-ahead log to the database file: " 
+					+ e.getMessage());
+			
+		} finally {
+			
+			WRITE_LOCK.unlock();
+			
+			DatabaseLogger.exiting(CLASS_NAME, methodName);
+		}
+	}
+	
+	/**
+	 * Waits until the write with the given sequence number is saved in the
+	 * write-ahead log. Must be called after releasing the write lock, so the
+	 * writes of concurrent threads are saved together in the log. If the 
+	 * log was closed in the meantime, the write was already saved by it.
+	 * <br />If the log fails, the writes it could not save are rolled back 
+	 * from the cache, as they will never reach the database file.
+	 * 
+	 * @param writeSequence Sequence number of the write.
+	 * @throws IOException If the write can't be saved in the log.
+	 */
+	private void awaitWriteSaved(final long writeSequence) 
+			throws IOException {
+		
+		final WriteAheadLog log = writeAheadLog;
+		
+		if ((writeSequence != DatabaseConstants.NO_WRITE_SEQUENCE) 
+				&& (log != null)) {
+			
+			try {
+				
+				log.awaitSaved(writeSequence);
+				
+			} catch (IOException e) {
+				
+				if (log.isFailed()) {
+					rollBackUnsavedWrites(log);
+				}
+				
+				throw e;
+			}
+		}
+	}
+	
 	/**
 	 * Locates and returns a new record row to insert into the database.
 	 * 
 	 * @return A new record row to insert into the database.
-	 * @throws IOException If can't access to the database.
 	 */
-	private int locateNewRecordRow() throws IOException {
+	private int locateNewRecordRow() {
 		
 		final String methodName = "calculateNewRecordRow";
 		DatabaseLogger.entering(CLASS_NAME, methodName);
@@ -831,7 +1791,9 @@ public class Data implements DB {
 		
 		if (DELETED_RECORD_ROWS.isEmpty()) {
 			
-			newRecordRow = (int) database.length();
+			newRecordRow = nextRecordRow;
+			
+			nextRecordRow += dataFileFormat.getRecordLength();
 			
 		} else {
 			
@@ -844,9 +1806,25 @@ public class Data implements DB {
 		return newRecordRow;
 	}
 	
+	/**
+	 * Gives back a record row located by {@link #locateNewRecordRow()} that
+	 * could not be written, so it is located again by the next create.
+	 * 
+	 * @param recordRow Record row to give back.
+	 */
+	private void releaseRecordRow(final int recordRow) {
+		
+		if (records.isDeleted(recordRow)) {
+			DELETED_RECORD_ROWS.add(recordRow);
+		} else {
+			nextRecordRow = recordRow;
+		}
+	}
+	
 	/**
 	 * Verifies if the given record data already exists into the 
-	 * database (the owner id field is not checked).
+	 * database (the owner id field is not checked), that is, if a record 
+	 * matches the given record data used as search criteria.
 	 * <br />If a given field value length is bigger than the field length 
 	 * defined in the database, it gets a substring from the beginning
 	 * of the value to the field value length permitted.
@@ -859,128 +1837,145 @@ public class Data implements DB {
 		final String methodName = "isRecordDuplicated";
 		DatabaseLogger.entering(CLASS_NAME, methodName);
 		
-		boolean recordDuplicated = false;
-		
-		final Set<Integer> recordRows = VALID_RECORDS.keySet();
+		final String [] criteria = 
+				new String[dataFileFormat.getNumberOfFieldsPerRecord()];
 		
-		for (int currentRecordRow: recordRows) {
+		for (RecordField field: dataFileFormat.getRecordFields()) {
 			
-			recordDuplicated = true;
+			if (DatabaseConstants.OWNER_FIELD.equals(field.getFieldName())) {
+				continue;
+			}
 			
-			final String [] record = VALID_RECORDS.get(currentRecordRow);
+			final int fieldIndex = field.getFieldPosition();
 			
-			for (RecordField field: dataFileFormat.getRecordFields()) {
-				
-				if (DatabaseConstants.OWNER_FIELD.equals(
-						field.getFieldName())) {
-					continue;
-				}
-				
-				final int fieldIndex = field.getFieldPosition();
-				
-				String fieldToCompare = dataToCompare[fieldIndex];
-				if ((fieldToCompare != null) 
-						&& (fieldToCompare.length() 
-								> field.getFieldValueLength())) {
-					fieldToCompare = fieldToCompare.substring(0, 
-							field.getFieldNameLength());
-				}
-				
-				if (!recordFieldsEqual(record[fieldIndex], fieldToCompare)) {
-					recordDuplicated = false;
-					break;
-				}
-				
+			String fieldToCompare = dataToCompare[fieldIndex];
+			if ((fieldToCompare != null) 
+					&& (fieldToCompare.length() 
+							> field.getFieldValueLength())) {
+				fieldToCompare = fieldToCompare.substring(0, 
+						field.getFieldNameLength());
 			}
 			
-			if (recordDuplicated) {
-				break;
-			} 
+			criteria[fieldIndex] = fieldToCompare;
 		}
 		
+		final boolean recordDuplicated = 
+				!searchFilterByCriteria(criteria, MatchMode.STARTS_WITH)
+						.isEmpty();
+		
 		DatabaseLogger.exiting(CLASS_NAME, methodName, recordDuplicated);
 		
 		return recordDuplicated;
 	}
 	
 	/**
-	 * Verifies if the given two strings (representing a record field value) 
-	 * are equal or not.
-	 * Null values are initialized to empty string.
+	 * Locks a record so that it can only be updated or deleted by this client.
+	 * Returned value is a cookie that must be used when the record is 
+	 * unlocked, updated, or deleted. If the specified record is already 
+	 * locked by a different client, the current thread gives up the CPU and 
+	 * consumes no CPU cycles until the record is unlocked, or until the lease
+	 * of the other client expires.
+	 * <br />If the db.lock.lease.timeout property is set, the lock is 
+	 * leased for that time; after that, the record can be locked by another 
+	 * client and the cookie no longer owns it. The locks are not leased by 
+	 * default.
 	 * 
-	 * @param fieldSource Record field value source.
-	 * @param fieldToCompare Record field value to compare.
-	 * @return True if they are equal; otherwise, false.
+	 * @param recNo Record number to be locked.
+	 * @return Cookie value that owns the lock on the record.
+	 * @throws RecordNotFoundException If the record is not found in the 
+	 *                                 database.
 	 */
-	private boolean recordFieldsEqual(String fieldSource, 
-			String fieldToCompare) {
-		
-		final String methodName = "recordFieldsEqual";
-		DatabaseLogger.entering(CLASS_NAME, methodName, fieldSource, 
-				fieldToCompare);
+	public final long lock(final int recNo) throws RecordNotFoundException {
 		
-		if (fieldSource == null) {
-			fieldSource = "";
-		}
+		final String methodName = "lock";
+		DatabaseLogger.entering(CLASS_NAME, methodName, recNo);
 		
-		if (fieldToCompare == null) {
-			fieldToCompare = "";
+		try {
+			
+			return lockRecord(methodName, recNo, NO_LOCK_TIMEOUT);
+			
+		} finally {
+			DatabaseLogger.exiting(CLASS_NAME, methodName);
 		}
+	}
+	
+	/**
+	 * Locks a record as {@link #lock(int)} does, but waits at most the given
+	 * time for the record to be unlocked.
+	 * 
+	 * @param recNo Record number to be locked.
+	 * @param timeout Maximum time to wait, in milliseconds; 0 or less does 
+	 *                not wait.
+	 * @return Cookie value that owns the lock on the record, or 
+	 *         <code>DatabaseConstants.LOCK_NOT_ACQUIRED</code> if the record
+	 *         is still locked by another client after the timeout.
+	 * @throws RecordNotFoundException If the record is not found in the 
+	 *                                 database.
+	 */
+	public final long tryLock(final int recNo, final long timeout) 
+			throws RecordNotFoundException {
 		
-		final boolean fieldsEqual = 
-				fieldSource.trim().startsWith(fieldToCompare.trim());
-		
-		DatabaseLogger.exiting(CLASS_NAME, methodName, fieldsEqual);
-		
-		return fieldsEqual;
+		final String methodName = "tryLock";
+		DatabaseLogger.entering(CLASS_NAME, methodName, recNo, timeout);
 		
+		try {
+			
+			return lockRecord(methodName, recNo, Math.max(0, timeout));
+			
+		} finally {
+			DatabaseLogger.exiting(CLASS_NAME, methodName);
+		}
 	}
 	
 	/**
-	 * Locks a record so that it can only be updated or deleted by this client.
-	 * Returned value is a cookie that must be used when the record is 
-	 * unlocked, updated, or deleted. If the specified record is already 
-	 * locked by a different client, the current thread gives up the CPU and 
-	 * consumes no CPU cycles until the record is unlocked.
+	 * Locks a record, waiting at most the given time for it to be unlocked.
 	 * 
+	 * @param methodName Name of the public method, for the log.
 	 * @param recNo Record number to be locked.
-	 * @return Cookie value that owns the lock on the record.
+	 * @param timeout Maximum time to wait in milliseconds, or 
+	 *                <code>NO_LOCK_TIMEOUT</code> to wait until the record
+	 *                is unlocked.
+	 * @return Cookie value that owns the lock on the record, or 
+	 *         <code>DatabaseConstants.LOCK_NOT_ACQUIRED</code> if the time
+	 *         elapsed.
 	 * @throws RecordNotFoundException If the record is not found in the 
 	 *                                 database.
 	 */
-	public final long lock(final int recNo) throws RecordNotFoundException {
+	private long lockRecord(final String methodName, final int recNo, 
+			final long timeout) throws RecordNotFoundException {
 		
-		final String methodName = "lock";
-		DatabaseLogger.entering(CLASS_NAME, methodName, recNo);
+		final long startTime = System.nanoTime();
+		boolean succeeded = false;
+		
+		final long lockNumber = COOKIE_GENERATOR.nextCookie();
 		
-		final long lockNumber = 
-				(long) (Math.random() * System.currentTimeMillis());
+		cacheLoader.awaitRecordRow(recNo);
 		
-		writeLock.lock();
 		try {
 			
-			while (RECORDS_LOCKED.containsKey(recNo)) {
-				try {
-					lockNotReleased.await();
-				} catch (InterruptedException e) {
-
-					final String errorMessage = "Unexpected interrumption has "
-							+ "occurs during the waiting for the lock release "
-							+ "for the record: " + recNo;
+			try {
+				
+				final long waitStartTime = System.nanoTime();
+				
+				if (timeout == NO_LOCK_TIMEOUT) {
 					
-					DatabaseLogger.severe(CLASS_NAME, methodName, 
-							errorMessage);
+					LOCK_MANAGER.lock(recNo, lockNumber);
 					
-					throw new RecordNotFoundException(errorMessage);
+				} else if (!LOCK_MANAGER.tryLock(recNo, lockNumber, timeout)) {
 					
+					succeeded = true;
+					
+					return DatabaseConstants.LOCK_NOT_ACQUIRED;
 				}
-			}
-			
-			
-			if (!VALID_RECORDS.containsKey(recNo)) {
 				
-				final String errorMessage = "Unable to locate record: " 
-						+ recNo;
+				LOCK_WAIT_METRICS.recordLatency(
+						System.nanoTime() - waitStartTime);
+				
+			} catch (InterruptedException e) {
+	
+				final String errorMessage = "Unexpected interrumption has "
+						+ "occurs during the waiting for the lock release "
+						+ "for the record: " + recNo;
 				
 				DatabaseLogger.severe(CLASS_NAME, methodName, errorMessage);
 				
@@ -988,16 +1983,34 @@ public class Data implements DB {
 				
 			}
 			
-			RECORDS_LOCKED.put(recNo, lockNumber);
+			READ_LOCK.lock();
+			try {
+				
+				if (!records.contains(recNo)) {
+					
+					LOCK_MANAGER.unlock(recNo, lockNumber);
+					
+					final String errorMessage = "Unable to locate record: " 
+							+ recNo;
+					
+					DatabaseLogger.severe(CLASS_NAME, methodName, 
+							errorMessage);
+					
+					throw new RecordNotFoundException(errorMessage);
+					
+				}
+				
+			} finally {
+				READ_LOCK.unlock();
+			}
 			
-		} finally {
+			succeeded = true;
 			
-			writeLock.unlock();
+			return lockNumber;
 			
-			DatabaseLogger.exiting(CLASS_NAME, methodName);
+		} finally {
+			LOCK_METRICS.record(startTime, succeeded);
 		}
-		
-		return lockNumber;
 	}
 
 	/**
@@ -1018,10 +2031,12 @@ public class Data implements DB {
 		final String methodName = "unlock";
 		DatabaseLogger.entering(CLASS_NAME, methodName, recNo, cookie);
 		
-		writeLock.lock();
+		final long startTime = System.nanoTime();
+		boolean succeeded = false;
+		
 		try {
 			
-			if (!isRecordLocked(recNo, cookie)) {
+			if (!LOCK_MANAGER.unlock(recNo, cookie)) {
 
 				final String errorMessage = "Cookie value " + cookie + " does "
 						+ "not own the lock on record " + recNo;
@@ -1031,13 +2046,12 @@ public class Data implements DB {
 				throw new SecurityException(errorMessage);
 
 			}
-
-			RECORDS_LOCKED.remove(recNo);
-			lockNotReleased.signalAll();
+			
+			succeeded = true;
 			
 		} finally {
 			
-			writeLock.unlock();
+			UNLOCK_METRICS.record(startTime, succeeded);
 			
 			DatabaseLogger.exiting(CLASS_NAME, methodName);
 		}
@@ -1056,27 +2070,58 @@ public class Data implements DB {
 		final String methodName = "isRecordLocked";
 		DatabaseLogger.entering(CLASS_NAME, methodName, recNo, cookie);
 		
-		boolean recordLocked = true;
+		final boolean recordLocked = LOCK_MANAGER.isLockedBy(recNo, cookie);
 		
-		try {
-			
-			final Long lockValue = RECORDS_LOCKED.get(recNo);
-
-			if (lockValue == null) {
-
-				recordLocked = false;
-
-			} else {
-
-				recordLocked = lockValue.equals(cookie);
-
-			}
-			
-		} finally {
-			DatabaseLogger.exiting(CLASS_NAME, methodName, recordLocked);
-		}
+		DatabaseLogger.exiting(CLASS_NAME, methodName, recordLocked);
 		
 		return recordLocked;
 	}
 	
+	/**
+	 * Write applied to the cache, with the cache bytes it overwrote.
+	 */
+	private static final class UnsavedWrite {
+		
+		/**
+		 * Sequence number of the write in the write-ahead log.
+		 */
+		private final long sequence;
+		
+		/**
+		 * Row of the record written.
+		 */
+		private final int recordRow;
+		
+		/**
+		 * Position in the database file where the bytes were written.
+		 */
+		private final int position;
+		
+		/**
+		 * Cache bytes overwritten by the write, or null if the write 
+		 * appended the record.
+		 */
+		private final byte[] previousBytes;
+		
+		/**
+		 * Constructs a <code>UnsavedWrite</code> object.
+		 * 
+		 * @param writeSequence Sequence number of the write in the log.
+		 * @param writtenRecordRow Row of the record written.
+		 * @param writePosition Position where the bytes were written.
+		 * @param overwrittenBytes Cache bytes overwritten by the write, or
+		 *                         null if the write appended the record.
+		 */
+		private UnsavedWrite(final long writeSequence, 
+				final int writtenRecordRow, final int writePosition, 
+				final byte[] overwrittenBytes) {
+			
+			sequence = writeSequence;
+			recordRow = writtenRecordRow;
+			position = writePosition;
+			previousBytes = overwrittenBytes;
+		}
+		
+	}
+	
 }
@@ -36,14 +36,29 @@ public class DataFileFormat {
 	private int numberOfFieldsPerRecord;
 	
 	/**
-	 * Data section, contain the record rows saved in database.
+	 * Position in the database file where the data section starts.
 	 */
-	private Set<Integer> recordRows = new TreeSet<Integer>();
+	private long dataSectionOffset;
+	
+	/**
+	 * Number of records (valid and deleted) in the data section.
+	 */
+	private int recordCount;
 	
 	/**
 	 * Database schema.
 	 */
 	private Set<RecordField> recordFields = new LinkedHashSet<RecordField>();
+	
+	/**
+	 * Offset of each field value inside a record, by field position.
+	 */
+	private int[] fieldValueOffsets = new int[0];
+	
+	/**
+	 * Length of each field value, by field position.
+	 */
+	private int[] fieldValueLengths = new int[0];
 
 	/**
 	 * Constructs a <code>DataFileFormat</code> object.
@@ -92,8 +107,10 @@ public class DataFileFormat {
 	}
 
 	/**
-	 * Reads the data sections. That is, saves the rows where records
-	 * are stored in database.
+	 * Reads the data section. That is, the position where it starts and the
+	 * number of records it contains; the record rows follow from them and 
+	 * the record length. An incomplete record at the end of the file is 
+	 * ignored.
 	 * 
 	 * @param database Database from where to load the data file format.
 	 * @throws IOException If any I/O error occurs.
@@ -107,20 +124,13 @@ public class DataFileFormat {
 		try {
 			
 			final long initialDataPosition = database.getFilePointer();
+			setDataSectionOffset(initialDataPosition);
 			
-			final long lastRecordRow = database.length() - getRecordLength();
-			long currentRecordRow = 0;
-			int totalRecordRows = 0;
-			while (currentRecordRow < lastRecordRow) {
-
-				final int currentRecordPosition = 
-						totalRecordRows * getRecordLength();
-				currentRecordRow = initialDataPosition + currentRecordPosition;
-
-				recordRows.add((int) currentRecordRow);
-
-				totalRecordRows++;
-			}
+			final long dataSectionLength = 
+					database.length() - initialDataPosition;
+			
+			setRecordCount((int) Math.max(0, 
+					dataSectionLength / getRecordLength()));
 			
 		} finally {
 			DatabaseLogger.exiting(CLASS_NAME, methodName);
@@ -142,6 +152,12 @@ public class DataFileFormat {
 		
 		try { 
 			
+			fieldValueOffsets = new int[getNumberOfFieldsPerRecord()];
+			fieldValueLengths = new int[getNumberOfFieldsPerRecord()];
+			
+			// Field values start after the deleted flag
+			int fieldValueOffset = 1;
+			
 			for (int fieldIndex = 0; 
 					fieldIndex < getNumberOfFieldsPerRecord(); fieldIndex++) {
 
@@ -159,6 +175,12 @@ public class DataFileFormat {
 				recordField.setFieldPosition(fieldIndex);
 				
 				recordFields.add(recordField);
+				
+				fieldValueOffsets[fieldIndex] = fieldValueOffset;
+				fieldValueLengths[fieldIndex] = 
+						recordField.getFieldValueLength();
+				
+				fieldValueOffset += recordField.getFieldValueLength();
 			}
 			
 		} finally {
@@ -250,11 +272,80 @@ public class DataFileFormat {
 	}
 
 	/**
-	 * Retrieves the data section.
+	 * Retrieves the position in the database file where the data section 
+	 * starts.
+	 * 
+	 * @return Position where the data section starts.
+	 */
+	public final long getDataSectionOffset() {
+		return dataSectionOffset;
+	}
+	
+	/**
+	 * Sets the position in the database file where the data section starts.
+	 * 
+	 * @param offset Position where the data section starts.
+	 */
+	private void setDataSectionOffset(final long offset) {
+		dataSectionOffset = offset;
+	}
+	
+	/**
+	 * Retrieves the number of records (valid and deleted) in the data 
+	 * section.
+	 * 
+	 * @return Number of records in the data section.
+	 */
+	public final int getRecordCount() {
+		return recordCount;
+	}
+	
+	/**
+	 * Sets the number of records in the data section.
+	 * 
+	 * @param count Number of records in the data section.
+	 */
+	private void setRecordCount(final int count) {
+		recordCount = count;
+	}
+	
+	/**
+	 * Retrieves the row of the given record in the data section.
+	 * 
+	 * @param recordIndex Index of the record in the data section, from 0.
+	 * @return Row where the record is stored in database.
+	 */
+	public final int getRecordRow(final int recordIndex) {
+		return (int) (getDataSectionOffset() 
+				+ (long) recordIndex * getRecordLength());
+	}
+	
+	/**
+	 * Retrieves an iterator over the rows of the data section, computed
+	 * as they are iterated.
+	 * 
+	 * @return Iterator over the rows where all records are stored in 
+	 *         database.
+	 */
+	public final RecordRowIterator recordRowIterator() {
+		return new RecordRowIterator(this);
+	}
+	
+	/**
+	 * Retrieves the data section. The set is built on each call; prefer
+	 * {@link #recordRowIterator()} to go through the rows.
 	 * 
 	 * @return A set of rows where all records are stored in database.
 	 */
 	public final Set<Integer> getRecordRows() {
+		
+		final Set<Integer> recordRows = new TreeSet<Integer>();
+		
+		final RecordRowIterator rows = recordRowIterator();
+		while (rows.hasNext()) {
+			recordRows.add(rows.nextRow());
+		}
+		
 		return recordRows;
 	}
 	
@@ -267,4 +358,23 @@ public class DataFileFormat {
 		return recordFields;
 	}
 	
+	/**
+	 * Retrieves the offset of each field value inside a record, after the 
+	 * deleted flag and the values of the previous fields.
+	 * 
+	 * @return Copy of the field value offsets, by field position.
+	 */
+	public final int[] getFieldValueOffsets() {
+		return fieldValueOffsets.clone();
+	}
+	
+	/**
+	 * Retrieves the length of each field value.
+	 * 
+	 * @return Copy of the field value lengths, by field position.
+	 */
+	public final int[] getFieldValueLengths() {
+		return fieldValueLengths.clone();
+	}
+	
 }
@@ -1,7 +1,10 @@
 package suncertify.db;
 
-import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Exposes the CRUD operations to perform on the database.
@@ -18,7 +21,25 @@ public class Database implements IDatabase {
 	/**
 	 * Reference to the database object.
 	 */
-	private final DB database = new Data(); 
+	private final Data database = new Data(); 
+	
+	/**
+	 * Find cursors opened, by cursor id.
+	 */
+	private final ConcurrentMap<Long, FindCursor> cursors = 
+			new ConcurrentHashMap<Long, FindCursor>();
+	
+	/**
+	 * Last cursor id assigned.
+	 */
+	private final AtomicLong lastCursorId = new AtomicLong();
+	
+	/**
+	 * Time, in milliseconds, after which a find cursor that is not used is 
+	 * closed.
+	 */
+	private final long cursorIdleTimeout = 
+			new DatabaseProperties().readCursorIdleTimeout();
 	
 	/**
 	 * Constructs a <code>Database</code> object.
@@ -90,6 +111,10 @@ public class Database implements IDatabase {
 
 	/**
 	 * Updates the specified record position with he given record data.
+	 * <br />The update is first tried without locking the record: the room 
+	 * is verified not booked and the record written in a single critical 
+	 * section. Only if a client holds the lock on the record, it is locked 
+	 * to update it.
 	 * 
 	 * @param recordRow Record position where to update.
 	 * @param record Record data to update.
@@ -101,31 +126,85 @@ public class Database implements IDatabase {
 		
 		final String methodName = "update";
 		DatabaseLogger.entering(CLASS_NAME, methodName, recordRow, record);
-
-		final long lockCookie = database.lock(recordRow);
 		
 		try {
 			
-			if (isRoomBooked(recordRow)) {
+			final String [] recordData = record.toStringArray();
+			
+			if (database.updateIfNotBooked(recordRow, recordData)) {
+				return;
+			}
+			
+			final long lockCookie = database.lock(recordRow);
+			
+			try {
+				
+				verifyRoomNotBooked(recordRow);
 				
-				final String errorMessage = "Unable to update the record, "
-						+ "the room is already booked";
+				database.update(recordRow, recordData, lockCookie);
 				
-				DatabaseLogger.severe(CLASS_NAME, methodName, errorMessage);
+			} finally {
 				
-				throw new RecordNotFoundException(errorMessage);
+				database.unlock(recordRow, lockCookie);
 				
 			}
 			
-			final String [] recordData = record.toStringArray();
+		} finally {
 			
-			database.update(recordRow, recordData, lockCookie);
+			DatabaseLogger.exiting(CLASS_NAME, methodName);
 			
-		} finally {
+		}
+		
+	}
+
+	/**
+	 * Books the room of the specified record position for the given owner,
+	 * only if the room is not booked yet. The owner is verified and set in 
+	 * a single critical section, without locking the record, and only the 
+	 * owner field is written. If a client holds the lock on the record, the 
+	 * room is booked once the client unlocks it.
+	 * 
+	 * @param recordRow Record position of the room to book.
+	 * @param ownerId Owner id value that books the room.
+	 * @return True if the room was booked; False if it was already booked.
+	 * @throws RecordNotFoundException If the record is not found or it is 
+	 *                                 deleted.
+	 * @throws IllegalArgumentException If the owner id value is not valid.
+	 */
+	public final boolean book(final int recordRow, final String ownerId)
+			throws RecordNotFoundException, IllegalArgumentException {
+		
+		final String methodName = "book";
+		DatabaseLogger.entering(CLASS_NAME, methodName, recordRow, ownerId);
+		
+		boolean roomBooked = false;
+		
+		try {
 			
-			database.unlock(recordRow, lockCookie);
+			if ((ownerId == null) || ("".equals(ownerId))
+					|| (!new RecordValidator().isValidOwner(ownerId))) {
+				throw new IllegalArgumentException("Owner value not "
+						+ "valid: " + ownerId);
+			}
 			
-			DatabaseLogger.exiting(CLASS_NAME, methodName);
+			BookResult bookResult = database.book(recordRow, ownerId);
+			
+			while (bookResult == BookResult.RECORD_LOCKED) {
+				
+				// Waits for the client that holds the lock to release it
+				database.unlock(recordRow, database.lock(recordRow));
+				
+				bookResult = database.book(recordRow, ownerId);
+				
+			}
+			
+			roomBooked = (bookResult == BookResult.BOOKED);
+			
+			return roomBooked;
+			
+		} finally {
+			
+			DatabaseLogger.exiting(CLASS_NAME, methodName, roomBooked);
 			
 		}
 		
@@ -169,6 +248,52 @@ public class Database implements IDatabase {
 		}
 	}
 
+	/**
+	 * Reads the records in the specified record positions at once. The 
+	 * record positions not found, or deleted, are skipped.
+	 * <br />The records are returned in a <code>RecordBatch</code>, so they 
+	 * are sent in a compact form to the remote clients.
+	 * 
+	 * @param recordRows Record positions where to read.
+	 * @return The records read, in the same order as their positions. 
+	 */
+	public final List<Record> readMany(final int[] recordRows) {
+		
+		final String methodName = "readMany";
+		DatabaseLogger.entering(CLASS_NAME, methodName, recordRows.length);
+		
+		try {
+			
+			final String [][] recordsData = database.readMany(recordRows);
+			
+			final List<Record> records = 
+					new RecordBatch(recordsData.length);
+			
+			for (int index = 0; index < recordsData.length; index++) {
+				
+				if (recordsData[index] == null) {
+					
+					DatabaseLogger.warning(CLASS_NAME, methodName, 
+							"Unable to read record: " + recordRows[index]);
+					
+					continue;
+				}
+				
+				records.add(Record.fromDatabase(recordRows[index], 
+						recordsData[index]));
+				
+			}
+			
+			return records;
+			
+		} finally {
+			
+			DatabaseLogger.exiting(CLASS_NAME, methodName);
+			
+		}
+		
+	}
+
 	/**
 	 * Locates and retrieves record(s) in the database that start with
 	 * the given name and location values. 
@@ -193,31 +318,159 @@ public class Database implements IDatabase {
 		
 		try {
 			
-			final String [] criteria = new String [Record.TOTAL_RECORD_FIELDS];
+			return find(name, location, MatchMode.STARTS_WITH);
 			
-			criteria[Record.HOTEL_NAME_FIELD_INDEX] = name;
-			criteria[Record.LOCATION_FIELD_INDEX] = location;
+		} finally {
 			
-			final int [] recordRowsFound = database.find(criteria);
+			DatabaseLogger.exiting(CLASS_NAME, methodName);
 			
-			final List<Record> records = new ArrayList<Record>();
+		}
+		
+	}
+	
+	/**
+	 * Locates and retrieves record(s) in the database whose name and location
+	 * match the given values in the given match mode. The values are 
+	 * compared on the server, through the field indexes, so only the 
+	 * matching records are retrieved.
+	 * <br />The values can be null or empty:
+	 * <br />- If name is null or empty, all name values in database will 
+	 * match.
+	 * <br />- If location is null or empty, all location values in database 
+	 * will match.
+	 * <br />- If both are null or empty, all records are retrieved.
+	 * 
+	 * @param name Name to search. Can be null or empty (will match any name 
+	 *             value).
+	 * @param location Location to search. Can be null or empty (will match 
+	 *                 any location value).
+	 * @param matchMode How the values are compared with the name and 
+	 *                  location of the records.
+	 * @return Record(s) found during the search. If no record is found, an 
+	 *         empty list is returned.
+	 */
+	public final List<Record> find(final String name, final String location,
+			final MatchMode matchMode) {
+		
+		final String methodName = "find";
+		DatabaseLogger.entering(CLASS_NAME, methodName, name, location, 
+				matchMode);
+		
+		try {
+			
+			return readMany(findRecordRows(name, location, matchMode));
 			
-			for (int recordRow: recordRowsFound) {
+		} finally {
+			
+			DatabaseLogger.exiting(CLASS_NAME, methodName);
+			
+		}
+		
+	}
+	
+	/**
+	 * Opens a cursor over the record(s) in the database that start with the
+	 * given name and location values, as {@link #find(String, String)} 
+	 * does. The records are retrieved one page at a time with 
+	 * {@link #nextPage(long)}; the cursor must be closed with 
+	 * {@link #closeCursor(long)} if not all the pages are retrieved.
+	 * <br />The rows found are taken when the cursor is opened, and their 
+	 * records are read when each page is retrieved. A cursor not used for 
+	 * the time defined in the db.cursor.idle.timeout property, 5 minutes by
+	 * default, is closed. At most 
+	 * <code>DatabaseConstants.MAX_OPEN_CURSORS</code> cursors can be open 
+	 * at the same time.
+	 * 
+	 * @param name Name to search. Can be null or empty (will match any name 
+	 *             value).
+	 * @param location Location to search. Can be null or empty (will match 
+	 *                 any location value).
+	 * @param pageSize Maximum number of records of each page, up to 
+	 *                 <code>DatabaseConstants.MAX_CURSOR_PAGE_SIZE</code>.
+	 * @return Id of the cursor.
+	 * @throws IllegalStateException If the maximum number of cursors are 
+	 *                               already open.
+	 */
+	public final long openCursor(final String name, final String location,
+			final int pageSize) throws IllegalStateException {
+		
+		final String methodName = "openCursor";
+		DatabaseLogger.entering(CLASS_NAME, methodName, name, location);
+		
+		try {
+			
+			closeIdleCursors();
+			
+			if (cursors.size() >= DatabaseConstants.MAX_OPEN_CURSORS) {
 				
-				try {
-					
-					records.add(read(recordRow));
-					
-				} catch (RecordNotFoundException e) {
-					
-					DatabaseLogger.warning(CLASS_NAME, methodName, 
-							"Unable to read record: " + e.getMessage());
-					
-				}
+				final String errorMessage = "Too many cursors open: " 
+						+ cursors.size();
+				
+				DatabaseLogger.warning(CLASS_NAME, methodName, errorMessage);
 				
+				throw new IllegalStateException(errorMessage);
 			}
 			
-			return records;
+			final FindCursor cursor = new FindCursor(
+					findRecordRows(name, location, MatchMode.STARTS_WITH), 
+					Math.min(pageSize, DatabaseConstants.MAX_CURSOR_PAGE_SIZE));
+			
+			final long cursorId = lastCursorId.incrementAndGet();
+			
+			cursors.put(cursorId, cursor);
+			
+			return cursorId;
+			
+		} finally {
+			
+			DatabaseLogger.exiting(CLASS_NAME, methodName);
+			
+		}
+		
+	}
+	
+	/**
+	 * Retrieves the next page of records of a find cursor. An empty page 
+	 * means that all the records were retrieved, and the cursor is closed.
+	 * 
+	 * @param cursorId Id of the cursor.
+	 * @return The records of the next page, empty if there are no more.
+	 * @throws IllegalArgumentException If the cursor is not open, or it was
+	 *                                  closed because it was idle.
+	 */
+	public final List<Record> nextPage(final long cursorId) 
+			throws IllegalArgumentException {
+		
+		final String methodName = "nextPage";
+		DatabaseLogger.entering(CLASS_NAME, methodName, cursorId);
+		
+		try {
+			
+			closeIdleCursors();
+			
+			final FindCursor cursor = cursors.get(cursorId);
+			
+			if (cursor == null) {
+				
+				final String errorMessage = "Cursor not found: " + cursorId;
+				
+				DatabaseLogger.warning(CLASS_NAME, methodName, errorMessage);
+				
+				throw new IllegalArgumentException(errorMessage);
+			}
+			
+			List<Record> page;
+			
+			// Pages whose records were all deleted are skipped
+			do {
+				page = readMany(cursor.nextRows());
+			} while (page.isEmpty() && (!cursor.isExhausted()));
+			
+			if (page.isEmpty()) {
+				cursors.remove(cursorId);
+			}
+			
+			return page;
 			
 		} finally {
 			
@@ -227,6 +480,86 @@ public class Database implements IDatabase {
 		
 	}
 	
+	/**
+	 * Closes a find cursor. Closing a cursor that is not open does nothing.
+	 * 
+	 * @param cursorId Id of the cursor.
+	 */
+	public final void closeCursor(final long cursorId) {
+		
+		final String methodName = "closeCursor";
+		DatabaseLogger.entering(CLASS_NAME, methodName, cursorId);
+		
+		cursors.remove(cursorId);
+		
+		DatabaseLogger.exiting(CLASS_NAME, methodName);
+		
+	}
+	
+	/**
+	 * Closes the find cursors not used for the cursor idle timeout.
+	 */
+	private void closeIdleCursors() {
+		
+		final Iterator<FindCursor> cursorIterator = 
+				cursors.values().iterator();
+		
+		while (cursorIterator.hasNext()) {
+			
+			if (cursorIterator.next().isIdle(cursorIdleTimeout)) {
+				cursorIterator.remove();
+			}
+			
+		}
+		
+	}
+	
+	/**
+	 * Locates the rows of the records in the database that match the given
+	 * name and location values in the given match mode.
+	 * 
+	 * @param name Name to search. Can be null or empty.
+	 * @param location Location to search. Can be null or empty.
+	 * @param matchMode How the values are compared.
+	 * @return The rows of the records found.
+	 */
+	private int[] findRecordRows(final String name, final String location,
+			final MatchMode matchMode) {
+		
+		final String [] criteria = new String [Record.TOTAL_RECORD_FIELDS];
+		
+		criteria[Record.HOTEL_NAME_FIELD_INDEX] = name;
+		criteria[Record.LOCATION_FIELD_INDEX] = location;
+		
+		return database.find(criteria, matchMode);
+		
+	}
+	
+	/**
+	 * Verifies that the room of the given record is not booked yet.
+	 * 
+	 * @param recordRow Record to verify the room.
+	 * @throws RecordNotFoundException If the room is already booked, or the
+	 *                                 record is not found or it is deleted.
+	 */
+	private void verifyRoomNotBooked(final int recordRow) 
+			throws RecordNotFoundException {
+		
+		final String methodName = "verifyRoomNotBooked";
+		
+		if (isRoomBooked(recordRow)) {
+			
+			final String errorMessage = "Unable to update the record, "
+					+ "the room is already booked";
+			
+			DatabaseLogger.severe(CLASS_NAME, methodName, errorMessage);
+			
+			throw new RecordNotFoundException(errorMessage);
+			
+		}
+		
+	}
+	
 	/**
 	 * Verifies if the room of the given record is already booked.
 	 * 
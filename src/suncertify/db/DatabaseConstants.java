@@ -13,6 +13,122 @@ public class DatabaseConstants {
 	 */
 	public static final String DB_PATH_PROP = "db.path";
 	
+	/**
+	 * db.storage property name.
+	 */
+	public static final String DB_STORAGE_PROP = "db.storage";
+	
+	/**
+	 * Storage that accesses the database file with seek and read/write, 
+	 * 'file'.
+	 */
+	public static final String FILE_STORAGE = "file";
+	
+	/**
+	 * Storage that accesses the database file through a memory mapped 
+	 * buffer, 'mapped'.
+	 */
+	public static final String MAPPED_STORAGE = "mapped";
+	
+	/**
+	 * db.wal property name.
+	 */
+	public static final String DB_WAL_PROP = "db.wal";
+	
+	/**
+	 * db.wal.checkpoint.size property name.
+	 */
+	public static final String DB_WAL_CHECKPOINT_SIZE_PROP = 
+			"db.wal.checkpoint.size";
+	
+	/**
+	 * db.wal.checkpoint.interval property name.
+	 */
+	public static final String DB_WAL_CHECKPOINT_INTERVAL_PROP = 
+			"db.wal.checkpoint.interval";
+	
+	/**
+	 * Default log size, in bytes, that triggers a checkpoint.
+	 */
+	public static final long DEFAULT_CHECKPOINT_SIZE = 4 * 1024 * 1024;
+	
+	/**
+	 * Default time, in milliseconds, between checkpoints.
+	 */
+	public static final long DEFAULT_CHECKPOINT_INTERVAL = 1000;
+	
+	/**
+	 * db.load.chunk.size property name.
+	 */
+	public static final String DB_LOAD_CHUNK_SIZE_PROP = 
+			"db.load.chunk.size";
+	
+	/**
+	 * Default size, in bytes, of the chunks read while loading the cache.
+	 */
+	public static final long DEFAULT_LOAD_CHUNK_SIZE = 4 * 1024 * 1024;
+	
+	/**
+	 * db.lock.profiling property name.
+	 */
+	public static final String DB_LOCK_PROFILING_PROP = "db.lock.profiling";
+	
+	/**
+	 * db.lock.lease.timeout property name.
+	 */
+	public static final String DB_LOCK_LEASE_TIMEOUT_PROP = 
+			"db.lock.lease.timeout";
+	
+	/**
+	 * Default lease timeout of the record locks, in milliseconds: 0, the 
+	 * locks are not leased.
+	 */
+	public static final long DEFAULT_LOCK_LEASE_TIMEOUT = 0;
+	
+	/**
+	 * Longest time between two runs of the lock lease reaper, in 
+	 * milliseconds.
+	 */
+	public static final long MAX_LEASE_REAPER_PERIOD = 1000;
+	
+	/**
+	 * Value returned instead of a cookie when a record can't be locked in 
+	 * time.
+	 */
+	public static final long LOCK_NOT_ACQUIRED = -1;
+	
+	/**
+	 * Maximum number of records of a find cursor page.
+	 */
+	public static final int MAX_CURSOR_PAGE_SIZE = 1000;
+	
+	/**
+	 * Maximum number of find cursors open at the same time on a database.
+	 */
+	public static final int MAX_OPEN_CURSORS = 1000;
+	
+	/**
+	 * db.cursor.idle.timeout property name.
+	 */
+	public static final String DB_CURSOR_IDLE_TIMEOUT_PROP = 
+			"db.cursor.idle.timeout";
+	
+	/**
+	 * Default time, in milliseconds, after which a find cursor that is not 
+	 * used is closed.
+	 */
+	public static final long CURSOR_IDLE_TIMEOUT = 5 * 60 * 1000;
+	
+	/**
+	 * Extension appended to the database path to name the write-ahead log.
+	 */
+	public static final String WRITE_AHEAD_LOG_EXTENSION = ".wal";
+	
+	/**
+	 * Sequence number of a write that was not saved in the write-ahead log.
+	 */
+	public static final long NO_WRITE_SEQUENCE = -1;
+	
 	/**
 	 * "rw" file access mode.
 	 */
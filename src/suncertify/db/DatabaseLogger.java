@@ -4,6 +4,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import suncertify.log.AppLogger;
+import suncertify.log.Tracer;
 
 /**
  * Logger to use into <code>suncertify.db</code> package.
@@ -17,6 +18,11 @@ public class DatabaseLogger {
 	 */
 	private static final Logger LOGGER = AppLogger.getLogger("suncertify.db");
 	
+	/**
+	 * Tracer of the method entries and returns.
+	 */
+	private static final Tracer TRACER = new Tracer(LOGGER);
+	
 	/**
 	 * Constructor.
 	 */
@@ -24,6 +30,16 @@ public class DatabaseLogger {
 		
 	}
 	
+	/**
+	 * Verifies if the method entries and returns are logged.
+	 * 
+	 * @return True if the method entries and returns are logged; False 
+	 *         otherwise.
+	 */
+	public static boolean isTracing() {
+		return TRACER.isTracing();
+	}
+	
 	/**
 	 * Logs a method entry. 
 	 * 
@@ -32,7 +48,44 @@ public class DatabaseLogger {
 	 */
 	public static void entering(final String sourceClass, 
 			final String sourceMethod) {
-		LOGGER.entering(sourceClass, sourceMethod);
+		TRACER.entering(sourceClass, sourceMethod);
+	}
+	
+	/**
+	 * Logs a method entry.
+	 * 
+	 * @param sourceClass Name of class that issued the logging request.
+	 * @param sourceMethod Name of method that is being entered.
+	 * @param param Parameter of the method being entered.
+	 */
+	public static void entering(final String sourceClass, 
+			final String sourceMethod, final Object param) {
+		TRACER.entering(sourceClass, sourceMethod, param);
+	}
+	
+	/**
+	 * Logs a method entry.
+	 * 
+	 * @param sourceClass Name of class that issued the logging request.
+	 * @param sourceMethod Name of method that is being entered.
+	 * @param param Parameter of the method being entered.
+	 */
+	public static void entering(final String sourceClass, 
+			final String sourceMethod, final int param) {
+		TRACER.entering(sourceClass, sourceMethod, param);
+	}
+	
+	/**
+	 * Logs a method entry.
+	 * 
+	 * @param sourceClass Name of class that issued the logging request.
+	 * @param sourceMethod Name of method that is being entered.
+	 * @param param1 First parameter of the method being entered.
+	 * @param param2 Second parameter of the method being entered.
+	 */
+	public static void entering(final String sourceClass, 
+			final String sourceMethod, final int param1, final long param2) {
+		TRACER.entering(sourceClass, sourceMethod, param1, param2);
 	}
 	
 	/**
@@ -40,11 +93,54 @@ public class DatabaseLogger {
 	 * 
 	 * @param sourceClass Name of class that issued the logging request.
 	 * @param sourceMethod Name of method that is being entered.
+	 * @param param1 First parameter of the method being entered.
+	 * @param param2 Second parameter of the method being entered.
+	 */
+	public static void entering(final String sourceClass, 
+			final String sourceMethod, final int param1, final Object param2) {
+		TRACER.entering(sourceClass, sourceMethod, param1, param2);
+	}
+	
+	/**
+	 * Logs a method entry.
+	 * 
+	 * @param sourceClass Name of class that issued the logging request.
+	 * @param sourceMethod Name of method that is being entered.
+	 * @param param1 First parameter of the method being entered.
+	 * @param param2 Second parameter of the method being entered.
+	 */
+	public static void entering(final String sourceClass, 
+			final String sourceMethod, final Object param1, 
+			final Object param2) {
+		TRACER.entering(sourceClass, sourceMethod, param1, param2);
+	}
+	
+	/**
+	 * Logs a method entry.
+	 * 
+	 * @param sourceClass Name of class that issued the logging request.
+	 * @param sourceMethod Name of method that is being entered.
+	 * @param param1 First parameter of the method being entered.
+	 * @param param2 Second parameter of the method being entered.
+	 * @param param3 Third parameter of the method being entered.
+	 */
+	public static void entering(final String sourceClass, 
+			final String sourceMethod, final Object param1, 
+			final Object param2, final Object param3) {
+		TRACER.entering(sourceClass, sourceMethod, param1, param2, param3);
+	}
+	
+	/**
+	 * Logs a method entry. The parameters array is allocated by the caller
+	 * even if tracing is off; prefer the fixed arity methods.
+	 * 
+	 * @param sourceClass Name of class that issued the logging request.
+	 * @param sourceMethod Name of method that is being entered.
 	 * @param params Array of parameters to the method being entered.
 	 */
 	public static void entering(final String sourceClass, 
 			final String sourceMethod, final Object ... params) {
-		LOGGER.entering(sourceClass, sourceMethod, params);
+		TRACER.entering(sourceClass, sourceMethod, params);
 	}
 	
 	/**
@@ -55,7 +151,7 @@ public class DatabaseLogger {
 	 */
 	public static void exiting(final String sourceClass, 
 			final String sourceMethod) {
-		LOGGER.exiting(sourceClass, sourceMethod);
+		TRACER.exiting(sourceClass, sourceMethod);
 	}
 	
 	/**
@@ -67,7 +163,31 @@ public class DatabaseLogger {
 	 */
 	public static void exiting(final String sourceClass, 
 			final String sourceMethod, final Object result) {
-		LOGGER.exiting(sourceClass, sourceMethod, result);
+		TRACER.exiting(sourceClass, sourceMethod, result);
+	}
+	
+	/**
+	 * Logs a method return.
+	 * 
+	 * @param sourceClass Name of class that issued the logging request.
+	 * @param sourceMethod Name of the method.
+	 * @param result Value that is being returned.
+	 */
+	public static void exiting(final String sourceClass, 
+			final String sourceMethod, final int result) {
+		TRACER.exiting(sourceClass, sourceMethod, result);
+	}
+	
+	/**
+	 * Logs a method return.
+	 * 
+	 * @param sourceClass Name of class that issued the logging request.
+	 * @param sourceMethod Name of the method.
+	 * @param result Value that is being returned.
+	 */
+	public static void exiting(final String sourceClass, 
+			final String sourceMethod, final boolean result) {
+		TRACER.exiting(sourceClass, sourceMethod, result);
 	}
 	
 	/**
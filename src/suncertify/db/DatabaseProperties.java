@@ -34,4 +34,99 @@ public class DatabaseProperties extends AppProperties {
 	public final void updateDatabasePath(final String dbPath) {
 		savePropertyValue(DatabaseConstants.DB_PATH_PROP, dbPath);
 	}
+	
+	/**
+	 * Reads the storage to use to access the database file, 'file' by 
+	 * default.
+	 * 
+	 * @return Storage to use to access the database file.
+	 */
+	public final String readDataStorage() {
+		return readPropertyValue(DatabaseConstants.DB_STORAGE_PROP, 
+				DatabaseConstants.FILE_STORAGE);
+	}
+	
+	/**
+	 * Reads if the write-ahead log is enabled, true by default.
+	 * 
+	 * @return True if the write-ahead log is enabled; False otherwise.
+	 */
+	public final boolean readWriteAheadLogEnabled() {
+		return Boolean.parseBoolean(readPropertyValue(
+				DatabaseConstants.DB_WAL_PROP, Boolean.TRUE.toString()));
+	}
+	
+	/**
+	 * Reads the write-ahead log size, in bytes, that triggers a checkpoint.
+	 * 
+	 * @return Log size that triggers a checkpoint.
+	 */
+	public final long readCheckpointSize() {
+		return readLongPropertyValue(
+				DatabaseConstants.DB_WAL_CHECKPOINT_SIZE_PROP, 
+				DatabaseConstants.DEFAULT_CHECKPOINT_SIZE);
+	}
+	
+	/**
+	 * Reads the time, in milliseconds, between write-ahead log checkpoints.
+	 * 
+	 * @return Time between checkpoints.
+	 */
+	public final long readCheckpointInterval() {
+		return readLongPropertyValue(
+				DatabaseConstants.DB_WAL_CHECKPOINT_INTERVAL_PROP, 
+				DatabaseConstants.DEFAULT_CHECKPOINT_INTERVAL);
+	}
+	
+	/**
+	 * Reads the size, in bytes, of the chunks read from the database file 
+	 * while loading the cache.
+	 * 
+	 * @return Size of the chunks read while loading the cache.
+	 */
+	public final int readLoadChunkSize() {
+		return (int) Math.min(Integer.MAX_VALUE, readLongPropertyValue(
+				DatabaseConstants.DB_LOAD_CHUNK_SIZE_PROP, 
+				DatabaseConstants.DEFAULT_LOAD_CHUNK_SIZE));
+	}
+	
+	/**
+	 * Reads if the lock statistics of the records are kept, false by 
+	 * default; they can also be switched on at runtime through the lock 
+	 * contention profiler.
+	 * 
+	 * @return True if the lock profiling is enabled; False otherwise.
+	 */
+	public final boolean readLockProfilingEnabled() {
+		return Boolean.parseBoolean(readPropertyValue(
+				DatabaseConstants.DB_LOCK_PROFILING_PROP, 
+				Boolean.FALSE.toString()));
+	}
+	
+	/**
+	 * Reads the lease timeout of the record locks, in milliseconds: a record 
+	 * locked longer is released so other clients can lock it. If the 
+	 * property is not defined or is not a positive number, the default 
+	 * value is returned as 0, and the locks are not leased.
+	 * 
+	 * @return Lease timeout of the record locks, 0 if they are not leased.
+	 */
+	public final long readLockLeaseTimeout() {
+		return readLongPropertyValue(
+				DatabaseConstants.DB_LOCK_LEASE_TIMEOUT_PROP, 
+				DatabaseConstants.DEFAULT_LOCK_LEASE_TIMEOUT);
+	}
+	
+	/**
+	 * Reads the time, in milliseconds, after which a find cursor that is not 
+	 * used is closed. If the property is not defined or is not a positive 
+	 * number, the default value is returned as 5 minutes.
+	 * 
+	 * @return Idle timeout of the find cursors.
+	 */
+	public final long readCursorIdleTimeout() {
+		return readLongPropertyValue(
+				DatabaseConstants.DB_CURSOR_IDLE_TIMEOUT_PROP, 
+				DatabaseConstants.CURSOR_IDLE_TIMEOUT);
+	}
 }
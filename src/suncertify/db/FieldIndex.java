@@ -0,0 +1,225 @@
+package suncertify.db;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * In-memory secondary index over the values of one record field. Maps each
+ * distinct field value (trimmed) to the record rows that contain it, keeping
+ * the values sorted so all the values that start with a prefix are next to
+ * each other. The rows of each value are kept in a 
+ * <code>RecordRowSet</code>, a primitive int array.
+ * <br />The values are sorted ignoring case first, and then by case, so the
+ * values that differ only in case are next to each other too, and the same
+ * index serves the searches that ignore case.
+ * <br />This class is not thread safe, it must be guarded by the same lock
+ * that guards the records cache.
+ *
+ * @author Leo Gutierrez
+ */
+public class FieldIndex {
+
+	/**
+	 * Order of the field values: ignoring case, and then by case.
+	 */
+	private static final Comparator<String> VALUE_ORDER =
+			new Comparator<String>() {
+
+		public int compare(final String value1, final String value2) {
+
+			final int order =
+					String.CASE_INSENSITIVE_ORDER.compare(value1, value2);
+
+			if (order != 0) {
+				return order;
+			}
+
+			return value1.compareTo(value2);
+		}
+
+	};
+
+	/**
+	 * Record rows by field value.
+	 */
+	private final NavigableMap<String, RecordRowSet> rowsByValue =
+			new TreeMap<String, RecordRowSet>(VALUE_ORDER);
+
+	/**
+	 * Adds the given record row to the index.
+	 *
+	 * @param value Field value of the record.
+	 * @param recordRow Record row.
+	 */
+	public final void add(final String value, final int recordRow) {
+
+		final String key = toKey(value);
+
+		RecordRowSet rows = rowsByValue.get(key);
+		if (rows == null) {
+			rows = new RecordRowSet();
+			rowsByValue.put(key, rows);
+		}
+
+		rows.add(recordRow);
+	}
+
+	/**
+	 * Removes the given record row from the index.
+	 *
+	 * @param value Field value the record was indexed with.
+	 * @param recordRow Record row.
+	 */
+	public final void remove(final String value, final int recordRow) {
+
+		final String key = toKey(value);
+
+		final RecordRowSet rows = rowsByValue.get(key);
+		if (rows != null) {
+
+			rows.remove(recordRow);
+
+			if (rows.isEmpty()) {
+				rowsByValue.remove(key);
+			}
+		}
+	}
+
+	/**
+	 * Retrieves the record rows whose field value is equal to the given
+	 * value (both trimmed).
+	 *
+	 * @param value Value to search.
+	 * @return A read only set of the record rows found; an empty set if none
+	 *         is found.
+	 */
+	public final Set<Integer> rowsEqualTo(final String value) {
+
+		final RecordRowSet rows = rowsByValue.get(toKey(value));
+
+		if (rows == null) {
+			return Collections.emptySet();
+		}
+
+		return Collections.unmodifiableSet(rows);
+	}
+
+	/**
+	 * Retrieves the record rows whose field value starts with the given
+	 * prefix (both trimmed). The values that start with the prefix are
+	 * located with a range search over the sorted values, so the cost
+	 * depends on the prefix and the matches, not on the index size.
+	 *
+	 * @param prefix Prefix to search.
+	 * @return A read only set of the record rows found; an empty set if none
+	 *         is found.
+	 */
+	public final Set<Integer> rowsStartingWith(final String prefix) {
+		return rowsMatching(prefix, MatchMode.STARTS_WITH);
+	}
+
+	/**
+	 * Retrieves the record rows whose field value matches the given value
+	 * (both trimmed) in the given mode. The values are located with a range
+	 * search over the sorted values: the range of the values equal to, or
+	 * starting with, the given value ignoring case.
+	 *
+	 * @param value Value to search.
+	 * @param matchMode How the value is compared with the field values.
+	 * @return A read only set of the record rows found; an empty set if none
+	 *         is found.
+	 */
+	public final Set<Integer> rowsMatching(final String value,
+			final MatchMode matchMode) {
+
+		final String key = toKey(value);
+
+		if (matchMode == MatchMode.EXACT) {
+			return rowsEqualTo(key);
+		}
+
+		final List<RecordRowSet> rowsFound = new ArrayList<RecordRowSet>();
+
+		// The values equal to the key ignoring case may sort before it
+		if (matchMode.isIgnoreCase()) {
+
+			for (Entry<String, RecordRowSet> entry
+					: rowsByValue.headMap(key, false).descendingMap()
+							.entrySet()) {
+
+				if (!entry.getKey().equalsIgnoreCase(key)) {
+					break;
+				}
+
+				rowsFound.add(entry.getValue());
+			}
+		}
+
+		for (Entry<String, RecordRowSet> entry
+				: rowsByValue.tailMap(key, true).entrySet()) {
+
+			final String indexedValue = entry.getKey();
+
+			if (matchMode.isExact()) {
+
+				if (!indexedValue.equalsIgnoreCase(key)) {
+					break;
+				}
+
+			} else if (!indexedValue.regionMatches(true, 0, key, 0,
+					key.length())) {
+				break;
+			}
+
+			if (matchMode.isIgnoreCase() || indexedValue.startsWith(key)) {
+				rowsFound.add(entry.getValue());
+			}
+		}
+
+		if (rowsFound.isEmpty()) {
+			return Collections.emptySet();
+		}
+
+		if (rowsFound.size() == 1) {
+			return Collections.unmodifiableSet(rowsFound.get(0));
+		}
+
+		int rowCount = 0;
+		for (RecordRowSet valueRows: rowsFound) {
+			rowCount += valueRows.size();
+		}
+
+		// A record row has a single value, so the rows are distinct
+		final int[] rows = new int[rowCount];
+		int offset = 0;
+		for (RecordRowSet valueRows: rowsFound) {
+			offset = valueRows.copyTo(rows, offset);
+		}
+		Arrays.sort(rows);
+
+		return Collections.unmodifiableSet(new RecordRowSet(rows));
+	}
+
+	/**
+	 * Returns the key used in the index for the given field value.
+	 *
+	 * @param value Field value, can be null.
+	 * @return The trimmed value, or an empty string if it is null.
+	 */
+	private static String toKey(final String value) {
+
+		if (value == null) {
+			return "";
+		}
+
+		return value.trim();
+	}
+
+}
@@ -0,0 +1,87 @@
+package suncertify.db;
+
+import java.util.Arrays;
+
+/**
+ * Position of a client in the results of a search, read one page at a time.
+ * <br />The rows found are taken when the cursor is opened, so the pages
+ * iterate over a snapshot of the matching rows; the records themselves are
+ * read when each page is requested, and the rows deleted in between are
+ * skipped.
+ *
+ * @author Leo Gutierrez
+ */
+public class FindCursor {
+
+	/**
+	 * Rows found by the search.
+	 */
+	private final int[] recordRows;
+
+	/**
+	 * Maximum number of rows of a page.
+	 */
+	private final int pageSize;
+
+	/**
+	 * Index of the first row of the next page.
+	 */
+	private int position;
+
+	/**
+	 * Time of the last use, in milliseconds.
+	 */
+	private volatile long lastUseTime;
+
+	/**
+	 * Constructs a <code>FindCursor</code> object.
+	 *
+	 * @param recordRowsFound Rows found by the search.
+	 * @param maxRowsPerPage Maximum number of rows of a page.
+	 */
+	public FindCursor(final int[] recordRowsFound, final int maxRowsPerPage) {
+
+		recordRows = recordRowsFound;
+		pageSize = Math.max(1, maxRowsPerPage);
+		lastUseTime = System.currentTimeMillis();
+	}
+
+	/**
+	 * Takes the rows of the next page.
+	 *
+	 * @return Rows of the next page, empty if all the rows were taken.
+	 */
+	public final synchronized int[] nextRows() {
+
+		lastUseTime = System.currentTimeMillis();
+
+		final int end = Math.min(recordRows.length, position + pageSize);
+
+		final int[] pageRows = Arrays.copyOfRange(recordRows, position, end);
+
+		position = end;
+
+		return pageRows;
+	}
+
+	/**
+	 * Verifies if all the rows were taken.
+	 *
+	 * @return True if there are no more pages; False otherwise.
+	 */
+	public final synchronized boolean isExhausted() {
+		return position >= recordRows.length;
+	}
+
+	/**
+	 * Verifies if the cursor was not used for the given time.
+	 *
+	 * @param idleTimeout Idle time, in milliseconds.
+	 * @return True if the cursor was not used for the given time; False
+	 *         otherwise.
+	 */
+	public final boolean isIdle(final long idleTimeout) {
+		return System.currentTimeMillis() - lastUseTime > idleTimeout;
+	}
+
+}
@@ -0,0 +1,62 @@
+package suncertify.db;
+
+import java.io.IOException;
+
+/**
+ * Models the low level access to the bytes of the database file. The
+ * positions are absolute offsets in the database file.
+ *
+ * @author Leo Gutierrez
+ */
+public interface IDataStorage {
+
+	/**
+	 * Reads bytes from the database file into the given buffer.
+	 *
+	 * @param position Position in the database file where to start reading.
+	 * @param buffer Buffer where to copy the bytes read.
+	 * @param offset Offset in the buffer where to start copying.
+	 * @param length Number of bytes to read.
+	 * @throws IOException If any I/O error occurs, or there are not enough
+	 *                     bytes in the database file.
+	 */
+	void read(long position, byte[] buffer, int offset, int length)
+			throws IOException;
+
+	/**
+	 * Writes the bytes in the given buffer into the database file, growing
+	 * the file if needed.
+	 *
+	 * @param position Position in the database file where to start writing.
+	 * @param buffer Buffer that contains the bytes to write.
+	 * @param offset Offset in the buffer where the bytes to write start.
+	 * @param length Number of bytes to write.
+	 * @throws IOException If any I/O error occurs.
+	 */
+	void write(long position, byte[] buffer, int offset, int length)
+			throws IOException;
+
+	/**
+	 * Retrieves the length of the database file.
+	 *
+	 * @return Length of the database file.
+	 * @throws IOException If any I/O error occurs.
+	 */
+	long length() throws IOException;
+
+	/**
+	 * Forces any update made to the database file to be written to the 
+	 * storage device.
+	 *
+	 * @throws IOException If any I/O error occurs.
+	 */
+	void force() throws IOException;
+
+	/**
+	 * Releases the resources used to access the database file.
+	 *
+	 * @throws IOException If any I/O error occurs.
+	 */
+	void close() throws IOException;
+
+}
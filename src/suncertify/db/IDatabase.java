@@ -46,6 +46,22 @@ public interface IDatabase extends Remote {
 	void update(int recordRow, Record record) 
 			throws RecordNotFoundException, RemoteException;
 	
+	/**
+	 * Books the room of the specified record position for the given owner,
+	 * only if the room is not booked yet.
+	 * 
+	 * @param recordRow Record position of the room to book.
+	 * @param ownerId Owner id value that books the room.
+	 * @return True if the room was booked; False if it was already booked.
+	 * @throws RecordNotFoundException If the record is not found or it is 
+	 *                                 deleted.
+	 * @throws IllegalArgumentException If the owner id value is not valid.
+	 * @throws RemoteException If any networking error occurs.
+	 */
+	boolean book(int recordRow, String ownerId) 
+			throws RecordNotFoundException, IllegalArgumentException, 
+			RemoteException;
+	
 	/**
 	 * Reads a record in the specified record position.
 	 * 
@@ -58,6 +74,16 @@ public interface IDatabase extends Remote {
 	Record read(int recordRow) 
 			throws RecordNotFoundException, RemoteException;
 	
+	/**
+	 * Reads the records in the specified record positions at once. The 
+	 * record positions not found, or deleted, are skipped.
+	 * 
+	 * @param recordRows Record positions where to read.
+	 * @return The records read, in the same order as their positions. 
+	 * @throws RemoteException If any networking error occurs.
+	 */
+	List<Record> readMany(int[] recordRows) throws RemoteException;
+	
 	/**
 	 * Locates and retrieves record(s) in the database that start with
 	 * the given name and location values. 
@@ -79,4 +105,68 @@ public interface IDatabase extends Remote {
 	List<Record> find(String name, String location) 
 			throws RemoteException;
 	
+	/**
+	 * Locates and retrieves record(s) in the database whose name and location
+	 * match the given values in the given match mode. The values are 
+	 * compared on the server, through the field indexes, so only the 
+	 * matching records are retrieved.
+	 * <br />The values can be null or empty:
+	 * <br />- If name is null or empty, all name values in database will 
+	 * match.
+	 * <br />- If location is null or empty, all location values in database 
+	 * will match.
+	 * <br />- If both are null or empty, all records are retrieved.
+	 * 
+	 * @param name Name to search. Can be null or empty (will match any name 
+	 *             value).
+	 * @param location Location to search. Can be null or empty (will match 
+	 *                 any location value).
+	 * @param matchMode How the values are compared with the name and 
+	 *                  location of the records.
+	 * @return Record(s) found during the search. If no record is found, an 
+	 *         empty list is returned.
+	 * @throws RemoteException If any networking error occurs.
+	 */
+	List<Record> find(String name, String location, MatchMode matchMode) 
+			throws RemoteException;
+	
+	/**
+	 * Opens a cursor over the record(s) in the database that start with the
+	 * given name and location values, as {@link #find(String, String)} 
+	 * does. The records are retrieved one page at a time with 
+	 * {@link #nextPage(long)}; the cursor must be closed with 
+	 * {@link #closeCursor(long)} if not all the pages are retrieved.
+	 * 
+	 * @param name Name to search. Can be null or empty (will match any name 
+	 *             value).
+	 * @param location Location to search. Can be null or empty (will match 
+	 *                 any location value).
+	 * @param pageSize Maximum number of records of each page.
+	 * @return Id of the cursor.
+	 * @throws RemoteException If any networking error occurs.
+	 */
+	long openCursor(String name, String location, int pageSize) 
+			throws RemoteException;
+	
+	/**
+	 * Retrieves the next page of records of a find cursor. An empty page 
+	 * means that all the records were retrieved, and the cursor is closed.
+	 * 
+	 * @param cursorId Id of the cursor.
+	 * @return The records of the next page, empty if there are no more.
+	 * @throws IllegalArgumentException If the cursor is not open, or it was
+	 *                                  closed because it was idle.
+	 * @throws RemoteException If any networking error occurs.
+	 */
+	List<Record> nextPage(long cursorId) 
+			throws IllegalArgumentException, RemoteException;
+	
+	/**
+	 * Closes a find cursor. Closing a cursor that is not open does nothing.
+	 * 
+	 * @param cursorId Id of the cursor.
+	 * @throws RemoteException If any networking error occurs.
+	 */
+	void closeCursor(long cursorId) throws RemoteException;
+	
 }
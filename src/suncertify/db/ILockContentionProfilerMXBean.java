@@ -0,0 +1,72 @@
+package suncertify.db;
+
+import java.util.List;
+
+/**
+ * Management interface of the lock contention profiler of the database
+ * records.
+ *
+ * @author Leo Gutierrez
+ */
+public interface ILockContentionProfilerMXBean {
+
+	/**
+	 * Verifies if the lock statistics of the records are kept.
+	 *
+	 * @return True if the profiler is on; False otherwise.
+	 */
+	boolean isEnabled();
+
+	/**
+	 * Switches the profiler on or off.
+	 *
+	 * @param enabled True to keep the lock statistics; False otherwise.
+	 */
+	void setEnabled(boolean enabled);
+
+	/**
+	 * Returns the number of hottest records returned by
+	 * {@link #getHottestRecords()}.
+	 *
+	 * @return Number of hottest records.
+	 */
+	int getTopCount();
+
+	/**
+	 * Sets the number of hottest records returned by
+	 * {@link #getHottestRecords()}.
+	 *
+	 * @param count Number of hottest records.
+	 */
+	void setTopCount(int count);
+
+	/**
+	 * Returns the lock statistics of the records with the longest total wait
+	 * time, from the longest.
+	 *
+	 * @return Lock statistics of the hottest records.
+	 */
+	List<RecordLockStatistics> getHottestRecords();
+
+	/**
+	 * Returns the hottest records as one line per record.
+	 *
+	 * @return Summary of the hottest records.
+	 */
+	String[] getHottestRecordsSummary();
+
+	/**
+	 * Returns the lock statistics of the given record.
+	 *
+	 * @param recordRow Record number.
+	 * @return Lock statistics of the record, null if it was never locked
+	 *         while profiling.
+	 */
+	RecordLockStatistics recordStatistics(int recordRow);
+
+	/**
+	 * Discards the lock statistics of all the records.
+	 */
+	void reset();
+
+}
@@ -0,0 +1,27 @@
+package suncertify.db;
+
+/**
+ * Extends the access to the database's operations with record locks that
+ * wait a limited time for the record to be unlocked.
+ *
+ * @author Leo Gutierrez
+ */
+public interface ITimedLockDB extends DB {
+
+	/**
+	 * Locks a record so that it can only be updated or deleted by this
+	 * client, as {@link DB#lock(int)} does, but waits at most the given time
+	 * for the record to be unlocked by a different client.
+	 *
+	 * @param recNo Record number to be locked.
+	 * @param timeout Maximum time to wait, in milliseconds; 0 or less does
+	 *                not wait.
+	 * @return Cookie value that owns the lock on the record, or
+	 *         <code>DatabaseConstants.LOCK_NOT_ACQUIRED</code> if the record
+	 *         is still locked by a different client after the timeout.
+	 * @throws RecordNotFoundException If the record is not found in the
+	 *                                 database.
+	 */
+	long tryLock(int recNo, long timeout) throws RecordNotFoundException;
+
+}
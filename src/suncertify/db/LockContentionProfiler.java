@@ -0,0 +1,121 @@
+package suncertify.db;
+
+import java.util.List;
+
+/**
+ * Publishes the lock statistics kept by a <code>RecordLockManager</code>,
+ * to find the records that serialize the clients: the hottest records are
+ * the ones with the longest total wait time.
+ *
+ * @author Leo Gutierrez
+ */
+public class LockContentionProfiler implements ILockContentionProfilerMXBean {
+
+	/**
+	 * Default number of hottest records.
+	 */
+	private static final int DEFAULT_TOP_COUNT = 10;
+
+	/**
+	 * Lock manager whose statistics are published.
+	 */
+	private final RecordLockManager lockManager;
+
+	/**
+	 * Number of hottest records returned.
+	 */
+	private volatile int topCount = DEFAULT_TOP_COUNT;
+
+	/**
+	 * Constructs a <code>LockContentionProfiler</code> object.
+	 *
+	 * @param manager Lock manager whose statistics are published.
+	 */
+	public LockContentionProfiler(final RecordLockManager manager) {
+		lockManager = manager;
+	}
+
+	/**
+	 * Verifies if the lock statistics of the records are kept.
+	 *
+	 * @return True if the profiler is on; False otherwise.
+	 */
+	public final boolean isEnabled() {
+		return lockManager.isProfiling();
+	}
+
+	/**
+	 * Switches the profiler on or off.
+	 *
+	 * @param enabled True to keep the lock statistics; False otherwise.
+	 */
+	public final void setEnabled(final boolean enabled) {
+		lockManager.setProfiling(enabled);
+	}
+
+	/**
+	 * Returns the number of hottest records returned by
+	 * {@link #getHottestRecords()}.
+	 *
+	 * @return Number of hottest records.
+	 */
+	public final int getTopCount() {
+		return topCount;
+	}
+
+	/**
+	 * Sets the number of hottest records returned by
+	 * {@link #getHottestRecords()}.
+	 *
+	 * @param count Number of hottest records.
+	 */
+	public final void setTopCount(final int count) {
+		topCount = count;
+	}
+
+	/**
+	 * Returns the lock statistics of the records with the longest total wait
+	 * time, from the longest.
+	 *
+	 * @return Lock statistics of the hottest records.
+	 */
+	public final List<RecordLockStatistics> getHottestRecords() {
+		return lockManager.hottestRecords(topCount);
+	}
+
+	/**
+	 * Returns the hottest records as one line per record.
+	 *
+	 * @return Summary of the hottest records.
+	 */
+	public final String[] getHottestRecordsSummary() {
+
+		final List<RecordLockStatistics> hottestRecords = getHottestRecords();
+
+		final String[] summary = new String[hottestRecords.size()];
+		for (int index = 0; index < summary.length; index++) {
+			summary[index] = hottestRecords.get(index).toString();
+		}
+
+		return summary;
+	}
+
+	/**
+	 * Returns the lock statistics of the given record.
+	 *
+	 * @param recordRow Record number.
+	 * @return Lock statistics of the record, null if it was never locked
+	 *         while profiling.
+	 */
+	public final RecordLockStatistics recordStatistics(final int recordRow) {
+		return lockManager.statisticsOf(recordRow);
+	}
+
+	/**
+	 * Discards the lock statistics of all the records.
+	 */
+	public final void reset() {
+		lockManager.resetStatistics();
+	}
+
+}
@@ -0,0 +1,125 @@
+package suncertify.db;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates the cookies that own the record locks.
+ * <br />Every thread takes blocks of sequence numbers from a shared counter,
+ * one block every 1024 cookies, and generates the cookies of its block
+ * without touching any shared state. Each sequence number is scrambled
+ * with a mix function keyed with secret random values: the mix is a
+ * bijection, so two sequence numbers never give the same cookie, and the
+ * cookies are not guessable from the cookies seen before.
+ * <br />The value <code>DatabaseConstants.LOCK_NOT_ACQUIRED</code> and 0 are
+ * never generated.
+ *
+ * @author Leo Gutierrez
+ */
+public class LockCookieGenerator {
+
+	/**
+	 * Number of sequence numbers taken at once by a thread.
+	 */
+	private static final long BLOCK_SIZE = 1024;
+
+	/**
+	 * Next sequence number not taken by any thread.
+	 */
+	private final AtomicLong nextBlock = new AtomicLong();
+
+	/**
+	 * Secret key added before the first mix.
+	 */
+	private final long firstKey;
+
+	/**
+	 * Secret key combined between the two mixes.
+	 */
+	private final long secondKey;
+
+	/**
+	 * Block of sequence numbers of each thread.
+	 */
+	private final ThreadLocal<SequenceBlock> blocks =
+			new ThreadLocal<SequenceBlock>() {
+
+		protected SequenceBlock initialValue() {
+			return new SequenceBlock();
+		}
+
+	};
+
+	/**
+	 * Constructs a <code>LockCookieGenerator</code> object with keys drawn
+	 * from a <code>SecureRandom</code>.
+	 */
+	public LockCookieGenerator() {
+
+		final SecureRandom random = new SecureRandom();
+
+		firstKey = random.nextLong();
+		secondKey = random.nextLong();
+	}
+
+	/**
+	 * Returns a new cookie, different from every cookie returned before by
+	 * this generator.
+	 *
+	 * @return A new cookie.
+	 */
+	public final long nextCookie() {
+
+		final SequenceBlock block = blocks.get();
+
+		while (true) {
+
+			if (block.next == block.end) {
+				block.next = nextBlock.getAndAdd(BLOCK_SIZE);
+				block.end = block.next + BLOCK_SIZE;
+			}
+
+			final long cookie = mix(mix(block.next++ + firstKey) ^ secondKey);
+
+			if ((cookie != DatabaseConstants.LOCK_NOT_ACQUIRED)
+					&& (cookie != 0)) {
+				return cookie;
+			}
+		}
+	}
+
+	/**
+	 * Scrambles the bits of a value. Every step can be inverted, so
+	 * different values never give the same result.
+	 *
+	 * @param value Value to scramble.
+	 * @return Scrambled value.
+	 */
+	private static long mix(final long value) {
+
+		long mixed = value;
+
+		mixed = (mixed ^ (mixed >>> 30)) * 0xBF58476D1CE4E5B9L;
+		mixed = (mixed ^ (mixed >>> 27)) * 0x94D049BB133111EBL;
+
+		return mixed ^ (mixed >>> 31);
+	}
+
+	/**
+	 * Sequence numbers taken by a thread.
+	 */
+	private static final class SequenceBlock {
+
+		/**
+		 * Next sequence number to use.
+		 */
+		private long next;
+
+		/**
+		 * End, exclusive, of the block.
+		 */
+		private long end;
+
+	}
+
+}
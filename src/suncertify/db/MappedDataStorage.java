@@ -0,0 +1,243 @@
+package suncertify.db;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Accesses the data section of the database file through a memory mapped
+ * buffer, so the records are read and written in place with plain memory
+ * copies instead of a <code>seek</code> and a system call per operation.
+ * <br />The records appended after the end of the mapping are written and
+ * read through the file channel, so the database file never contains bytes
+ * that are not part of a record. The data section is mapped again only when
+ * the bytes after the mapping are as many as the bytes mapped, so the
+ * mapping doubles each time and a file that grows record by record is
+ * mapped a logarithmic number of times.
+ *
+ * @author Leo Gutierrez
+ */
+public class MappedDataStorage implements IDataStorage {
+
+	/**
+	 * Channel of the database file.
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * Position in the database file where the data section starts.
+	 */
+	private final long dataSectionOffset;
+
+	/**
+	 * Minimum number of bytes after the mapping that makes the data section
+	 * to be mapped again.
+	 */
+	private static final int MIN_REMAP_LENGTH = 64 * 1024;
+
+	/**
+	 * Buffer mapped to the data section of the database file, from its start
+	 * up to the file length when it was mapped.
+	 */
+	private volatile MappedByteBuffer dataSection;
+
+	/**
+	 * Length of the database file.
+	 */
+	private volatile long fileLength;
+
+	/**
+	 * Constructs a <code>MappedDataStorage</code> object, mapping the data
+	 * section of the given database file.
+	 *
+	 * @param databaseFile Database file to access.
+	 * @param dataOffset Position in the database file where the data section
+	 *                   starts.
+	 * @throws IOException If the data section can't be mapped.
+	 */
+	public MappedDataStorage(final RandomAccessFile databaseFile,
+			final long dataOffset) throws IOException {
+
+		channel = databaseFile.getChannel();
+		dataSectionOffset = dataOffset;
+
+		final long dataSectionLength = channel.size() - dataSectionOffset;
+		if ((dataSectionLength < 0)
+				|| (dataSectionLength > Integer.MAX_VALUE)) {
+			throw new IOException("Unable to map a data section of "
+					+ dataSectionLength + " bytes");
+		}
+
+		fileLength = channel.size();
+		dataSection = map(fileLength);
+	}
+
+	/**
+	 * Reads bytes from the database file into the given buffer.
+	 *
+	 * @param position Position in the database file where to start reading.
+	 * @param buffer Buffer where to copy the bytes read.
+	 * @param offset Offset in the buffer where to start copying.
+	 * @param length Number of bytes to read.
+	 * @throws IOException If the bytes to read are not in the data section.
+	 */
+	public final void read(final long position, final byte[] buffer,
+			final int offset, final int length) throws IOException {
+
+		final ByteBuffer view = dataSection.duplicate();
+
+		final long start = position - dataSectionOffset;
+		if ((start < 0) || (position + length > fileLength)) {
+			throw new IOException("Position " + position + " is out of the "
+					+ "data section");
+		}
+
+		if (start + length > view.capacity()) {
+			readFromChannel(position, buffer, offset, length);
+			return;
+		}
+
+		view.position((int) start);
+		view.get(buffer, offset, length);
+
+	}
+
+	/**
+	 * Writes the bytes in the given buffer into the data section. The bytes
+	 * after the end of the mapping are written through the file channel,
+	 * and the data section is mapped again when the bytes after the mapping
+	 * are as many as the bytes mapped.
+	 *
+	 * @param position Position in the database file where to start writing.
+	 * @param buffer Buffer that contains the bytes to write.
+	 * @param offset Offset in the buffer where the bytes to write start.
+	 * @param length Number of bytes to write.
+	 * @throws IOException If the position is before the data section or the
+	 *                     data section can't be mapped again.
+	 */
+	public final synchronized void write(final long position,
+			final byte[] buffer, final int offset, final int length)
+			throws IOException {
+
+		final long start = position - dataSectionOffset;
+		if (start < 0) {
+			throw new IOException("Position " + position + " is out of the "
+					+ "data section");
+		}
+
+		final ByteBuffer view = dataSection.duplicate();
+
+		// Bytes inside the mapping
+		final int mappedLength = (int) Math.max(0, 
+				Math.min(length, view.capacity() - start));
+		if (mappedLength > 0) {
+			view.position((int) start);
+			view.put(buffer, offset, mappedLength);
+		}
+
+		// Bytes after the end of the mapping
+		if (mappedLength < length) {
+
+			final ByteBuffer source = ByteBuffer.wrap(buffer,
+					offset + mappedLength, length - mappedLength);
+
+			long writePosition = position + mappedLength;
+			while (source.hasRemaining()) {
+				writePosition += channel.write(source, writePosition);
+			}
+
+			fileLength = Math.max(fileLength, position + length);
+
+			final long unmappedLength = 
+					fileLength - dataSectionOffset - view.capacity();
+			if (unmappedLength >= Math.max(view.capacity(), 
+					MIN_REMAP_LENGTH)) {
+				dataSection = map(fileLength);
+			}
+		}
+
+	}
+
+	/**
+	 * Retrieves the length of the database file.
+	 *
+	 * @return Length of the database file.
+	 * @throws IOException If any I/O error occurs.
+	 */
+	public final long length() throws IOException {
+		return fileLength;
+	}
+
+	/**
+	 * Forces the updates made to the mapped data section to be written to 
+	 * the storage device.
+	 *
+	 * @throws IOException If any I/O error occurs.
+	 */
+	public final void force() throws IOException {
+		dataSection.force();
+		channel.force(false);
+	}
+
+	/**
+	 * Flushes the mapped data section to the database file and closes it.
+	 *
+	 * @throws IOException If any I/O error occurs.
+	 */
+	public final synchronized void close() throws IOException {
+
+		dataSection.force();
+		channel.close();
+
+	}
+
+	/**
+	 * Reads bytes from the database file through the file channel.
+	 *
+	 * @param position Position in the database file where to start reading.
+	 * @param buffer Buffer where to copy the bytes read.
+	 * @param offset Offset in the buffer where to start copying.
+	 * @param length Number of bytes to read.
+	 * @throws IOException If the bytes can't be read.
+	 */
+	private void readFromChannel(final long position, final byte[] buffer,
+			final int offset, final int length) throws IOException {
+
+		final ByteBuffer target = ByteBuffer.wrap(buffer, offset, length);
+
+		long readPosition = position;
+		while (target.hasRemaining()) {
+
+			final int bytesRead = channel.read(target, readPosition);
+			if (bytesRead < 0) {
+				throw new IOException("Position " + readPosition 
+						+ " is out of the data section");
+			}
+
+			readPosition += bytesRead;
+		}
+	}
+
+	/**
+	 * Maps the data section of the database file up to the given file
+	 * length.
+	 *
+	 * @param fileLength Length of the database file to map.
+	 * @return Buffer mapped to the data section.
+	 * @throws IOException If the data section can't be mapped.
+	 */
+	private MappedByteBuffer map(final long fileLength) throws IOException {
+
+		final long dataSectionLength = fileLength - dataSectionOffset;
+		if (dataSectionLength > Integer.MAX_VALUE) {
+			throw new IOException("Unable to map a data section of "
+					+ dataSectionLength + " bytes");
+		}
+
+		return channel.map(FileChannel.MapMode.READ_WRITE, dataSectionOffset,
+				dataSectionLength);
+	}
+
+}
@@ -0,0 +1,110 @@
+package suncertify.db;
+
+/**
+ * How the criteria values of a search are compared with the field values.
+ * The leading and trailing spaces are ignored in all the modes.
+ *
+ * @author Leo Gutierrez
+ */
+public enum MatchMode {
+
+	/**
+	 * The field value starts with the criteria value.
+	 */
+	STARTS_WITH(false, false),
+
+	/**
+	 * The field value starts with the criteria value, ignoring case.
+	 */
+	STARTS_WITH_IGNORE_CASE(false, true),
+
+	/**
+	 * The field value is equal to the criteria value.
+	 */
+	EXACT(true, false),
+
+	/**
+	 * The field value is equal to the criteria value, ignoring case.
+	 */
+	EXACT_IGNORE_CASE(true, true);
+
+	/**
+	 * True if the whole field value is compared.
+	 */
+	private final boolean exact;
+
+	/**
+	 * True if the case is ignored.
+	 */
+	private final boolean ignoreCase;
+
+	/**
+	 * Constructs a <code>MatchMode</code>.
+	 *
+	 * @param exactMatch True if the whole field value is compared.
+	 * @param caseIgnored True if the case is ignored.
+	 */
+	private MatchMode(final boolean exactMatch, final boolean caseIgnored) {
+		exact = exactMatch;
+		ignoreCase = caseIgnored;
+	}
+
+	/**
+	 * Verifies if the whole field value is compared.
+	 *
+	 * @return True if the field value must be equal to the criteria value;
+	 *         False if it must start with it.
+	 */
+	public boolean isExact() {
+		return exact;
+	}
+
+	/**
+	 * Verifies if the case is ignored.
+	 *
+	 * @return True if the case is ignored; False otherwise.
+	 */
+	public boolean isIgnoreCase() {
+		return ignoreCase;
+	}
+
+	/**
+	 * Verifies if the given field value matches the given criteria value in
+	 * this mode, ignoring the leading and trailing spaces of both.
+	 *
+	 * @param fieldValue Field value. Can be null.
+	 * @param criteriaValue Criteria value. Can be null.
+	 * @return True if the field value matches; False otherwise.
+	 */
+	public boolean matches(final String fieldValue,
+			final String criteriaValue) {
+
+		final String value = trim(fieldValue);
+		final String criteria = trim(criteriaValue);
+
+		if (exact) {
+			return (value.length() == criteria.length())
+					&& value.regionMatches(ignoreCase, 0, criteria, 0,
+							criteria.length());
+		}
+
+		return value.regionMatches(ignoreCase, 0, criteria, 0,
+				criteria.length());
+	}
+
+	/**
+	 * Trims the given value.
+	 *
+	 * @param value Value to trim. Can be null.
+	 * @return The trimmed value, or an empty string if it is null.
+	 */
+	private static String trim(final String value) {
+
+		if (value == null) {
+			return "";
+		}
+
+		return value.trim();
+	}
+
+}
@@ -0,0 +1,95 @@
+package suncertify.db;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * Accesses the database file through a <code>RandomAccessFile</code>,
+ * seeking to the position of every read and write.
+ *
+ * @author Leo Gutierrez
+ */
+public class RandomAccessDataStorage implements IDataStorage {
+
+	/**
+	 * Reference to the database file.
+	 */
+	private final RandomAccessFile database;
+
+	/**
+	 * Constructs a <code>RandomAccessDataStorage</code> object.
+	 *
+	 * @param databaseFile Database file to access.
+	 */
+	public RandomAccessDataStorage(final RandomAccessFile databaseFile) {
+		database = databaseFile;
+	}
+
+	/**
+	 * Reads bytes from the database file into the given buffer.
+	 *
+	 * @param position Position in the database file where to start reading.
+	 * @param buffer Buffer where to copy the bytes read.
+	 * @param offset Offset in the buffer where to start copying.
+	 * @param length Number of bytes to read.
+	 * @throws IOException If any I/O error occurs, or there are not enough
+	 *                     bytes in the database file.
+	 */
+	public final synchronized void read(final long position,
+			final byte[] buffer, final int offset, final int length)
+			throws IOException {
+
+		database.seek(position);
+		database.readFully(buffer, offset, length);
+
+	}
+
+	/**
+	 * Writes the bytes in the given buffer into the database file, growing
+	 * the file if needed.
+	 *
+	 * @param position Position in the database file where to start writing.
+	 * @param buffer Buffer that contains the bytes to write.
+	 * @param offset Offset in the buffer where the bytes to write start.
+	 * @param length Number of bytes to write.
+	 * @throws IOException If any I/O error occurs.
+	 */
+	public final synchronized void write(final long position,
+			final byte[] buffer, final int offset, final int length)
+			throws IOException {
+
+		database.seek(position);
+		database.write(buffer, offset, length);
+
+	}
+
+	/**
+	 * Retrieves the length of the database file.
+	 *
+	 * @return Length of the database file.
+	 * @throws IOException If any I/O error occurs.
+	 */
+	public final synchronized long length() throws IOException {
+		return database.length();
+	}
+
+	/**
+	 * Forces any update made to the database file to be written to the 
+	 * storage device.
+	 *
+	 * @throws IOException If any I/O error occurs.
+	 */
+	public final synchronized void force() throws IOException {
+		database.getChannel().force(false);
+	}
+
+	/**
+	 * Closes the database file.
+	 *
+	 * @throws IOException If any I/O error occurs.
+	 */
+	public final synchronized void close() throws IOException {
+		database.close();
+	}
+
+}
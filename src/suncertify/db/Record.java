@@ -1,15 +1,22 @@
 package suncertify.db;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 
 /**
  * Represents a record in the database.
  * <br />If the database record format changes (i.e. new record field) this 
  * class must be updated with the new format. 
+ * <br />A record is written to a stream as its database row followed by its
+ * field values, without the field names and types that the default 
+ * serialization writes. A list of records is sent over the network as a 
+ * <code>RecordBatch</code>, that writes the values by field.
  * 
  * @author Leo Gutierrez
  */
-public class Record implements Serializable {
+public class Record implements Externalizable {
 
 	/**
 	 * Class serial version.
@@ -105,6 +112,110 @@ public class Record implements Serializable {
 		
 	}
 
+	/**
+	 * Creates a <code>Record</code> object with the values read from the 
+	 * database, without validating them: the values were validated when 
+	 * they were written.
+	 * 
+	 * @param recordRow Row number where the record is saved in the 
+	 *                  database file.
+	 * @param recordData Record values, by field position.
+	 * @return The record.
+	 */
+	static Record fromDatabase(final int recordRow, 
+			final String[] recordData) {
+		
+		final Record record = new Record();
+		
+		record.hotelName = recordData[HOTEL_NAME_FIELD_INDEX];
+		record.location = recordData[LOCATION_FIELD_INDEX];
+		record.size = recordData[SIZE_FIELD_INDEX];
+		record.smoking = recordData[SMOKING_FIELD_INDEX];
+		record.rate = recordData[RATE_FIELD_INDEX];
+		record.date = recordData[DATE_FIELD_INDEX];
+		record.owner = recordData[OWNER_FIELD_INDEX];
+		record.databaseRow = recordRow;
+		
+		return record;
+	}
+
+	/**
+	 * Writes this record to the given stream: the database row followed by
+	 * the field values, in field position order.
+	 * 
+	 * @param out Stream where to write the record.
+	 * @throws IOException If the record can not be written.
+	 */
+	public final void writeExternal(final ObjectOutput out) 
+			throws IOException {
+		
+		out.writeInt(databaseRow);
+		
+		writeValue(out, hotelName);
+		writeValue(out, location);
+		writeValue(out, size);
+		writeValue(out, smoking);
+		writeValue(out, rate);
+		writeValue(out, date);
+		writeValue(out, owner);
+	}
+
+	/**
+	 * Reads this record from the given stream, as written by 
+	 * {@link #writeExternal(ObjectOutput)}.
+	 * 
+	 * @param in Stream where to read the record.
+	 * @throws IOException If the record can not be read.
+	 */
+	public final void readExternal(final ObjectInput in) throws IOException {
+		
+		databaseRow = in.readInt();
+		
+		hotelName = readValue(in);
+		location = readValue(in);
+		size = readValue(in);
+		smoking = readValue(in);
+		rate = readValue(in);
+		date = readValue(in);
+		owner = readValue(in);
+	}
+
+	/**
+	 * Writes a field value to the given stream: a flag that tells if the 
+	 * value is not null, followed by the value as modified UTF-8, that 
+	 * takes a single byte for each ASCII character.
+	 * 
+	 * @param out Stream where to write the value.
+	 * @param value Field value. Can be null.
+	 * @throws IOException If the value can not be written.
+	 */
+	static void writeValue(final ObjectOutput out, final String value) 
+			throws IOException {
+		
+		out.writeBoolean(value != null);
+		
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	/**
+	 * Reads a field value from the given stream, as written by 
+	 * {@link #writeValue(ObjectOutput, String)}.
+	 * 
+	 * @param in Stream where to read the value.
+	 * @return The field value, or null.
+	 * @throws IOException If the value can not be read.
+	 */
+	static String readValue(final ObjectInput in) throws IOException {
+		
+		if (!in.readBoolean()) {
+			return null;
+		}
+		
+		return in.readUTF();
+	}
+
 	/**
 	 * Retrieves the record hotel name.
 	 * 
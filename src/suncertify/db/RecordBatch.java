@@ -0,0 +1,280 @@
+package suncertify.db;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * List of records that is written to a stream by field (column) instead of
+ * by record, so the records found by a search are sent over the network in
+ * a compact form.
+ * <br />The database rows are written first, followed by each field of all
+ * the records. The distinct values of a field are written once, and each
+ * record refers to its value by index, with one byte if the field has up
+ * to 256 distinct values, or two bytes if it has up to 65536. The hotel
+ * names, locations, sizes, rates and dates repeat across many records, so
+ * most of the records take a few bytes, and the records read share the
+ * same String for the same value.
+ *
+ * @author Leo Gutierrez
+ */
+public class RecordBatch extends AbstractList<Record>
+		implements RandomAccess, Externalizable {
+
+	/**
+	 * Class serial version.
+	 */
+	private static final long serialVersionUID = 402264L;
+
+	/**
+	 * Maximum number of distinct values whose index fits in a byte.
+	 */
+	private static final int MAX_BYTE_VALUES = 1 << Byte.SIZE;
+
+	/**
+	 * Maximum number of distinct values whose index fits in a short.
+	 */
+	private static final int MAX_SHORT_VALUES = 1 << Short.SIZE;
+
+	/**
+	 * Records of the batch.
+	 */
+	private final List<Record> records;
+
+	/**
+	 * Constructs an empty <code>RecordBatch</code> object.
+	 */
+	public RecordBatch() {
+		records = new ArrayList<Record>();
+	}
+
+	/**
+	 * Constructs an empty <code>RecordBatch</code> object with room for the
+	 * given number of records.
+	 *
+	 * @param initialCapacity Number of records expected.
+	 */
+	public RecordBatch(final int initialCapacity) {
+		records = new ArrayList<Record>(initialCapacity);
+	}
+
+	/**
+	 * Retrieves the record at the given index.
+	 *
+	 * @param index Index of the record.
+	 * @return The record at the given index.
+	 */
+	public final Record get(final int index) {
+		return records.get(index);
+	}
+
+	/**
+	 * Retrieves the number of records of the batch.
+	 *
+	 * @return Number of records.
+	 */
+	public final int size() {
+		return records.size();
+	}
+
+	/**
+	 * Replaces the record at the given index.
+	 *
+	 * @param index Index of the record.
+	 * @param record New record.
+	 * @return The record replaced.
+	 */
+	public final Record set(final int index, final Record record) {
+		return records.set(index, record);
+	}
+
+	/**
+	 * Inserts a record at the given index.
+	 *
+	 * @param index Index where to insert the record.
+	 * @param record Record to insert.
+	 */
+	public final void add(final int index, final Record record) {
+
+		records.add(index, record);
+
+		modCount++;
+	}
+
+	/**
+	 * Removes the record at the given index.
+	 *
+	 * @param index Index of the record.
+	 * @return The record removed.
+	 */
+	public final Record remove(final int index) {
+
+		final Record record = records.remove(index);
+
+		modCount++;
+
+		return record;
+	}
+
+	/**
+	 * Writes the records of the batch to the given stream: the number of
+	 * records, their database rows, and then the values of each field.
+	 *
+	 * @param out Stream where to write the records.
+	 * @throws IOException If the records can not be written.
+	 */
+	public final void writeExternal(final ObjectOutput out)
+			throws IOException {
+
+		final int numberOfRecords = records.size();
+
+		final String [][] recordsData = new String [numberOfRecords][];
+
+		out.writeInt(numberOfRecords);
+
+		for (int index = 0; index < numberOfRecords; index++) {
+
+			final Record record = records.get(index);
+
+			out.writeInt(record.getDatabaseRow());
+
+			recordsData[index] = record.toStringArray();
+		}
+
+		for (int field = 0; field < Record.TOTAL_RECORD_FIELDS; field++) {
+			writeField(out, recordsData, field);
+		}
+	}
+
+	/**
+	 * Reads the records of the batch from the given stream, as written by
+	 * {@link #writeExternal(ObjectOutput)}, replacing the records of the
+	 * batch.
+	 *
+	 * @param in Stream where to read the records.
+	 * @throws IOException If the records can not be read.
+	 */
+	public final void readExternal(final ObjectInput in) throws IOException {
+
+		final int numberOfRecords = in.readInt();
+
+		final int [] recordRows = new int [numberOfRecords];
+		final String [][] recordsData =
+				new String [numberOfRecords][Record.TOTAL_RECORD_FIELDS];
+
+		for (int index = 0; index < numberOfRecords; index++) {
+			recordRows[index] = in.readInt();
+		}
+
+		for (int field = 0; field < Record.TOTAL_RECORD_FIELDS; field++) {
+			readField(in, recordsData, field);
+		}
+
+		records.clear();
+
+		for (int index = 0; index < numberOfRecords; index++) {
+			records.add(Record.fromDatabase(recordRows[index],
+					recordsData[index]));
+		}
+
+		modCount++;
+	}
+
+	/**
+	 * Writes the values of a field of all the records: its distinct values,
+	 * followed by the index of the value of each record.
+	 *
+	 * @param out Stream where to write the values.
+	 * @param recordsData Values of the records, by record and field
+	 *                    position.
+	 * @param field Field position.
+	 * @throws IOException If the values can not be written.
+	 */
+	private void writeField(final ObjectOutput out,
+			final String [][] recordsData, final int field)
+					throws IOException {
+
+		final Map<String, Integer> valueIndexes =
+				new HashMap<String, Integer>();
+		final List<String> values = new ArrayList<String>();
+		final int [] recordValueIndexes = new int [recordsData.length];
+
+		for (int index = 0; index < recordsData.length; index++) {
+
+			final String value = recordsData[index][field];
+
+			Integer valueIndex = valueIndexes.get(value);
+
+			if (valueIndex == null) {
+
+				valueIndex = values.size();
+
+				valueIndexes.put(value, valueIndex);
+				values.add(value);
+			}
+
+			recordValueIndexes[index] = valueIndex;
+		}
+
+		out.writeInt(values.size());
+
+		for (String value: values) {
+			Record.writeValue(out, value);
+		}
+
+		for (int valueIndex: recordValueIndexes) {
+
+			if (values.size() <= MAX_BYTE_VALUES) {
+				out.writeByte(valueIndex);
+			} else if (values.size() <= MAX_SHORT_VALUES) {
+				out.writeShort(valueIndex);
+			} else {
+				out.writeInt(valueIndex);
+			}
+		}
+	}
+
+	/**
+	 * Reads the values of a field of all the records, as written by
+	 * {@link #writeField(ObjectOutput, String[][], int)}.
+	 *
+	 * @param in Stream where to read the values.
+	 * @param recordsData Values of the records where to set the field
+	 *                    values, by record and field position.
+	 * @param field Field position.
+	 * @throws IOException If the values can not be read.
+	 */
+	private void readField(final ObjectInput in,
+			final String [][] recordsData, final int field)
+					throws IOException {
+
+		final String [] values = new String [in.readInt()];
+
+		for (int valueIndex = 0; valueIndex < values.length; valueIndex++) {
+			values[valueIndex] = Record.readValue(in);
+		}
+
+		for (int index = 0; index < recordsData.length; index++) {
+
+			final int valueIndex;
+
+			if (values.length <= MAX_BYTE_VALUES) {
+				valueIndex = in.readUnsignedByte();
+			} else if (values.length <= MAX_SHORT_VALUES) {
+				valueIndex = in.readUnsignedShort();
+			} else {
+				valueIndex = in.readInt();
+			}
+
+			recordsData[index][field] = values[valueIndex];
+		}
+	}
+
+}
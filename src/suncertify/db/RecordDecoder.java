@@ -0,0 +1,109 @@
+package suncertify.db;
+
+import java.nio.charset.Charset;
+
+/**
+ * Decodes the field values of records kept in the fixed-width layout of the
+ * database file, straight from the bytes where they are stored.
+ * <br />The padding around a value is skipped by scanning its bytes before
+ * the String is created, so a value is decoded with a single String, and an
+ * empty value creates none. The bytes are decoded as ISO-8859-1, a single
+ * byte charset that maps every byte to one character, so the values
+ * written by <code>RecordEncoder</code> are read back unchanged.
+ *
+ * @author Leo Gutierrez
+ */
+public class RecordDecoder {
+
+	/**
+	 * Charset of the field values.
+	 */
+	private static final Charset CHARSET = Charset.forName("ISO-8859-1");
+
+	/**
+	 * Greatest byte value considered padding, the same way
+	 * <code>String.trim()</code> does.
+	 */
+	private static final int MAX_PADDING = ' ';
+
+	/**
+	 * Offset of each field value inside a record, by field position.
+	 */
+	private final int[] fieldOffsets;
+
+	/**
+	 * Length of each field value, by field position.
+	 */
+	private final int[] fieldLengths;
+
+	/**
+	 * Constructs a <code>RecordDecoder</code> object for the given data file
+	 * format.
+	 *
+	 * @param dataFileFormat Format of the database file.
+	 */
+	public RecordDecoder(final DataFileFormat dataFileFormat) {
+
+		fieldOffsets = dataFileFormat.getFieldValueOffsets();
+		fieldLengths = dataFileFormat.getFieldValueLengths();
+	}
+
+	/**
+	 * Returns the number of fields of a record.
+	 *
+	 * @return Number of fields.
+	 */
+	public final int numberOfFields() {
+		return fieldOffsets.length;
+	}
+
+	/**
+	 * Returns the offset of a field value inside a record.
+	 *
+	 * @param fieldPosition Field position.
+	 * @return Offset of the field value from the start of the record.
+	 */
+	public final int fieldOffset(final int fieldPosition) {
+		return fieldOffsets[fieldPosition];
+	}
+
+	/**
+	 * Returns the length of a field value.
+	 *
+	 * @param fieldPosition Field position.
+	 * @return Length of the field value.
+	 */
+	public final int fieldLength(final int fieldPosition) {
+		return fieldLengths[fieldPosition];
+	}
+
+	/**
+	 * Decodes a field value of the record stored at the given offset.
+	 *
+	 * @param bytes Buffer that contains the record.
+	 * @param recordStart Offset in the buffer where the record starts.
+	 * @param fieldPosition Field position.
+	 * @return The field value without its padding.
+	 */
+	public final String decodeField(final byte[] bytes, final int recordStart,
+			final int fieldPosition) {
+
+		int start = recordStart + fieldOffsets[fieldPosition];
+		int end = start + fieldLengths[fieldPosition];
+
+		while ((end > start) && ((bytes[end - 1] & 0xFF) <= MAX_PADDING)) {
+			end--;
+		}
+
+		while ((start < end) && ((bytes[start] & 0xFF) <= MAX_PADDING)) {
+			start++;
+		}
+
+		if (start == end) {
+			return "";
+		}
+
+		return new String(bytes, start, end - start, CHARSET);
+	}
+
+}
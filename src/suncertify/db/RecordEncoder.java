@@ -0,0 +1,162 @@
+package suncertify.db;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Encodes record values into the fixed-width layout of the database file:
+ * the deleted flag followed by the field values, each one truncated or
+ * padded with spaces to its field length.
+ * <br />The values are encoded as ISO-8859-1, the charset
+ * <code>RecordDecoder</code> reads them with, so every value read from the
+ * database file is written back unchanged; only characters out of
+ * ISO-8859-1 are replaced with '?'. The record is
+ * written into a buffer reused by each thread, so encoding a record
+ * allocates nothing. The buffer is overwritten by the next record encoded
+ * by the same thread.
+ *
+ * @author Leo Gutierrez
+ */
+public class RecordEncoder {
+
+	/**
+	 * Byte used to pad the field values.
+	 */
+	private static final byte PADDING = ' ';
+
+	/**
+	 * Byte written instead of the characters out of ISO-8859-1.
+	 */
+	private static final byte REPLACEMENT = '?';
+
+	/**
+	 * Last ISO-8859-1 character.
+	 */
+	private static final char MAX_LATIN1 = 0xFF;
+
+	/**
+	 * Record length, including the deleted flag.
+	 */
+	private final int recordLength;
+
+	/**
+	 * Offset of each field value inside a record, by field position.
+	 */
+	private final int[] fieldOffsets;
+
+	/**
+	 * Length of each field value, by field position.
+	 */
+	private final int[] fieldLengths;
+
+	/**
+	 * Buffer of each thread where the records are encoded.
+	 */
+	private final ThreadLocal<ByteBuffer> buffers =
+			new ThreadLocal<ByteBuffer>() {
+
+		protected ByteBuffer initialValue() {
+			return ByteBuffer.allocate(recordLength);
+		}
+
+	};
+
+	/**
+	 * Constructs a <code>RecordEncoder</code> object for the given data file
+	 * format.
+	 *
+	 * @param dataFileFormat Format of the database file.
+	 */
+	public RecordEncoder(final DataFileFormat dataFileFormat) {
+
+		recordLength = dataFileFormat.getRecordLength();
+		fieldOffsets = dataFileFormat.getFieldValueOffsets();
+		fieldLengths = dataFileFormat.getFieldValueLengths();
+	}
+
+	/**
+	 * Encodes the given record values as a valid (not deleted) record.
+	 * <br />A null value is encoded as an empty field.
+	 *
+	 * @param data Record values, by field position.
+	 * @return Buffer of the current thread with the encoded record, from
+	 *         position 0 to the record length; it is valid until the thread
+	 *         encodes another record.
+	 */
+	public final ByteBuffer encode(final String[] data) {
+
+		final ByteBuffer buffer = buffers.get();
+		final byte[] record = buffer.array();
+
+		record[0] = (byte) DatabaseConstants.NOT_DELETED_RECORD;
+
+		for (int field = 0; field < fieldOffsets.length; field++) {
+			encodeValue(data[field], record, fieldOffsets[field],
+					fieldLengths[field]);
+		}
+
+		buffer.clear();
+
+		return buffer;
+	}
+
+	/**
+	 * Encodes a single field value, so the field can be written alone.
+	 * <br />A null value is encoded as an empty field.
+	 *
+	 * @param fieldPosition Field position.
+	 * @param value Field value.
+	 * @return Buffer of the current thread with the encoded value from its
+	 *         position to its limit, the offset of the field inside the
+	 *         record; it is valid until the thread encodes another record or
+	 *         field.
+	 */
+	public final ByteBuffer encodeField(final int fieldPosition,
+			final String value) {
+
+		final ByteBuffer buffer = buffers.get();
+
+		encodeValue(value, buffer.array(), fieldOffsets[fieldPosition],
+				fieldLengths[fieldPosition]);
+
+		buffer.limit(fieldOffsets[fieldPosition]
+				+ fieldLengths[fieldPosition]);
+		buffer.position(fieldOffsets[fieldPosition]);
+
+		return buffer;
+	}
+
+	/**
+	 * Encodes a field value into the given record bytes.
+	 *
+	 * @param value Field value, or null.
+	 * @param record Record bytes.
+	 * @param fieldOffset Offset of the field value in the record.
+	 * @param fieldLength Length of the field value.
+	 */
+	private void encodeValue(final String value, final byte[] record,
+			final int fieldOffset, final int fieldLength) {
+
+		int length = 0;
+
+		if (value != null) {
+
+			length = Math.min(value.length(), fieldLength);
+
+			for (int index = 0; index < length; index++) {
+
+				final char character = value.charAt(index);
+
+				if (character <= MAX_LATIN1) {
+					record[fieldOffset + index] = (byte) character;
+				} else {
+					record[fieldOffset + index] = REPLACEMENT;
+				}
+			}
+		}
+
+		Arrays.fill(record, fieldOffset + length, fieldOffset + fieldLength,
+				PADDING);
+	}
+
+}
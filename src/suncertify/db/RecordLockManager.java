@@ -0,0 +1,971 @@
+package suncertify.db;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Manages the logical locks held on the database records.
+ * <br />The record rows are distributed into stripes, each stripe guarded by
+ * its own mutex, so locking or unlocking records in different stripes never
+ * contend with each other. Every locked record has its own wait queue, so
+ * releasing a record only wakes up a thread waiting for that same record.
+ * <br />A lock can have a lease: if it is held longer than the lease
+ * timeout, it is released by the lease reaper or by the next thread that
+ * requests the record, so a client that dies holding a lock does not block
+ * the record forever. The cookie of an expired lease no longer owns the
+ * record.
+ * <br />While profiling is on, the lock statistics of the records are kept
+ * in their stripe: acquisitions, wait times, hold times and current owner.
+ * Each stripe keeps the statistics of the records locked most recently, up
+ * to <code>MAX_PROFILED_RECORDS_PER_STRIPE</code>, so profiling a large
+ * database does not keep one entry for every record ever locked.
+ *
+ * @author Leo Gutierrez
+ */
+public class RecordLockManager {
+
+	/**
+	 * Class name.
+	 */
+	private static final String CLASS_NAME = RecordLockManager.class.getName();
+
+	/**
+	 * Default number of stripes.
+	 */
+	private static final int DEFAULT_NUMBER_OF_STRIPES = 64;
+
+	/**
+	 * Timeout of the lock requests that wait until the record is released.
+	 */
+	private static final long NO_TIMEOUT = -1;
+
+	/**
+	 * Maximum number of records whose lock statistics are kept per stripe.
+	 */
+	private static final int MAX_PROFILED_RECORDS_PER_STRIPE = 256;
+
+	/**
+	 * Orders the lock statistics from the coldest to the hottest record.
+	 */
+	private static final Comparator<RecordLockStatistics> HOTTEST_FIRST =
+			new Comparator<RecordLockStatistics>() {
+
+		public int compare(final RecordLockStatistics statistics1,
+				final RecordLockStatistics statistics2) {
+
+			if (statistics1.getTotalWaitTime()
+					!= statistics2.getTotalWaitTime()) {
+				return statistics1.getTotalWaitTime()
+						< statistics2.getTotalWaitTime() ? -1 : 1;
+			}
+
+			if (statistics1.getAcquisitions()
+					!= statistics2.getAcquisitions()) {
+				return statistics1.getAcquisitions()
+						< statistics2.getAcquisitions() ? -1 : 1;
+			}
+
+			return 0;
+		}
+
+	};
+
+	/**
+	 * Stripes where the record locks are distributed.
+	 */
+	private final LockStripe[] stripes;
+
+	/**
+	 * Indicates if the lock statistics of the records are kept.
+	 */
+	private volatile boolean profiling;
+
+	/**
+	 * Lease timeout of the locks in nanoseconds, 0 if they never expire.
+	 */
+	private volatile long leaseTimeout;
+
+	/**
+	 * Number of leases expired.
+	 */
+	private final AtomicLong expiredLeases = new AtomicLong();
+
+	/**
+	 * Executor of the lease reaper, null if it is not started.
+	 */
+	private ScheduledExecutorService leaseReaper;
+
+	/**
+	 * Constructs a <code>RecordLockManager</code> object with the default
+	 * number of stripes.
+	 */
+	public RecordLockManager() {
+		this(DEFAULT_NUMBER_OF_STRIPES);
+	}
+
+	/**
+	 * Constructs a <code>RecordLockManager</code> object.
+	 *
+	 * @param numberOfStripes Number of stripes where to distribute the
+	 *                        records, rounded up to the next power of two.
+	 * @throws IllegalArgumentException If the number of stripes is not
+	 *                                  positive.
+	 */
+	public RecordLockManager(final int numberOfStripes)
+			throws IllegalArgumentException {
+
+		if (numberOfStripes <= 0) {
+			throw new IllegalArgumentException("Number of stripes must be "
+					+ "positive: " + numberOfStripes);
+		}
+
+		int stripesSize = 1;
+		while (stripesSize < numberOfStripes) {
+			stripesSize <<= 1;
+		}
+
+		stripes = new LockStripe[stripesSize];
+		for (int index = 0; index < stripesSize; index++) {
+			stripes[index] = new LockStripe();
+		}
+	}
+
+	/**
+	 * Locks the given record with the given cookie. If the record is already
+	 * locked, the current thread waits until the record is released or its
+	 * lease expires.
+	 *
+	 * @param recNo Record number to lock.
+	 * @param cookie Cookie value that will own the lock on the record.
+	 * @throws InterruptedException If the current thread is interrupted while
+	 *                              waiting for the record to be released.
+	 */
+	public final void lock(final int recNo, final long cookie)
+			throws InterruptedException {
+
+		acquire(recNo, cookie, NO_TIMEOUT);
+	}
+
+	/**
+	 * Locks the given record with the given cookie, waiting at most the
+	 * given time for the record to be released or its lease to expire.
+	 *
+	 * @param recNo Record number to lock.
+	 * @param cookie Cookie value that will own the lock on the record.
+	 * @param timeout Maximum time to wait, in milliseconds; 0 or less does
+	 *                not wait.
+	 * @return True if the record was locked; False if the time elapsed.
+	 * @throws InterruptedException If the current thread is interrupted while
+	 *                              waiting for the record to be released.
+	 */
+	public final boolean tryLock(final int recNo, final long cookie,
+			final long timeout) throws InterruptedException {
+
+		return acquire(recNo, cookie,
+				TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeout)));
+	}
+
+	/**
+	 * Releases the lock on the given record, waking up one of the threads
+	 * waiting for it.
+	 *
+	 * @param recNo Record number to unlock.
+	 * @param cookie Cookie value that owns the lock on the record.
+	 * @return True if the record was locked with the given cookie and it was
+	 *         released; False otherwise, also if the lease of the cookie
+	 *         expired.
+	 */
+	public final boolean unlock(final int recNo, final long cookie) {
+
+		final LockStripe stripe = stripeFor(recNo);
+
+		stripe.mutex.lock();
+		try {
+
+			final RecordLock recordLock = stripe.recordLocks.get(recNo);
+
+			if ((recordLock == null) || (!recordLock.held)
+					|| (recordLock.cookie != cookie)) {
+				return false;
+			}
+
+			if (isExpired(recordLock)) {
+
+				expire(stripe, recNo, recordLock);
+
+				return false;
+			}
+
+			release(stripe, recNo, recordLock);
+
+			return true;
+
+		} finally {
+			stripe.mutex.unlock();
+		}
+	}
+
+	/**
+	 * Sets the lease timeout of the locks acquired from now on. A record
+	 * held longer than its lease is released by the lease reaper, or by the
+	 * next thread that requests it.
+	 *
+	 * @param timeout Lease timeout in milliseconds; 0 or less for locks that
+	 *                never expire.
+	 */
+	public final void setLeaseTimeout(final long timeout) {
+		leaseTimeout = TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeout));
+	}
+
+	/**
+	 * Returns the lease timeout of the locks.
+	 *
+	 * @return Lease timeout in milliseconds, 0 if the locks never expire.
+	 */
+	public final long getLeaseTimeout() {
+		return TimeUnit.NANOSECONDS.toMillis(leaseTimeout);
+	}
+
+	/**
+	 * Returns the number of leases expired since the lock manager was
+	 * created.
+	 *
+	 * @return Number of leases expired.
+	 */
+	public final long expiredLeaseCount() {
+		return expiredLeases.get();
+	}
+
+	/**
+	 * Releases all the locks whose lease has expired, waking up the threads
+	 * waiting for them.
+	 *
+	 * @return Number of leases expired.
+	 */
+	public final int expireLeases() {
+
+		int expired = 0;
+
+		for (LockStripe stripe : stripes) {
+
+			stripe.mutex.lock();
+			try {
+
+				final List<Integer> expiredRows = new ArrayList<Integer>();
+
+				for (Map.Entry<Integer, RecordLock> entry
+						: stripe.recordLocks.entrySet()) {
+
+					final RecordLock recordLock = entry.getValue();
+
+					if ((recordLock.held) && (isExpired(recordLock))) {
+						expiredRows.add(entry.getKey());
+					}
+				}
+
+				// Expiring can remove the lock entry, not while iterating
+				for (Integer recNo : expiredRows) {
+					expire(stripe, recNo, stripe.recordLocks.get(recNo));
+				}
+
+				expired += expiredRows.size();
+
+			} finally {
+				stripe.mutex.unlock();
+			}
+		}
+
+		return expired;
+	}
+
+	/**
+	 * Starts a daemon thread that periodically releases the locks whose
+	 * lease has expired. If the reaper is already started, it is restarted
+	 * with the given period.
+	 *
+	 * @param period Time between two runs, in milliseconds.
+	 */
+	public final synchronized void startLeaseReaper(final long period) {
+
+		stopLeaseReaper();
+
+		leaseReaper = Executors.newSingleThreadScheduledExecutor(
+				new ThreadFactory() {
+
+					public Thread newThread(final Runnable runnable) {
+
+						final Thread thread =
+								new Thread(runnable, "LockLeaseReaper");
+						thread.setDaemon(true);
+
+						return thread;
+					}
+
+				});
+
+		leaseReaper.scheduleWithFixedDelay(new Runnable() {
+
+			public void run() {
+
+				final int expired = expireLeases();
+
+				if (expired > 0) {
+					DatabaseLogger.warning(CLASS_NAME, "expireLeases",
+							expired + " abandoned record locks were released "
+							+ "after their lease expired");
+				}
+			}
+
+		}, period, period, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops the lease reaper, if started.
+	 */
+	public final synchronized void stopLeaseReaper() {
+
+		if (leaseReaper != null) {
+			leaseReaper.shutdownNow();
+			leaseReaper = null;
+		}
+	}
+
+	/**
+	 * Locks the given record with the given cookie, waiting at most the
+	 * given time. Expired leases found while waiting are released.
+	 *
+	 * @param recNo Record number to lock.
+	 * @param cookie Cookie value that will own the lock on the record.
+	 * @param timeout Maximum time to wait in nanoseconds, or
+	 *                <code>NO_TIMEOUT</code> to wait until the record is
+	 *                released.
+	 * @return True if the record was locked; False if the time elapsed.
+	 * @throws InterruptedException If the current thread is interrupted while
+	 *                              waiting for the record to be released.
+	 */
+	private boolean acquire(final int recNo, final long cookie,
+			final long timeout) throws InterruptedException {
+
+		final boolean profiled = profiling;
+		final long requestTime = System.nanoTime();
+
+		final LockStripe stripe = stripeFor(recNo);
+
+		stripe.mutex.lock();
+		try {
+
+			RecordLock recordLock = stripe.recordLocks.get(recNo);
+			if (recordLock == null) {
+				recordLock = new RecordLock(stripe.mutex.newCondition());
+				stripe.recordLocks.put(recNo, recordLock);
+			}
+
+			final boolean contended = recordLock.held;
+
+			recordLock.waiters++;
+			try {
+
+				while (recordLock.held) {
+
+					final long now = System.nanoTime();
+
+					if (isExpired(recordLock, now)) {
+						expire(stripe, recNo, recordLock);
+						break;
+					}
+
+					long waitTime = Long.MAX_VALUE;
+
+					if (timeout != NO_TIMEOUT) {
+
+						waitTime = timeout - (now - requestTime);
+
+						if (waitTime <= 0) {
+
+							removeIfUnused(stripe, recNo, recordLock);
+
+							return false;
+						}
+					}
+
+					// Wakes up when the lease of the holder expires
+					if (recordLock.leased) {
+						waitTime = Math.min(waitTime,
+								recordLock.expirationTime - now);
+					}
+
+					if (waitTime == Long.MAX_VALUE) {
+						recordLock.released.await();
+					} else {
+						recordLock.released.awaitNanos(waitTime);
+					}
+				}
+
+			} catch (InterruptedException e) {
+
+				removeIfUnused(stripe, recNo, recordLock);
+
+				throw e;
+
+			} finally {
+				recordLock.waiters--;
+			}
+
+			final long acquiredTime =
+					contended ? System.nanoTime() : requestTime;
+			final long lease = leaseTimeout;
+
+			recordLock.held = true;
+			recordLock.cookie = cookie;
+			recordLock.profiled = profiled;
+			recordLock.acquiredTime = acquiredTime;
+			recordLock.leased = lease > 0;
+			recordLock.expirationTime = acquiredTime + lease;
+
+			if (profiled) {
+				contentionOf(stripe, recNo).acquired(
+						acquiredTime - requestTime, contended);
+			}
+
+			return true;
+
+		} finally {
+			stripe.mutex.unlock();
+		}
+	}
+
+	/**
+	 * Releases a held record lock, waking up one of the threads waiting for
+	 * it. Must be called while holding the stripe mutex.
+	 *
+	 * @param stripe Stripe where the record belongs.
+	 * @param recNo Record number.
+	 * @param recordLock Record lock to release.
+	 */
+	private void release(final LockStripe stripe, final int recNo,
+			final RecordLock recordLock) {
+
+		recordLock.held = false;
+
+		if (recordLock.profiled) {
+
+			final RecordContention contention = stripe.contentions.get(recNo);
+
+			// Null if the statistics were reset while the record was held
+			if (contention != null) {
+				contention.released(
+						System.nanoTime() - recordLock.acquiredTime);
+			}
+		}
+
+		if (recordLock.waiters == 0) {
+			stripe.recordLocks.remove(recNo);
+		} else {
+			recordLock.released.signal();
+		}
+	}
+
+	/**
+	 * Releases a record lock whose lease expired. Must be called while
+	 * holding the stripe mutex.
+	 *
+	 * @param stripe Stripe where the record belongs.
+	 * @param recNo Record number.
+	 * @param recordLock Record lock to release.
+	 */
+	private void expire(final LockStripe stripe, final int recNo,
+			final RecordLock recordLock) {
+
+		release(stripe, recNo, recordLock);
+
+		expiredLeases.incrementAndGet();
+	}
+
+	/**
+	 * Verifies if the lease of a record lock has expired.
+	 *
+	 * @param recordLock Record lock.
+	 * @return True if the lease has expired; False otherwise.
+	 */
+	private static boolean isExpired(final RecordLock recordLock) {
+		return (recordLock.leased)
+				&& (isExpired(recordLock, System.nanoTime()));
+	}
+
+	/**
+	 * Verifies if the lease of a record lock has expired at the given time.
+	 *
+	 * @param recordLock Record lock.
+	 * @param now Value of <code>System.nanoTime()</code>.
+	 * @return True if the lease has expired; False otherwise.
+	 */
+	private static boolean isExpired(final RecordLock recordLock,
+			final long now) {
+
+		return (recordLock.leased) && (now - recordLock.expirationTime >= 0);
+	}
+
+	/**
+	 * Verifies if the given record is locked with the given cookie.
+	 *
+	 * @param recNo Record number to verify.
+	 * @param cookie Cookie value to verify.
+	 * @return True if the record is locked with the given cookie;
+	 *         False otherwise.
+	 */
+	public final boolean isLockedBy(final int recNo, final long cookie) {
+
+		final LockStripe stripe = stripeFor(recNo);
+
+		stripe.mutex.lock();
+		try {
+
+			final RecordLock recordLock = stripe.recordLocks.get(recNo);
+
+			return (recordLock != null) && (recordLock.held)
+					&& (recordLock.cookie == cookie)
+					&& (!isExpired(recordLock));
+
+		} finally {
+			stripe.mutex.unlock();
+		}
+	}
+
+	/**
+	 * Verifies if the given record is locked by any cookie.
+	 *
+	 * @param recNo Record number to verify.
+	 * @return True if the record is locked; False otherwise.
+	 */
+	public final boolean isLocked(final int recNo) {
+
+		final LockStripe stripe = stripeFor(recNo);
+
+		stripe.mutex.lock();
+		try {
+
+			final RecordLock recordLock = stripe.recordLocks.get(recNo);
+
+			return (recordLock != null) && (recordLock.held)
+					&& (!isExpired(recordLock));
+
+		} finally {
+			stripe.mutex.unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of records currently locked. The stripes are
+	 * counted one after the other, so the result is not an atomic snapshot.
+	 *
+	 * @return Number of records locked.
+	 */
+	public final int lockedRecordCount() {
+
+		int lockedRecords = 0;
+
+		for (LockStripe stripe : stripes) {
+
+			stripe.mutex.lock();
+			try {
+
+				for (RecordLock recordLock : stripe.recordLocks.values()) {
+					if ((recordLock.held) && (!isExpired(recordLock))) {
+						lockedRecords++;
+					}
+				}
+
+			} finally {
+				stripe.mutex.unlock();
+			}
+		}
+
+		return lockedRecords;
+	}
+
+	/**
+	 * Switches the lock statistics of the records on or off. The records
+	 * locked while profiling is off are not counted.
+	 *
+	 * @param profilingEnabled True to keep the lock statistics; False
+	 *                         otherwise.
+	 */
+	public final void setProfiling(final boolean profilingEnabled) {
+		profiling = profilingEnabled;
+	}
+
+	/**
+	 * Verifies if the lock statistics of the records are kept.
+	 *
+	 * @return True if the lock statistics are kept; False otherwise.
+	 */
+	public final boolean isProfiling() {
+		return profiling;
+	}
+
+	/**
+	 * Returns the lock statistics of the records with the longest total wait
+	 * time, from the longest; records with the same wait time are ordered by
+	 * number of acquisitions.
+	 *
+	 * @param count Maximum number of records returned.
+	 * @return Lock statistics of the hottest records.
+	 */
+	public final List<RecordLockStatistics> hottestRecords(final int count) {
+
+		if (count <= 0) {
+			return new ArrayList<RecordLockStatistics>();
+		}
+
+		final List<RecordLockStatistics> hottestRecords =
+				new ArrayList<RecordLockStatistics>();
+
+		for (LockStripe stripe : stripes) {
+
+			// Only copies the statistics while holding the mutex, the
+			// records are ranked once the stripe is released
+			stripe.mutex.lock();
+			try {
+
+				for (Map.Entry<Integer, RecordContention> entry
+						: stripe.contentions.entrySet()) {
+
+					hottestRecords.add(statisticsOf(stripe, entry.getKey(),
+							entry.getValue()));
+				}
+
+			} finally {
+				stripe.mutex.unlock();
+			}
+		}
+
+		Collections.sort(hottestRecords,
+				Collections.reverseOrder(HOTTEST_FIRST));
+
+		if (hottestRecords.size() > count) {
+			return new ArrayList<RecordLockStatistics>(
+					hottestRecords.subList(0, count));
+		}
+
+		return hottestRecords;
+	}
+
+	/**
+	 * Returns the lock statistics of the given record.
+	 *
+	 * @param recNo Record number.
+	 * @return Lock statistics of the record, null if it was never locked
+	 *         while profiling.
+	 */
+	public final RecordLockStatistics statisticsOf(final int recNo) {
+
+		final LockStripe stripe = stripeFor(recNo);
+
+		stripe.mutex.lock();
+		try {
+
+			final RecordContention contention = stripe.contentions.get(recNo);
+
+			if (contention == null) {
+				return null;
+			}
+
+			return statisticsOf(stripe, recNo, contention);
+
+		} finally {
+			stripe.mutex.unlock();
+		}
+	}
+
+	/**
+	 * Discards the lock statistics of all the records.
+	 */
+	public final void resetStatistics() {
+
+		for (LockStripe stripe : stripes) {
+
+			stripe.mutex.lock();
+			try {
+				stripe.contentions.clear();
+			} finally {
+				stripe.mutex.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Returns the lock statistics of a record, creating them if they do not
+	 * exist. Must be called while holding the stripe mutex.
+	 *
+	 * @param stripe Stripe where the record belongs.
+	 * @param recNo Record number.
+	 * @return Lock statistics of the record.
+	 */
+	private RecordContention contentionOf(final LockStripe stripe,
+			final int recNo) {
+
+		RecordContention contention = stripe.contentions.get(recNo);
+		if (contention == null) {
+			contention = new RecordContention();
+			stripe.contentions.put(recNo, contention);
+		}
+
+		return contention;
+	}
+
+	/**
+	 * Copies the lock statistics of a record. Must be called while holding
+	 * the stripe mutex.
+	 *
+	 * @param stripe Stripe where the record belongs.
+	 * @param recNo Record number.
+	 * @param contention Lock statistics of the record.
+	 * @return Copy of the lock statistics.
+	 */
+	private RecordLockStatistics statisticsOf(final LockStripe stripe,
+			final int recNo, final RecordContention contention) {
+
+		final RecordLock recordLock = stripe.recordLocks.get(recNo);
+
+		final boolean locked = (recordLock != null) && (recordLock.held);
+
+		return new RecordLockStatistics(recNo, contention.acquisitions,
+				contention.contendedAcquisitions, contention.totalWaitTime,
+				contention.maxWaitTime, contention.totalHoldTime,
+				contention.maxHoldTime, locked,
+				locked ? recordLock.cookie : 0,
+				(recordLock == null) ? 0 : recordLock.waiters);
+	}
+
+	/**
+	 * Removes the lock entry of the given record if it is not held and
+	 * there are not threads waiting for it. Must be called while holding the
+	 * stripe mutex.
+	 *
+	 * @param stripe Stripe where the record lock belongs.
+	 * @param recNo Record number.
+	 * @param recordLock Record lock to remove.
+	 */
+	private void removeIfUnused(final LockStripe stripe, final int recNo,
+			final RecordLock recordLock) {
+
+		// The current thread is still counted as a waiter at this point
+		if ((!recordLock.held) && (recordLock.waiters <= 1)) {
+			stripe.recordLocks.remove(recNo);
+		}
+	}
+
+	/**
+	 * Retrieves the stripe where the given record belongs.
+	 *
+	 * @param recNo Record number.
+	 * @return Stripe where the given record belongs.
+	 */
+	private LockStripe stripeFor(final int recNo) {
+
+		// Record numbers are file offsets, spread the bits before masking
+		int hash = recNo * 0x9E3779B9;
+		hash ^= (hash >>> 16);
+
+		return stripes[hash & (stripes.length - 1)];
+	}
+
+	/**
+	 * Group of record locks guarded by the same mutex.
+	 */
+	private static final class LockStripe {
+
+		/**
+		 * Mutex that guards the record locks in this stripe.
+		 */
+		private final ReentrantLock mutex = new ReentrantLock();
+
+		/**
+		 * Record locks in this stripe, by record number.
+		 */
+		private final Map<Integer, RecordLock> recordLocks =
+				new HashMap<Integer, RecordLock>();
+
+		/**
+		 * Lock statistics of the records in this stripe, by record number.
+		 */
+		private final Map<Integer, RecordContention> contentions =
+				new RecentContentions();
+
+	}
+
+	/**
+	 * Lock statistics of the records of a stripe, in access order, that
+	 * discards the statistics of the record locked least recently once it
+	 * holds <code>MAX_PROFILED_RECORDS_PER_STRIPE</code> records.
+	 */
+	private static final class RecentContentions
+			extends LinkedHashMap<Integer, RecordContention> {
+
+		/**
+		 * Class serial version.
+		 */
+		private static final long serialVersionUID = 402264L;
+
+		/**
+		 * Constructs a <code>RecentContentions</code> object.
+		 */
+		private RecentContentions() {
+			super(16, 0.75f, true);
+		}
+
+		/**
+		 * Verifies if the statistics of the record locked least recently
+		 * must be discarded, after adding the statistics of a record.
+		 *
+		 * @param eldest Statistics of the record locked least recently.
+		 * @return True if the stripe keeps too many records; False
+		 *         otherwise.
+		 */
+		protected boolean removeEldestEntry(
+				final Map.Entry<Integer, RecordContention> eldest) {
+
+			return size() > MAX_PROFILED_RECORDS_PER_STRIPE;
+		}
+
+	}
+
+	/**
+	 * Lock state of a single record.
+	 */
+	private static final class RecordLock {
+
+		/**
+		 * Condition signaled when the record is released.
+		 */
+		private final Condition released;
+
+		/**
+		 * Indicates if the record is currently locked.
+		 */
+		private boolean held;
+
+		/**
+		 * Cookie that owns the lock on the record.
+		 */
+		private long cookie;
+
+		/**
+		 * Number of threads waiting for the record to be released.
+		 */
+		private int waiters;
+
+		/**
+		 * Indicates if the current lock was acquired while profiling.
+		 */
+		private boolean profiled;
+
+		/**
+		 * Value of <code>System.nanoTime()</code> when the current lock was
+		 * acquired.
+		 */
+		private long acquiredTime;
+
+		/**
+		 * Indicates if the current lock has a lease.
+		 */
+		private boolean leased;
+
+		/**
+		 * Value of <code>System.nanoTime()</code> when the lease of the
+		 * current lock expires, if leased.
+		 */
+		private long expirationTime;
+
+		/**
+		 * Constructs a <code>RecordLock</code> object.
+		 *
+		 * @param releasedCondition Condition to signal when the record is
+		 *                          released.
+		 */
+		private RecordLock(final Condition releasedCondition) {
+			released = releasedCondition;
+		}
+
+	}
+
+	/**
+	 * Lock statistics of a single record, guarded by its stripe mutex.
+	 */
+	private static final class RecordContention {
+
+		/**
+		 * Number of times the record was locked.
+		 */
+		private long acquisitions;
+
+		/**
+		 * Number of times the record was locked after waiting.
+		 */
+		private long contendedAcquisitions;
+
+		/**
+		 * Total time waited to lock the record, in nanoseconds.
+		 */
+		private long totalWaitTime;
+
+		/**
+		 * Longest time waited to lock the record, in nanoseconds.
+		 */
+		private long maxWaitTime;
+
+		/**
+		 * Total time the record was held, in nanoseconds.
+		 */
+		private long totalHoldTime;
+
+		/**
+		 * Longest time the record was held, in nanoseconds.
+		 */
+		private long maxHoldTime;
+
+		/**
+		 * Counts a lock acquisition.
+		 *
+		 * @param waitTime Time waited to lock the record, in nanoseconds.
+		 * @param contended True if the record was locked by another cookie
+		 *                  when the lock was requested.
+		 */
+		private void acquired(final long waitTime, final boolean contended) {
+
+			acquisitions++;
+
+			if (contended) {
+				contendedAcquisitions++;
+			}
+
+			totalWaitTime += waitTime;
+			maxWaitTime = Math.max(maxWaitTime, waitTime);
+		}
+
+		/**
+		 * Counts a lock release.
+		 *
+		 * @param holdTime Time the record was held, in nanoseconds.
+		 */
+		private void released(final long holdTime) {
+
+			totalHoldTime += holdTime;
+			maxHoldTime = Math.max(maxHoldTime, holdTime);
+		}
+
+	}
+
+}
@@ -0,0 +1,208 @@
+package suncertify.db;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Lock statistics of a record at a given moment: how many times it was
+ * locked, how long the clients waited for it and held it, and who holds it
+ * now. The times are in nanoseconds.
+ *
+ * @author Leo Gutierrez
+ */
+public class RecordLockStatistics {
+
+	/**
+	 * Record number.
+	 */
+	private final int recordRow;
+
+	/**
+	 * Number of times the record was locked.
+	 */
+	private final long acquisitions;
+
+	/**
+	 * Number of times the record was locked after waiting.
+	 */
+	private final long contendedAcquisitions;
+
+	/**
+	 * Total time waited to lock the record.
+	 */
+	private final long totalWaitTime;
+
+	/**
+	 * Longest time waited to lock the record.
+	 */
+	private final long maxWaitTime;
+
+	/**
+	 * Total time the record was held.
+	 */
+	private final long totalHoldTime;
+
+	/**
+	 * Longest time the record was held.
+	 */
+	private final long maxHoldTime;
+
+	/**
+	 * Indicates if the record is locked.
+	 */
+	private final boolean locked;
+
+	/**
+	 * Cookie that owns the lock on the record, 0 if it is not locked.
+	 */
+	private final long ownerCookie;
+
+	/**
+	 * Number of threads waiting to lock the record.
+	 */
+	private final int waiters;
+
+	/**
+	 * Constructs a <code>RecordLockStatistics</code> object.
+	 *
+	 * @param row Record number.
+	 * @param acquisitionCount Number of times the record was locked.
+	 * @param contendedCount Number of times the record was locked after
+	 *                       waiting.
+	 * @param totalWait Total time waited to lock the record.
+	 * @param maxWait Longest time waited to lock the record.
+	 * @param totalHold Total time the record was held.
+	 * @param maxHold Longest time the record was held.
+	 * @param isLocked True if the record is locked.
+	 * @param owner Cookie that owns the lock, 0 if it is not locked.
+	 * @param waiting Number of threads waiting to lock the record.
+	 */
+	@ConstructorProperties({"recordRow", "acquisitions",
+		"contendedAcquisitions", "totalWaitTime", "maxWaitTime",
+		"totalHoldTime", "maxHoldTime", "locked", "ownerCookie", "waiters"})
+	public RecordLockStatistics(final int row, final long acquisitionCount,
+			final long contendedCount, final long totalWait,
+			final long maxWait, final long totalHold, final long maxHold,
+			final boolean isLocked, final long owner, final int waiting) {
+
+		recordRow = row;
+		acquisitions = acquisitionCount;
+		contendedAcquisitions = contendedCount;
+		totalWaitTime = totalWait;
+		maxWaitTime = maxWait;
+		totalHoldTime = totalHold;
+		maxHoldTime = maxHold;
+		locked = isLocked;
+		ownerCookie = owner;
+		waiters = waiting;
+	}
+
+	/**
+	 * Returns the record number.
+	 *
+	 * @return Record number.
+	 */
+	public final int getRecordRow() {
+		return recordRow;
+	}
+
+	/**
+	 * Returns the number of times the record was locked.
+	 *
+	 * @return Number of acquisitions.
+	 */
+	public final long getAcquisitions() {
+		return acquisitions;
+	}
+
+	/**
+	 * Returns the number of times the record was locked after waiting for
+	 * another cookie to release it.
+	 *
+	 * @return Number of contended acquisitions.
+	 */
+	public final long getContendedAcquisitions() {
+		return contendedAcquisitions;
+	}
+
+	/**
+	 * Returns the total time waited to lock the record.
+	 *
+	 * @return Total wait time, in nanoseconds.
+	 */
+	public final long getTotalWaitTime() {
+		return totalWaitTime;
+	}
+
+	/**
+	 * Returns the longest time waited to lock the record.
+	 *
+	 * @return Longest wait time, in nanoseconds.
+	 */
+	public final long getMaxWaitTime() {
+		return maxWaitTime;
+	}
+
+	/**
+	 * Returns the total time the record was held, not counting the current
+	 * lock.
+	 *
+	 * @return Total hold time, in nanoseconds.
+	 */
+	public final long getTotalHoldTime() {
+		return totalHoldTime;
+	}
+
+	/**
+	 * Returns the longest time the record was held, not counting the
+	 * current lock.
+	 *
+	 * @return Longest hold time, in nanoseconds.
+	 */
+	public final long getMaxHoldTime() {
+		return maxHoldTime;
+	}
+
+	/**
+	 * Verifies if the record is locked.
+	 *
+	 * @return True if the record is locked; False otherwise.
+	 */
+	public final boolean isLocked() {
+		return locked;
+	}
+
+	/**
+	 * Returns the cookie that owns the lock on the record.
+	 *
+	 * @return Owner cookie, 0 if the record is not locked.
+	 */
+	public final long getOwnerCookie() {
+		return ownerCookie;
+	}
+
+	/**
+	 * Returns the number of threads waiting to lock the record.
+	 *
+	 * @return Number of waiting threads.
+	 */
+	public final int getWaiters() {
+		return waiters;
+	}
+
+	/**
+	 * Returns a one line summary of the statistics, times in microseconds.
+	 *
+	 * @return Summary of the statistics.
+	 */
+	public final String toString() {
+
+		return "record " + recordRow + ": acquisitions=" + acquisitions
+				+ " contended=" + contendedAcquisitions + " wait total="
+				+ (totalWaitTime / 1000) + "us max=" + (maxWaitTime / 1000)
+				+ "us hold total=" + (totalHoldTime / 1000) + "us max="
+				+ (maxHoldTime / 1000) + "us"
+				+ (locked ? " owner=" + ownerCookie + " waiters=" + waiters
+						: "");
+	}
+
+}
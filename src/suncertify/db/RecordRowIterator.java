@@ -0,0 +1,70 @@
+package suncertify.db;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over the rows of the data section of the database file without
+ * allocating, computing each row from the data section offset and the
+ * record length.
+ * 
+ * @author Leo Gutierrez
+ */
+public class RecordRowIterator {
+	
+	/**
+	 * Position in the database file where the data section starts.
+	 */
+	private final long dataSectionOffset;
+	
+	/**
+	 * Record length.
+	 */
+	private final int recordLength;
+	
+	/**
+	 * Number of records in the data section.
+	 */
+	private final int recordCount;
+	
+	/**
+	 * Index of the next record to iterate.
+	 */
+	private int nextRecord;
+	
+	/**
+	 * Constructs a <code>RecordRowIterator</code> object.
+	 * 
+	 * @param dataFileFormat Format of the database file to iterate.
+	 */
+	public RecordRowIterator(final DataFileFormat dataFileFormat) {
+		
+		dataSectionOffset = dataFileFormat.getDataSectionOffset();
+		recordLength = dataFileFormat.getRecordLength();
+		recordCount = dataFileFormat.getRecordCount();
+	}
+	
+	/**
+	 * Verifies if there are more rows to iterate.
+	 * 
+	 * @return True if there are more rows; False otherwise.
+	 */
+	public final boolean hasNext() {
+		return nextRecord < recordCount;
+	}
+	
+	/**
+	 * Retrieves the next row.
+	 * 
+	 * @return Next row where a record is stored in database.
+	 * @throws NoSuchElementException If there are no more rows.
+	 */
+	public final int nextRow() throws NoSuchElementException {
+		
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		
+		return (int) (dataSectionOffset + (long) recordLength * nextRecord++);
+	}
+	
+}
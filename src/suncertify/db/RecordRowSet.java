@@ -0,0 +1,198 @@
+package suncertify.db;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Sorted set of record rows kept in a primitive int array, so a row takes
+ * four bytes instead of a tree node and a boxed Integer.
+ * <br />The rows are looked up with a binary search. Adding the rows in
+ * ascending order, as the records cache is loaded, appends them to the end
+ * of the array; adding or removing any other row shifts the rows after it.
+ * <br />This class is not thread safe.
+ *
+ * @author Leo Gutierrez
+ */
+public class RecordRowSet extends AbstractSet<Integer> {
+
+	/**
+	 * Initial capacity of the rows array.
+	 */
+	private static final int INITIAL_CAPACITY = 4;
+
+	/**
+	 * Record rows, sorted in ascending order, from 0 to size.
+	 */
+	private int[] rows;
+
+	/**
+	 * Number of record rows.
+	 */
+	private int size;
+
+	/**
+	 * Constructs an empty <code>RecordRowSet</code> object.
+	 */
+	public RecordRowSet() {
+		rows = new int[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Constructs a <code>RecordRowSet</code> object with the given rows.
+	 *
+	 * @param sortedRows Distinct record rows, sorted in ascending order; the
+	 *                   array is kept by the set.
+	 */
+	public RecordRowSet(final int[] sortedRows) {
+		rows = sortedRows;
+		size = sortedRows.length;
+	}
+
+	/**
+	 * Retrieves the number of record rows.
+	 *
+	 * @return Number of record rows.
+	 */
+	public final int size() {
+		return size;
+	}
+
+	/**
+	 * Verifies if the set contains the given record row.
+	 *
+	 * @param object Record row.
+	 * @return True if the set contains the record row; False otherwise.
+	 */
+	public final boolean contains(final Object object) {
+
+		return (object instanceof Integer)
+				&& (indexOf((Integer) object) >= 0);
+	}
+
+	/**
+	 * Adds a record row to the set.
+	 *
+	 * @param recordRow Record row.
+	 * @return True if the row was added; False if it was already in the set.
+	 */
+	public final boolean add(final Integer recordRow) {
+
+		int index = size;
+
+		// Rows added in ascending order are appended without a search
+		if ((size > 0) && (rows[size - 1] >= recordRow)) {
+
+			index = indexOf(recordRow);
+			if (index >= 0) {
+				return false;
+			}
+
+			index = -(index + 1);
+		}
+
+		if (size == rows.length) {
+			rows = Arrays.copyOf(rows, size + (size >> 1) + 1);
+		}
+
+		System.arraycopy(rows, index, rows, index + 1, size - index);
+		rows[index] = recordRow;
+		size++;
+
+		return true;
+	}
+
+	/**
+	 * Removes a record row from the set.
+	 *
+	 * @param object Record row.
+	 * @return True if the row was removed; False if it was not in the set.
+	 */
+	public final boolean remove(final Object object) {
+
+		if (!(object instanceof Integer)) {
+			return false;
+		}
+
+		final int index = indexOf((Integer) object);
+		if (index < 0) {
+			return false;
+		}
+
+		System.arraycopy(rows, index + 1, rows, index, size - index - 1);
+		size--;
+
+		return true;
+	}
+
+	/**
+	 * Copies the record rows into the given array.
+	 *
+	 * @param target Array where to copy the rows.
+	 * @param offset Position in the array where to start copying.
+	 * @return Position in the array after the last row copied.
+	 */
+	public final int copyTo(final int[] target, final int offset) {
+
+		System.arraycopy(rows, 0, target, offset, size);
+
+		return offset + size;
+	}
+
+	/**
+	 * Returns an iterator over the record rows, in ascending order.
+	 *
+	 * @return An iterator over the record rows.
+	 */
+	public final Iterator<Integer> iterator() {
+
+		return new Iterator<Integer>() {
+
+			private int next;
+
+			private int last = -1;
+
+			public boolean hasNext() {
+				return next < size;
+			}
+
+			public Integer next() {
+
+				if (next >= size) {
+					throw new NoSuchElementException();
+				}
+
+				last = next++;
+
+				return rows[last];
+			}
+
+			public void remove() {
+
+				if (last < 0) {
+					throw new IllegalStateException();
+				}
+
+				System.arraycopy(rows, last + 1, rows, last, size - last - 1);
+				size--;
+
+				next = last;
+				last = -1;
+			}
+
+		};
+	}
+
+	/**
+	 * Looks up a record row with a binary search.
+	 *
+	 * @param recordRow Record row.
+	 * @return Index of the row, or (-(insertion point) - 1) if it is not in
+	 *         the set.
+	 */
+	private int indexOf(final int recordRow) {
+		return Arrays.binarySearch(rows, 0, size, recordRow);
+	}
+
+}
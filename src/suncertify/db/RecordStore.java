@@ -0,0 +1,397 @@
+package suncertify.db;
+
+import java.util.Arrays;
+
+/**
+ * Compact in-memory copy of the data section of the database file. The
+ * records are kept with the same fixed-width layout they have in the file
+ * (deleted flag followed by the field values) in a single byte array, so a
+ * cached record costs its record length and no objects. The field values are
+ * turned into Strings only when a record is read.
+ * <br />Record rows are file offsets aligned to the record length, so the
+ * slot of a record in the array is computed from its row instead of being
+ * looked up in a map.
+ * <br />This class is not thread safe, it must be guarded by the same lock
+ * that guards the records cache.
+ *
+ * @author Leo Gutierrez
+ */
+public class RecordStore {
+
+	/**
+	 * Minimum capacity, in records, of the store.
+	 */
+	private static final int MIN_CAPACITY = 16;
+
+	/**
+	 * Position in the database file where the data section starts.
+	 */
+	private final int dataSectionOffset;
+
+	/**
+	 * Record length, including the deleted flag.
+	 */
+	private final int recordLength;
+
+	/**
+	 * Decoder of the field values.
+	 */
+	private final RecordDecoder decoder;
+
+	/**
+	 * Records bytes, in the same layout as the data section.
+	 */
+	private byte[] data;
+
+	/**
+	 * Number of records (valid or deleted) in the store.
+	 */
+	private int recordCount;
+
+	/**
+	 * Number of valid (not deleted) records in the store.
+	 */
+	private int validRecordCount;
+
+	/**
+	 * Constructs an empty <code>RecordStore</code> object for the given data
+	 * file format.
+	 *
+	 * @param dataFileFormat Format of the database file.
+	 * @param initialRecords Number of records to reserve space for.
+	 */
+	public RecordStore(final DataFileFormat dataFileFormat,
+			final int initialRecords) {
+
+		dataSectionOffset = (int) dataFileFormat.getDataSectionOffset();
+		recordLength = dataFileFormat.getRecordLength();
+
+		decoder = new RecordDecoder(dataFileFormat);
+
+		data = new byte[Math.max(initialRecords, MIN_CAPACITY) * recordLength];
+	}
+
+	/**
+	 * Writes the given bytes at the given position of the data section,
+	 * the same way they are written into the database file. Writing a
+	 * record after the last one appends it to the store.
+	 *
+	 * @param position Position in the database file where to write.
+	 * @param bytes Buffer that contains the bytes to write.
+	 * @param offset Offset in the buffer where the bytes to write start.
+	 * @param length Number of bytes to write.
+	 * @throws IllegalArgumentException If the bytes are out of the data
+	 *                                  section or leave a gap after its end.
+	 */
+	public final void write(final int position, final byte[] bytes,
+			final int offset, final int length)
+			throws IllegalArgumentException {
+
+		final int start = position - dataSectionOffset;
+		final int dataLength = recordCount * recordLength;
+
+		if ((start < 0) || (start > dataLength)) {
+			throw new IllegalArgumentException("Position " + position
+					+ " is out of the data section");
+		}
+
+		// Slots whose deleted flag is overwritten by these bytes
+		final int firstFlagSlot = (start + recordLength - 1) / recordLength;
+		final int endFlagSlot =
+				(start + length + recordLength - 1) / recordLength;
+
+		validRecordCount += countDeletedSlots(firstFlagSlot,
+				Math.min(endFlagSlot, recordCount));
+
+		if (endFlagSlot > recordCount) {
+
+			ensureCapacity(endFlagSlot);
+
+			validRecordCount += endFlagSlot - recordCount;
+			recordCount = endFlagSlot;
+		}
+
+		System.arraycopy(bytes, offset, data, start, length);
+
+		validRecordCount -= countDeletedSlots(firstFlagSlot, endFlagSlot);
+	}
+
+	/**
+	 * Verifies if the given record row contains a valid (not deleted) record.
+	 *
+	 * @param recordRow Record row.
+	 * @return True if the record row contains a valid record; False
+	 *         otherwise.
+	 */
+	public final boolean contains(final int recordRow) {
+
+		final int slot = slotOf(recordRow);
+
+		return (slot >= 0) && (!isDeletedSlot(slot));
+	}
+
+	/**
+	 * Verifies if the given record row contains a deleted record.
+	 *
+	 * @param recordRow Record row.
+	 * @return True if the record row contains a deleted record; False
+	 *         otherwise.
+	 */
+	public final boolean isDeleted(final int recordRow) {
+
+		final int slot = slotOf(recordRow);
+
+		return (slot >= 0) && (isDeletedSlot(slot));
+	}
+
+	/**
+	 * Reads the record in the given record row.
+	 *
+	 * @param recordRow Record row.
+	 * @return An array with the trimmed field values, or null if the record
+	 *         row does not contain a valid record.
+	 */
+	public final String[] read(final int recordRow) {
+
+		final int slot = slotOf(recordRow);
+
+		if ((slot < 0) || (isDeletedSlot(slot))) {
+			return null;
+		}
+
+		final String[] record = new String[decoder.numberOfFields()];
+
+		for (int field = 0; field < record.length; field++) {
+			record[field] = decodeField(slot, field);
+		}
+
+		return record;
+	}
+
+	/**
+	 * Reads a field value of the record in the given record row.
+	 *
+	 * @param recordRow Record row.
+	 * @param fieldPosition Field position.
+	 * @return The trimmed field value, or null if the record row does not
+	 *         contain a valid record.
+	 */
+	public final String readField(final int recordRow,
+			final int fieldPosition) {
+
+		final int slot = slotOf(recordRow);
+
+		if ((slot < 0) || (isDeletedSlot(slot))) {
+			return null;
+		}
+
+		return decodeField(slot, fieldPosition);
+	}
+
+	/**
+	 * Returns the offset of a field value inside a record, so the field can
+	 * be written alone.
+	 *
+	 * @param fieldPosition Field position.
+	 * @return Offset of the field value from the start of the record.
+	 */
+	public final int fieldOffset(final int fieldPosition) {
+		return decoder.fieldOffset(fieldPosition);
+	}
+
+	/**
+	 * Returns the length of a field value.
+	 *
+	 * @param fieldPosition Field position.
+	 * @return Length of the field value.
+	 */
+	public final int fieldLength(final int fieldPosition) {
+		return decoder.fieldLength(fieldPosition);
+	}
+
+	/**
+	 * Verifies if the given bytes are equal to the bytes stored at the given
+	 * position of the data section.
+	 *
+	 * @param position Position in the database file where to compare.
+	 * @param bytes Buffer that contains the bytes to compare.
+	 * @param offset Offset in the buffer where the bytes to compare start.
+	 * @param length Number of bytes to compare.
+	 * @return True if all the bytes are equal; False otherwise, or if the
+	 *         bytes are not all in the store.
+	 */
+	public final boolean regionMatches(final int position, final byte[] bytes,
+			final int offset, final int length) {
+
+		final int start = position - dataSectionOffset;
+
+		if ((start < 0) || (start + length > recordCount * recordLength)) {
+			return false;
+		}
+
+		for (int index = 0; index < length; index++) {
+			if (data[start + index] != bytes[offset + index]) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Copies the bytes stored at the given position of the data section.
+	 *
+	 * @param position Position in the database file where to copy from.
+	 * @param length Number of bytes to copy.
+	 * @return A copy of the bytes, or null if the bytes are not all in the
+	 *         store.
+	 */
+	public final byte[] copyOf(final int position, final int length) {
+
+		final int start = position - dataSectionOffset;
+
+		if ((start < 0) || (start + length > recordCount * recordLength)) {
+			return null;
+		}
+
+		return Arrays.copyOfRange(data, start, start + length);
+	}
+
+	/**
+	 * Retrieves the rows of all the valid records, in ascending order.
+	 *
+	 * @return An array with the rows of all the valid records.
+	 */
+	public final int[] validRecordRows() {
+
+		final int[] recordRows = new int[validRecordCount];
+
+		int index = 0;
+		for (int slot = 0; slot < recordCount; slot++) {
+			if (!isDeletedSlot(slot)) {
+				recordRows[index++] = dataSectionOffset + slot * recordLength;
+			}
+		}
+
+		return recordRows;
+	}
+
+	/**
+	 * Retrieves the rows of all the deleted records, in ascending order.
+	 *
+	 * @return An array with the rows of all the deleted records.
+	 */
+	public final int[] deletedRecordRows() {
+
+		final int[] recordRows = new int[recordCount - validRecordCount];
+
+		int index = 0;
+		for (int slot = 0; slot < recordCount; slot++) {
+			if (isDeletedSlot(slot)) {
+				recordRows[index++] = dataSectionOffset + slot * recordLength;
+			}
+		}
+
+		return recordRows;
+	}
+
+	/**
+	 * Retrieves the number of valid (not deleted) records.
+	 *
+	 * @return Number of valid records.
+	 */
+	public final int size() {
+		return validRecordCount;
+	}
+
+	/**
+	 * Returns the slot of the given record row.
+	 *
+	 * @param recordRow Record row.
+	 * @return Slot of the record row, or -1 if the row is not the start of a
+	 *         record in the store.
+	 */
+	private int slotOf(final int recordRow) {
+
+		final int start = recordRow - dataSectionOffset;
+
+		if ((start < 0) || (start % recordLength != 0)) {
+			return -1;
+		}
+
+		final int slot = start / recordLength;
+
+		if (slot >= recordCount) {
+			return -1;
+		}
+
+		return slot;
+	}
+
+	/**
+	 * Verifies if the record in the given slot is deleted.
+	 *
+	 * @param slot Slot of the record.
+	 * @return True if the record is deleted; False otherwise.
+	 */
+	private boolean isDeletedSlot(final int slot) {
+		return data[slot * recordLength] == DatabaseConstants.DELETED_RECORD;
+	}
+
+	/**
+	 * Counts the deleted records in the given range of slots.
+	 *
+	 * @param fromSlot First slot of the range.
+	 * @param toSlot Slot after the last one of the range.
+	 * @return Number of deleted records in the range.
+	 */
+	private int countDeletedSlots(final int fromSlot, final int toSlot) {
+
+		int deleted = 0;
+		for (int slot = fromSlot; slot < toSlot; slot++) {
+			if (isDeletedSlot(slot)) {
+				deleted++;
+			}
+		}
+
+		return deleted;
+	}
+
+	/**
+	 * Decodes a field value of the record in the given slot.
+	 *
+	 * @param slot Slot of the record.
+	 * @param fieldPosition Field position.
+	 * @return The trimmed field value.
+	 */
+	private String decodeField(final int slot, final int fieldPosition) {
+
+		return decoder.decodeField(data, slot * recordLength, fieldPosition);
+	}
+
+	/**
+	 * Grows the store, if needed, to hold the given number of records.
+	 *
+	 * @param records Number of records to hold.
+	 */
+	private void ensureCapacity(final int records) {
+
+		final long bytesNeeded = (long) records * recordLength;
+
+		if (bytesNeeded <= data.length) {
+			return;
+		}
+
+		if (bytesNeeded > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("The store can't hold "
+					+ records + " records");
+		}
+
+		long newCapacity = Math.max((long) data.length * 2, bytesNeeded);
+		newCapacity = Math.min(newCapacity,
+				(Integer.MAX_VALUE / recordLength) * (long) recordLength);
+
+		data = Arrays.copyOf(data, (int) newCapacity);
+	}
+
+}
@@ -0,0 +1,803 @@
+package suncertify.db;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log where the writes to the database file are saved before
+ * they are applied to it.
+ * <br />The writes are appended to an in-memory buffer and a single writer
+ * thread saves all the writes appended since its last pass with one
+ * <code>force()</code> (group commit), then wakes up the threads waiting for
+ * them. The writes in the log are applied to the database file by a
+ * checkpoint thread when the log grows past a size or an interval elapses,
+ * and the log is truncated after the database file is forced. The
+ * checkpoint applies the log without blocking the writer thread; only the
+ * writes saved while it was applying them are applied with the writer
+ * thread stopped, right before the log is truncated.
+ * <br />Each entry in the log has the format: position (long), length (int),
+ * bytes, and a CRC32 (int) of the previous values. A log left by a crash is
+ * replayed with {@link #recover()}, ignoring an incomplete last entry.
+ *
+ * @author Leo Gutierrez
+ */
+public class WriteAheadLog {
+
+	/**
+	 * Class name.
+	 */
+	private static final String CLASS_NAME = WriteAheadLog.class.getName();
+
+	/**
+	 * Size of an entry header: position and length.
+	 */
+	private static final int ENTRY_HEADER_SIZE = 12;
+
+	/**
+	 * Size of an entry checksum.
+	 */
+	private static final int ENTRY_CHECKSUM_SIZE = 4;
+
+	/**
+	 * Initial size of the in-memory buffers.
+	 */
+	private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Channel of the log file.
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * Storage where the writes in the log are applied.
+	 */
+	private final IDataStorage storage;
+
+	/**
+	 * Log size, in bytes, that triggers a checkpoint.
+	 */
+	private final long checkpointSize;
+
+	/**
+	 * Time, in milliseconds, after which a checkpoint is done if the log is
+	 * not empty.
+	 */
+	private final long checkpointInterval;
+
+	/**
+	 * Guards the in-memory buffers and the sequence numbers.
+	 */
+	private final ReentrantLock mutex = new ReentrantLock();
+
+	/**
+	 * Signaled when a write is appended or the log is closed.
+	 */
+	private final Condition writeAppended = mutex.newCondition();
+
+	/**
+	 * Signaled when the writer thread saves a batch of writes.
+	 */
+	private final Condition writesSaved = mutex.newCondition();
+
+	/**
+	 * Signaled when a checkpoint is requested or the log is closed.
+	 */
+	private final Condition checkpointDue = mutex.newCondition();
+
+	/**
+	 * Guards the writes to the log file and its truncation.
+	 */
+	private final ReentrantLock logFileLock = new ReentrantLock();
+
+	/**
+	 * Checksum calculator, used only by the threads holding the mutex.
+	 */
+	private final CRC32 checksum = new CRC32();
+
+	/**
+	 * Buffer where the writes are appended.
+	 */
+	private ByteBuffer pendingWrites = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+	/**
+	 * Buffer being saved by the writer thread.
+	 */
+	private ByteBuffer savingWrites = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+	/**
+	 * Sequence number of the last write appended.
+	 */
+	private long appendedSequence;
+
+	/**
+	 * Sequence number of the last write saved in the log file.
+	 */
+	private long savedSequence;
+
+	/**
+	 * Error that stopped the writer thread, if any.
+	 */
+	private IOException failure;
+
+	/**
+	 * Indicates if the log is closed.
+	 */
+	private boolean closed;
+
+	/**
+	 * Indicates if the log grew past the checkpoint size.
+	 */
+	private boolean checkpointRequested;
+
+	/**
+	 * Number of entries applied by the checkpoint in progress, used only by
+	 * the thread doing the checkpoint.
+	 */
+	private int entriesApplied;
+
+	/**
+	 * Thread that saves the writes.
+	 */
+	private Thread writer;
+
+	/**
+	 * Thread that does the checkpoints.
+	 */
+	private Thread checkpointer;
+
+	/**
+	 * Constructs a <code>WriteAheadLog</code> object, opening or creating the
+	 * given log file.
+	 *
+	 * @param logFile Log file.
+	 * @param dataStorage Storage where the writes in the log are applied.
+	 * @param checkpointSizeBytes Log size, in bytes, that triggers a
+	 *                            checkpoint.
+	 * @param checkpointIntervalMillis Time, in milliseconds, after which a
+	 *                                 checkpoint is done if the log is not
+	 *                                 empty.
+	 * @throws IOException If the log file can't be opened.
+	 */
+	public WriteAheadLog(final File logFile, final IDataStorage dataStorage,
+			final long checkpointSizeBytes,
+			final long checkpointIntervalMillis) throws IOException {
+
+		this(new RandomAccessFile(logFile,
+				DatabaseConstants.READ_WRITE_ACCESS_MODE).getChannel(),
+				dataStorage, checkpointSizeBytes, checkpointIntervalMillis);
+	}
+
+	/**
+	 * Constructs a <code>WriteAheadLog</code> object over the given channel
+	 * of the log file.
+	 *
+	 * @param logChannel Channel of the log file.
+	 * @param dataStorage Storage where the writes in the log are applied.
+	 * @param checkpointSizeBytes Log size, in bytes, that triggers a
+	 *                            checkpoint.
+	 * @param checkpointIntervalMillis Time, in milliseconds, after which a
+	 *                                 checkpoint is done if the log is not
+	 *                                 empty.
+	 */
+	public WriteAheadLog(final FileChannel logChannel,
+			final IDataStorage dataStorage, final long checkpointSizeBytes,
+			final long checkpointIntervalMillis) {
+
+		channel = logChannel;
+		storage = dataStorage;
+		checkpointSize = checkpointSizeBytes;
+		checkpointInterval = checkpointIntervalMillis;
+	}
+
+	/**
+	 * Applies to the storage all the complete entries in the log file, forces
+	 * the storage and truncates the log. Must be called before
+	 * {@link #start()}.
+	 *
+	 * @return Number of entries applied.
+	 * @throws IOException If any I/O error occurs.
+	 */
+	public final int recover() throws IOException {
+
+		final String methodName = "recover";
+		DatabaseLogger.entering(CLASS_NAME, methodName);
+
+		int entriesRecovered = 0;
+
+		try {
+
+			entriesRecovered = checkpoint();
+
+			if (entriesRecovered > 0) {
+				DatabaseLogger.info(CLASS_NAME, methodName, "Writes recovered "
+						+ "from the log: " + entriesRecovered);
+			}
+
+			return entriesRecovered;
+
+		} finally {
+			DatabaseLogger.exiting(CLASS_NAME, methodName, entriesRecovered);
+		}
+	}
+
+	/**
+	 * Starts the writer and checkpoint threads.
+	 */
+	public final void start() {
+
+		writer = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				runWriter();
+			}
+
+		}, "WriteAheadLog-writer");
+
+		checkpointer = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				runCheckpointer();
+			}
+
+		}, "WriteAheadLog-checkpointer");
+
+		writer.setDaemon(true);
+		writer.start();
+
+		checkpointer.setDaemon(true);
+		checkpointer.start();
+	}
+
+	/**
+	 * Appends a write to the log. The write is not saved until
+	 * {@link #awaitSaved(long)} returns for the sequence number returned.
+	 * <br />Once the writer thread fails or the log is closed, no write is
+	 * saved anymore, so the writes are rejected instead of appended.
+	 *
+	 * @param position Position in the database file where to write.
+	 * @param bytes Buffer that contains the bytes to write.
+	 * @param offset Offset in the buffer where the bytes to write start.
+	 * @param length Number of bytes to write.
+	 * @return Sequence number of the write.
+	 * @throws IOException If the writer thread failed or the log is closed.
+	 */
+	public final long append(final long position, final byte[] bytes,
+			final int offset, final int length) throws IOException {
+
+		mutex.lock();
+		try {
+
+			if (failure != null) {
+				throw new IOException("Unable to append the write to the "
+						+ "log: " + failure.getMessage());
+			}
+
+			if (closed) {
+				throw new IOException("The log is closed");
+			}
+
+			final int entrySize =
+					ENTRY_HEADER_SIZE + length + ENTRY_CHECKSUM_SIZE;
+
+			if (pendingWrites.remaining() < entrySize) {
+				pendingWrites = grow(pendingWrites, entrySize);
+			}
+
+			final int entryStart = pendingWrites.position();
+
+			pendingWrites.putLong(position);
+			pendingWrites.putInt(length);
+			pendingWrites.put(bytes, offset, length);
+
+			checksum.reset();
+			checksum.update(pendingWrites.array(), entryStart,
+					pendingWrites.position() - entryStart);
+			pendingWrites.putInt((int) checksum.getValue());
+
+			appendedSequence++;
+
+			writeAppended.signal();
+
+			return appendedSequence;
+
+		} finally {
+			mutex.unlock();
+		}
+	}
+
+	/**
+	 * Waits until the write with the given sequence number is saved in the
+	 * log file.
+	 *
+	 * @param sequence Sequence number of the write.
+	 * @throws IOException If the write can't be saved or the current thread
+	 *                     is interrupted.
+	 */
+	public final void awaitSaved(final long sequence) throws IOException {
+
+		mutex.lock();
+		try {
+
+			while ((savedSequence < sequence) && (failure == null)) {
+				writesSaved.await();
+			}
+
+			if (savedSequence < sequence) {
+				throw new IOException("Unable to save the write in the log: "
+						+ failure.getMessage());
+			}
+
+		} catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+
+			throw new IOException("Interrupted while waiting for the write "
+					+ "to be saved in the log");
+
+		} finally {
+			mutex.unlock();
+		}
+	}
+
+	/**
+	 * Returns the sequence number of the last write saved in the log file.
+	 * The writes appended after it are lost if the log fails.
+	 *
+	 * @return Sequence number of the last write saved.
+	 */
+	public final long getSavedSequence() {
+
+		mutex.lock();
+		try {
+			return savedSequence;
+		} finally {
+			mutex.unlock();
+		}
+	}
+
+	/**
+	 * Verifies if the log stopped saving writes, because the writer thread
+	 * failed or the log was closed.
+	 *
+	 * @return True if the log stopped saving writes; False otherwise.
+	 */
+	public final boolean isFailed() {
+
+		mutex.lock();
+		try {
+			return failure != null;
+		} finally {
+			mutex.unlock();
+		}
+	}
+
+	/**
+	 * Saves the pending writes, applies the log to the storage and closes
+	 * the log file. If the writer thread failed, the pending writes are not
+	 * saved, as the writes before them were lost.
+	 *
+	 * @throws IOException If any I/O error occurs.
+	 */
+	public final void close() throws IOException {
+
+		final Thread writerThread;
+		final Thread checkpointerThread;
+
+		mutex.lock();
+		try {
+
+			closed = true;
+			writerThread = writer;
+			checkpointerThread = checkpointer;
+			writeAppended.signal();
+			checkpointDue.signal();
+
+		} finally {
+			mutex.unlock();
+		}
+
+		join(writerThread);
+		join(checkpointerThread);
+
+		try {
+
+			if (!isFailed()) {
+				saveBatch();
+			}
+
+			checkpoint();
+
+		} finally {
+
+			channel.close();
+
+			mutex.lock();
+			try {
+
+				if (failure == null) {
+					failure = new IOException("The log is closed");
+				}
+
+				writesSaved.signalAll();
+
+			} finally {
+				mutex.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Waits until the given thread ends, if any.
+	 *
+	 * @param thread Thread to wait for. Can be null.
+	 */
+	private static void join(final Thread thread) {
+
+		if (thread != null) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Writer thread main loop: saves the pending writes until the log is
+	 * closed or an I/O error occurs, and requests a checkpoint when the log
+	 * grows past the checkpoint size.
+	 */
+	private void runWriter() {
+
+		final String methodName = "runWriter";
+
+		try {
+
+			while (awaitPendingWrites()) {
+
+				saveBatch();
+
+				if (channel.size() >= checkpointSize) {
+					requestCheckpoint();
+				}
+			}
+
+		} catch (IOException e) {
+
+			DatabaseLogger.severe(CLASS_NAME, methodName, "Unable to save "
+					+ "the writes in the log: " + e.getMessage());
+
+			mutex.lock();
+			try {
+				failure = e;
+				writesSaved.signalAll();
+			} finally {
+				mutex.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Waits until there are pending writes. If the writer thread is
+	 * interrupted, the threads waiting for their writes are woken up with
+	 * an error, as no one else saves them.
+	 *
+	 * @return False if the log is closed or the writer thread was
+	 *         interrupted; True otherwise.
+	 */
+	private boolean awaitPendingWrites() {
+
+		final String methodName = "awaitPendingWrites";
+
+		mutex.lock();
+		try {
+
+			while ((pendingWrites.position() == 0) && (!closed)) {
+
+				try {
+					writeAppended.await();
+				} catch (InterruptedException e) {
+
+					DatabaseLogger.severe(CLASS_NAME, methodName, "The log "
+							+ "writer was interrupted");
+
+					failure = new IOException("The log writer was "
+							+ "interrupted");
+					writesSaved.signalAll();
+
+					Thread.currentThread().interrupt();
+
+					return false;
+				}
+			}
+
+			return !closed;
+
+		} finally {
+			mutex.unlock();
+		}
+	}
+
+	/**
+	 * Requests a checkpoint to the checkpoint thread.
+	 */
+	private void requestCheckpoint() {
+
+		mutex.lock();
+		try {
+			checkpointRequested = true;
+			checkpointDue.signal();
+		} finally {
+			mutex.unlock();
+		}
+	}
+
+	/**
+	 * Checkpoint thread main loop: applies the log to the storage when a
+	 * checkpoint is requested or the checkpoint interval elapses, until the
+	 * log is closed. A checkpoint that fails is retried later, as the
+	 * writes are still in the log.
+	 */
+	private void runCheckpointer() {
+
+		final String methodName = "runCheckpointer";
+
+		while (awaitCheckpointDue()) {
+
+			try {
+
+				checkpoint();
+
+			} catch (IOException e) {
+
+				DatabaseLogger.severe(CLASS_NAME, methodName, "Unable to "
+						+ "apply the log to the database file: "
+						+ e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Waits until a checkpoint is requested or the checkpoint interval
+	 * elapses.
+	 *
+	 * @return False if the log is closed or the checkpoint thread was
+	 *         interrupted; True otherwise.
+	 */
+	private boolean awaitCheckpointDue() {
+
+		mutex.lock();
+		try {
+
+			if ((!checkpointRequested) && (!closed)) {
+
+				try {
+					checkpointDue.await(checkpointInterval,
+							TimeUnit.MILLISECONDS);
+				} catch (InterruptedException e) {
+
+					Thread.currentThread().interrupt();
+
+					return false;
+				}
+			}
+
+			checkpointRequested = false;
+
+			return !closed;
+
+		} finally {
+			mutex.unlock();
+		}
+	}
+
+	/**
+	 * Saves in the log file all the writes appended so far with one
+	 * <code>force()</code>, and wakes up the threads waiting for them.
+	 *
+	 * @throws IOException If any I/O error occurs.
+	 */
+	private void saveBatch() throws IOException {
+
+		final long batchSequence;
+
+		mutex.lock();
+		try {
+
+			if (pendingWrites.position() == 0) {
+				return;
+			}
+
+			final ByteBuffer batch = pendingWrites;
+			pendingWrites = savingWrites;
+			savingWrites = batch;
+
+			batchSequence = appendedSequence;
+
+		} finally {
+			mutex.unlock();
+		}
+
+		savingWrites.flip();
+
+		logFileLock.lock();
+		try {
+
+			long logPosition = channel.size();
+			while (savingWrites.hasRemaining()) {
+				logPosition += channel.write(savingWrites, logPosition);
+			}
+			channel.force(false);
+
+		} finally {
+			logFileLock.unlock();
+		}
+
+		savingWrites.clear();
+
+		mutex.lock();
+		try {
+			savedSequence = batchSequence;
+			writesSaved.signalAll();
+		} finally {
+			mutex.unlock();
+		}
+	}
+
+	/**
+	 * Applies all the complete entries in the log file to the storage,
+	 * forces the storage and truncates the log file.
+	 * <br />The entries saved so far are applied while the writer thread
+	 * keeps saving new ones; then the writer thread is stopped to apply the
+	 * entries saved in the meantime and truncate the log, so no entry is
+	 * truncated before it is applied.
+	 *
+	 * @return Number of entries applied.
+	 * @throws IOException If any I/O error occurs.
+	 */
+	private int checkpoint() throws IOException {
+
+		final long snapshotSize = channel.size();
+		if (snapshotSize == 0) {
+			return 0;
+		}
+
+		entriesApplied = 0;
+
+		final long snapshotEnd = applyEntries(0, snapshotSize);
+		storage.force();
+
+		logFileLock.lock();
+		try {
+
+			final long logSize = channel.size();
+			if ((snapshotEnd == snapshotSize) && (logSize > snapshotSize)) {
+				applyEntries(snapshotSize, logSize);
+				storage.force();
+			}
+
+			channel.truncate(0);
+			channel.force(false);
+
+		} finally {
+			logFileLock.unlock();
+		}
+
+		return entriesApplied;
+	}
+
+	/**
+	 * Applies to the storage the complete entries in the given range of the
+	 * log file, stopping at the first incomplete or corrupted entry.
+	 *
+	 * @param start Position in the log file of the first entry to apply.
+	 * @param end Position in the log file where the entries end.
+	 * @return Position in the log file after the last entry applied.
+	 * @throws IOException If any I/O error occurs.
+	 */
+	private long applyEntries(final long start, final long end)
+			throws IOException {
+
+		final ByteBuffer header = ByteBuffer.allocate(ENTRY_HEADER_SIZE);
+		final CRC32 entryChecksum = new CRC32();
+
+		ByteBuffer entry = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+		long logPosition = start;
+
+		while (logPosition + ENTRY_HEADER_SIZE <= end) {
+
+			header.clear();
+			readFully(header, logPosition);
+			header.flip();
+
+			final long position = header.getLong();
+			final int length = header.getInt();
+
+			final long entryEnd = logPosition + ENTRY_HEADER_SIZE + length
+					+ ENTRY_CHECKSUM_SIZE;
+			if ((length < 0) || (entryEnd > end)) {
+				break;
+			}
+
+			if (entry.capacity() < length + ENTRY_CHECKSUM_SIZE) {
+				entry = ByteBuffer.allocate(length + ENTRY_CHECKSUM_SIZE);
+			}
+
+			entry.clear();
+			entry.limit(length + ENTRY_CHECKSUM_SIZE);
+			readFully(entry, logPosition + ENTRY_HEADER_SIZE);
+
+			entryChecksum.reset();
+			entryChecksum.update(header.array(), 0, ENTRY_HEADER_SIZE);
+			entryChecksum.update(entry.array(), 0, length);
+
+			if (entry.getInt(length) != (int) entryChecksum.getValue()) {
+				break;
+			}
+
+			storage.write(position, entry.array(), 0, length);
+
+			entriesApplied++;
+			logPosition = entryEnd;
+		}
+
+		return logPosition;
+	}
+
+	/**
+	 * Reads from the log file until the given buffer is full.
+	 *
+	 * @param buffer Buffer to fill.
+	 * @param position Position in the log file where to start reading.
+	 * @throws IOException If any I/O error occurs or the end of the log file
+	 *                     is reached.
+	 */
+	private void readFully(final ByteBuffer buffer, final long position)
+			throws IOException {
+
+		long readPosition = position;
+		while (buffer.hasRemaining()) {
+
+			final int bytesRead = channel.read(buffer, readPosition);
+			if (bytesRead < 0) {
+				throw new IOException("Unexpected end of the log file");
+			}
+
+			readPosition += bytesRead;
+		}
+	}
+
+	/**
+	 * Returns a copy of the given buffer with room for at least the given
+	 * number of bytes.
+	 *
+	 * @param buffer Buffer to grow.
+	 * @param bytesNeeded Number of bytes needed after the current position.
+	 * @return A bigger buffer with the same content and position.
+	 */
+	private static ByteBuffer grow(final ByteBuffer buffer,
+			final int bytesNeeded) {
+
+		int capacity = buffer.capacity() * 2;
+		while (capacity - buffer.position() < bytesNeeded) {
+			capacity *= 2;
+		}
+
+		final ByteBuffer grownBuffer = ByteBuffer.allocate(capacity);
+		buffer.flip();
+		grownBuffer.put(buffer);
+
+		return grownBuffer;
+	}
+
+}
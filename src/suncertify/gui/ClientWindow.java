@@ -10,6 +10,7 @@ import java.awt.event.KeyEvent;
 import java.rmi.RemoteException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.BorderFactory;
 import javax.swing.InputMap;
@@ -23,6 +24,7 @@ import javax.swing.JTable;
 import javax.swing.JTextField;
 import javax.swing.KeyStroke;
 import javax.swing.ListSelectionModel;
+import javax.swing.SwingWorker;
 import javax.swing.border.BevelBorder;
 
 import suncertify.controller.BookRoomListener;
@@ -282,6 +284,9 @@ public class ClientWindow extends JFrame {
 	/**
 	 * Builds and adds all valid records from the database to Main window to 
 	 * display to the user.
+	 * <br />The records are retrieved with a find cursor: the first page is
+	 * displayed right away, and the rest of the pages are added in the
+	 * background.
 	 */
 	private void addAllDataAsInitialStartup() {
 		
@@ -290,6 +295,8 @@ public class ClientWindow extends JFrame {
 		
 		List<Record> currentRecordsInTable = new ArrayList<Record>();
 		
+		long cursorId = 0;
+		
 		try {
 			
 			if (database == null) {
@@ -301,7 +308,11 @@ public class ClientWindow extends JFrame {
 				
 			} else {
 			
-				currentRecordsInTable = database.find(null, null);
+				cursorId = database.openCursor(null, null, 
+						GUIConstants.INITIAL_LOAD_PAGE_SIZE);
+				
+				currentRecordsInTable = 
+						new ArrayList<Record>(database.nextPage(cursorId));
 				
 			}
 			
@@ -320,6 +331,11 @@ public class ClientWindow extends JFrame {
 		
 		addDataToTableModel(currentRecordsInTable);
 		
+		// An empty first page means the cursor is already closed
+		if (!currentRecordsInTable.isEmpty()) {
+			new RemainingPagesLoader(cursorId, tableModel).execute();
+		}
+		
 		GUILogger.exiting(CLASS_NAME, methodName);
 		
 	}
@@ -491,4 +507,116 @@ public class ClientWindow extends JFrame {
 		bookRoomButton.setEnabled(enable);
 	}
 	
+	/**
+	 * Retrieves in the background the pages of a find cursor after the 
+	 * first one, and adds their records to the table model. It stops, and
+	 * closes the cursor, if the table model is replaced by a search.
+	 */
+	private class RemainingPagesLoader 
+			extends SwingWorker<Void, List<Record>> {
+		
+		/**
+		 * Id of the find cursor.
+		 */
+		private final long cursorId;
+		
+		/**
+		 * Table model where the records are added.
+		 */
+		private final RecordTableModel model;
+		
+		/**
+		 * Constructs a <code>RemainingPagesLoader</code> object.
+		 * 
+		 * @param findCursorId Id of the find cursor.
+		 * @param recordsModel Table model where the records are added.
+		 */
+		public RemainingPagesLoader(final long findCursorId, 
+				final RecordTableModel recordsModel) {
+			
+			cursorId = findCursorId;
+			model = recordsModel;
+			
+		}
+		
+		/**
+		 * Retrieves the pages until there are no more, or the loading is
+		 * cancelled.
+		 * 
+		 * @return Nothing.
+		 * @throws RemoteException If any networking error occurs.
+		 */
+		protected Void doInBackground() throws RemoteException {
+			
+			try {
+				
+				List<Record> page = database.nextPage(cursorId);
+				
+				while ((!page.isEmpty()) && (!isCancelled())) {
+					
+					publish(page);
+					
+					page = database.nextPage(cursorId);
+				}
+				
+			} finally {
+				database.closeCursor(cursorId);
+			}
+			
+			return null;
+		}
+		
+		/**
+		 * Adds the records of the pages retrieved to the table model, in the
+		 * event dispatch thread.
+		 * 
+		 * @param pages Pages retrieved.
+		 */
+		protected void process(final List<List<Record>> pages) {
+			
+			if (tableModel != model) {
+				
+				cancel(false);
+				
+				return;
+			}
+			
+			for (List<Record> page: pages) {
+				model.addRecords(page);
+			}
+		}
+		
+		/**
+		 * Reports the error that stopped the loading, if any.
+		 */
+		protected void done() {
+			
+			final String methodName = "done";
+			
+			if (isCancelled()) {
+				return;
+			}
+			
+			try {
+				
+				get();
+				
+			} catch (InterruptedException e) {
+				
+				Thread.currentThread().interrupt();
+				
+			} catch (ExecutionException e) {
+				
+				GUILogger.warning(CLASS_NAME, methodName, "Unable to load all "
+						+ "records to display in the initial startup: " 
+						+ e.getCause().getMessage());
+				
+				setStatusLabelText(
+						GUIMessages.NOT_CONNECTED_TO_SERVER_MESSAGE);
+				
+			}
+		}
+		
+	}
+	
 }
@@ -41,4 +41,10 @@ public class GUIConstants {
 	 */
 	public static final String OK_TEXT = "OK";
 	
+	/**
+	 * Number of records of each page retrieved from the database when the
+	 * client window is loaded.
+	 */
+	public static final int INITIAL_LOAD_PAGE_SIZE = 200;
+	
 }
@@ -259,6 +259,24 @@ public class RecordTableModel extends AbstractTableModel {
 		return validRow;
 	}
 
+	/**
+	 * Adds the given records after the records in the model.
+	 * 
+	 * @param recordsToAdd Records to add.
+	 */
+	public final void addRecords(final List<Record> recordsToAdd) {
+		
+		if (recordsToAdd.isEmpty()) {
+			return;
+		}
+		
+		final int firstRow = records.size();
+		
+		records.addAll(recordsToAdd);
+		
+		fireTableRowsInserted(firstRow, records.size() - 1);
+	}
+
 	/**
 	 * Retrieves the current list of records displayed in the main window.
 	 * 
@@ -2,7 +2,7 @@ package suncertify.log;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.logging.FileHandler;
+import java.util.logging.Handler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.logging.SimpleFormatter;
@@ -20,10 +20,10 @@ public class AppLogger {
 	private static final String LOG_FILE_PATH = "app.log";
 	
 	/**
-	 * Reference to the <code>FileHandler</code> to add
+	 * Reference to the <code>AsyncFileHandler</code> to add
 	 * to logger.
 	 */
-	private static FileHandler handler;
+	private static Handler handler;
 	
 	/**
 	 * Creates the log file when the class is loaded.
@@ -40,14 +40,15 @@ public class AppLogger {
 	}
 
 	/**
-	 * Creates a valid <code>FileHandler</code> to add to any 
-	 * <code>java.util.logging.Logger</code> created.
+	 * Creates a valid <code>AsyncFileHandler</code> to add to any 
+	 * <code>java.util.logging.Logger</code> created. The log records are 
+	 * written by the handler thread, not by the thread that logs them.
 	 */
 	private static void createFileHandler() {
 		
 		try {
 			
-			handler = new FileHandler(LOG_FILE_PATH);
+			handler = newAsyncFileHandler();
 			handler.setFormatter(new SimpleFormatter());
 			
 		} catch (SecurityException e) {
@@ -63,7 +64,8 @@ public class AppLogger {
 	}
 
 	/**
-	 * Creates the log file manually to create a <code>FileHandler</code>.
+	 * Creates the log file manually to create a 
+	 * <code>AsyncFileHandler</code>.
 	 */
 	private static void createFileHandlerManually() {
 		
@@ -73,7 +75,7 @@ public class AppLogger {
 				
 				if (logFile.createNewFile()) {
 				
-					handler = new FileHandler(LOG_FILE_PATH);
+					handler = newAsyncFileHandler();
 					handler.setFormatter(new SimpleFormatter());
 					
 				} else {
@@ -91,9 +93,26 @@ public class AppLogger {
 		}
 	}
 	
+	/**
+	 * Creates an <code>AsyncFileHandler</code> configured with the values 
+	 * defined in the suncertify.properties file.
+	 * 
+	 * @return A new <code>AsyncFileHandler</code>.
+	 * @throws IOException If the log file can't be opened.
+	 */
+	private static Handler newAsyncFileHandler() throws IOException {
+		
+		final AppLoggerProperties loggerProps = new AppLoggerProperties();
+		
+		return new AsyncFileHandler(LOG_FILE_PATH, 
+				loggerProps.readBufferSize(), loggerProps.readFileSize(), 
+				loggerProps.readFileCount(), loggerProps.readOverflowPolicy(), 
+				loggerProps.readOverflowSampleRate());
+	}
+	
 	/**
 	 * Creates a <code>java.util.logging.Logger</code> with the given input
-	 * parameter name, adds a valid <code>FileHandler</code> and sets a
+	 * parameter name, adds a valid <code>AsyncFileHandler</code> and sets a
 	 * <code>Level</code> defined in the suncertify.properties file.
 	 * 
 	 * @param name Name to set to Logger.
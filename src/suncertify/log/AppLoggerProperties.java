@@ -20,6 +20,58 @@ public class AppLoggerProperties extends AppProperties {
 	 */
 	private static final String DEFAULT_LOG_LEVEL = "INFO";
 
+	/**
+	 * logging.trace property name.
+	 */
+	private static final String LOGGING_TRACE_PROP = "logging.trace";
+
+	/**
+	 * logging.buffer.size property name.
+	 */
+	private static final String LOGGING_BUFFER_SIZE_PROP = 
+			"logging.buffer.size";
+
+	/**
+	 * Default number of log records the buffer can hold.
+	 */
+	private static final long DEFAULT_BUFFER_SIZE = 8192;
+
+	/**
+	 * logging.file.size property name.
+	 */
+	private static final String LOGGING_FILE_SIZE_PROP = "logging.file.size";
+
+	/**
+	 * Default size, in bytes, after which the log file is rotated.
+	 */
+	private static final long DEFAULT_FILE_SIZE = 10 * 1024 * 1024;
+
+	/**
+	 * logging.file.count property name.
+	 */
+	private static final String LOGGING_FILE_COUNT_PROP = "logging.file.count";
+
+	/**
+	 * Default number of rotated log files kept.
+	 */
+	private static final long DEFAULT_FILE_COUNT = 5;
+
+	/**
+	 * logging.overflow property name.
+	 */
+	private static final String LOGGING_OVERFLOW_PROP = "logging.overflow";
+
+	/**
+	 * logging.overflow.sample property name.
+	 */
+	private static final String LOGGING_OVERFLOW_SAMPLE_PROP = 
+			"logging.overflow.sample";
+
+	/**
+	 * Default sample rate of the log records that do not fit in the buffer.
+	 */
+	private static final long DEFAULT_OVERFLOW_SAMPLE = 10;
+	
 	/**
 	 * Constructs a <code>AppLoggerProperties</code> object.
 	 */
@@ -36,4 +88,81 @@ public class AppLoggerProperties extends AppProperties {
 		return readPropertyValue(LOGGING_LEVEL_PROP, DEFAULT_LOG_LEVEL);
 	}
 	
+	/**
+	 * Reads if the tracing of method entries and returns is enabled, true 
+	 * by default. The entries and returns are logged only if the logging 
+	 * level is also FINER or lower.
+	 * 
+	 * @return True if the tracing is enabled; False otherwise.
+	 */
+	public final boolean readTracingEnabled() {
+		return Boolean.parseBoolean(readPropertyValue(LOGGING_TRACE_PROP, 
+				Boolean.TRUE.toString()));
+	}
+	
+	/**
+	 * Reads the number of log records the buffer of the log file can hold, 
+	 * 8192 by default.
+	 * 
+	 * @return Number of log records the buffer can hold.
+	 */
+	public final int readBufferSize() {
+		return (int) Math.min(Integer.MAX_VALUE, readLongPropertyValue(
+				LOGGING_BUFFER_SIZE_PROP, DEFAULT_BUFFER_SIZE));
+	}
+	
+	/**
+	 * Reads the size, in bytes, after which the log file is rotated, 10 MB 
+	 * by default; 0 turns the rotation off.
+	 * 
+	 * @return Size after which the log file is rotated.
+	 */
+	public final long readFileSize() {
+		return readNonNegativeLongPropertyValue(LOGGING_FILE_SIZE_PROP, 
+				DEFAULT_FILE_SIZE);
+	}
+	
+	/**
+	 * Reads the number of rotated log files kept, 5 by default; 0 keeps no
+	 * rotated file.
+	 * 
+	 * @return Number of rotated log files kept.
+	 */
+	public final int readFileCount() {
+		return (int) Math.min(Integer.MAX_VALUE, 
+				readNonNegativeLongPropertyValue(LOGGING_FILE_COUNT_PROP, 
+						DEFAULT_FILE_COUNT));
+	}
+	
+	/**
+	 * Reads what to do with the log records that do not fit in the buffer: 
+	 * drop, block or sample; drop by default. WARNING and SEVERE records 
+	 * are never dropped.
+	 * 
+	 * @return Overflow policy of the log buffer.
+	 */
+	public final AsyncFileHandler.OverflowPolicy readOverflowPolicy() {
+		
+		final String value = readPropertyValue(LOGGING_OVERFLOW_PROP, 
+				AsyncFileHandler.OverflowPolicy.DROP.name());
+		
+		try {
+			return AsyncFileHandler.OverflowPolicy.valueOf(
+					value.trim().toUpperCase());
+		} catch (IllegalArgumentException e) {
+			return AsyncFileHandler.OverflowPolicy.DROP;
+		}
+	}
+	
+	/**
+	 * Reads the sample rate of the sample overflow policy: one out of this 
+	 * number of records waits for room in the buffer, 10 by default.
+	 * 
+	 * @return Sample rate of the log records that do not fit in the buffer.
+	 */
+	public final int readOverflowSampleRate() {
+		return (int) Math.min(Integer.MAX_VALUE, readLongPropertyValue(
+				LOGGING_OVERFLOW_SAMPLE_PROP, DEFAULT_OVERFLOW_SAMPLE));
+	}
+	
 }
@@ -0,0 +1,546 @@
+package suncertify.log;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.ErrorManager;
+import java.util.logging.Formatter;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * Handler that writes the log records into a file from a single writer
+ * thread, so the threads that log never wait for the file I/O.
+ * <br />The records are queued into a bounded ring buffer; the writer thread
+ * takes all the queued records at once, formats and writes them, and flushes
+ * the file once per batch. The file is rotated when it grows past a size:
+ * app.log is renamed to app.log.1, app.log.1 to app.log.2, and so on.
+ * <br />When the buffer is full, WARNING and SEVERE records always wait for
+ * room. The lower level records follow the overflow policy: drop them, wait
+ * for room, or wait for room only for one out of every sample rate records
+ * and drop the rest. The number of dropped records is written to the file.
+ *
+ * @author Leo Gutierrez
+ */
+public class AsyncFileHandler extends Handler {
+
+	/**
+	 * What to do with a record that does not fit in the buffer.
+	 */
+	public enum OverflowPolicy {
+
+		/**
+		 * The record is dropped.
+		 */
+		DROP,
+
+		/**
+		 * The logging thread waits until there is room.
+		 */
+		BLOCK,
+
+		/**
+		 * One out of every sample rate records waits until there is room,
+		 * the rest are dropped.
+		 */
+		SAMPLE
+	}
+
+	/**
+	 * Size of the output stream buffer.
+	 */
+	private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Path of the log file.
+	 */
+	private final String path;
+
+	/**
+	 * Size, in bytes, after which the log file is rotated.
+	 */
+	private final long rotationSize;
+
+	/**
+	 * Number of rotated files kept.
+	 */
+	private final int rotationCount;
+
+	/**
+	 * What to do with the records that do not fit in the buffer.
+	 */
+	private final OverflowPolicy overflowPolicy;
+
+	/**
+	 * With the sample policy, one out of this number of records waits.
+	 */
+	private final int sampleRate;
+
+	/**
+	 * Ring buffer of the queued records.
+	 */
+	private final LogRecord[] buffer;
+
+	/**
+	 * Guards the ring buffer.
+	 */
+	private final ReentrantLock mutex = new ReentrantLock();
+
+	/**
+	 * Signaled when a record is queued, or the handler is closed.
+	 */
+	private final Condition recordQueued = mutex.newCondition();
+
+	/**
+	 * Signaled when the writer takes the queued records.
+	 */
+	private final Condition roomAvailable = mutex.newCondition();
+
+	/**
+	 * Signaled when the writer has written all the records taken.
+	 */
+	private final Condition batchWritten = mutex.newCondition();
+
+	/**
+	 * Thread that writes the queued records.
+	 */
+	private final Thread writer;
+
+	/**
+	 * Index of the oldest queued record.
+	 */
+	private int head;
+
+	/**
+	 * Number of queued records.
+	 */
+	private int queued;
+
+	/**
+	 * Number of records dropped and not reported yet.
+	 */
+	private long dropped;
+
+	/**
+	 * Number of records that did not fit in the buffer, for the sampling.
+	 */
+	private long overflowed;
+
+	/**
+	 * Number of batches written, to wait for a flush.
+	 */
+	private long batchesWritten;
+
+	/**
+	 * True if the writer is writing a batch.
+	 */
+	private boolean writing;
+
+	/**
+	 * True when the handler is closed.
+	 */
+	private boolean closed;
+
+	/**
+	 * Stream of the log file, used only by the writer thread.
+	 */
+	private OutputStream output;
+
+	/**
+	 * Bytes written in the current log file.
+	 */
+	private long written;
+
+	/**
+	 * Constructs an <code>AsyncFileHandler</code> object, and starts its
+	 * writer thread.
+	 *
+	 * @param logPath Path of the log file; it is overwritten.
+	 * @param bufferSize Number of records the buffer can hold.
+	 * @param fileSize Size, in bytes, after which the log file is rotated.
+	 * @param fileCount Number of rotated files kept.
+	 * @param policy What to do with the records that do not fit in the
+	 *               buffer.
+	 * @param rate With the sample policy, one out of this number of records
+	 *             waits for room.
+	 * @throws IOException If the log file can't be opened.
+	 */
+	public AsyncFileHandler(final String logPath, final int bufferSize,
+			final long fileSize, final int fileCount,
+			final OverflowPolicy policy, final int rate) throws IOException {
+
+		path = logPath;
+		buffer = new LogRecord[Math.max(1, bufferSize)];
+		rotationSize = fileSize;
+		rotationCount = Math.max(0, fileCount);
+		overflowPolicy = policy;
+		sampleRate = Math.max(1, rate);
+
+		openFile();
+
+		writer = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				writeRecords();
+			}
+
+		}, "AsyncFileHandler");
+
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * Queues the given record to be written.
+	 *
+	 * @param record Log record.
+	 */
+	@Override
+	public final void publish(final LogRecord record) {
+
+		if (!isLoggable(record)) {
+			return;
+		}
+
+		// The caller is inferred from the stack of the logging thread
+		record.getSourceClassName();
+
+		final boolean mustWait =
+				record.getLevel().intValue() >= Level.WARNING.intValue();
+
+		mutex.lock();
+		try {
+
+			if (closed) {
+				return;
+			}
+
+			if ((queued == buffer.length) && (!mustWait)
+					&& (!waitsOnOverflow())) {
+				dropped++;
+				return;
+			}
+
+			while ((queued == buffer.length) && (!closed)) {
+				roomAvailable.awaitUninterruptibly();
+			}
+
+			if (closed) {
+				return;
+			}
+
+			buffer[(head + queued) % buffer.length] = record;
+			queued++;
+
+			recordQueued.signal();
+
+		} finally {
+			mutex.unlock();
+		}
+	}
+
+	/**
+	 * Waits until all the records queued before the call are written and
+	 * flushed.
+	 */
+	@Override
+	public final void flush() {
+
+		mutex.lock();
+		try {
+
+			if ((queued == 0) && (!writing)) {
+				return;
+			}
+
+			// Waits for the batch that takes the records queued now
+			final long batch = batchesWritten
+					+ ((writing && (queued > 0)) ? 2 : 1);
+
+			while ((batchesWritten < batch) && (writer.isAlive())) {
+				batchWritten.awaitUninterruptibly();
+			}
+
+		} finally {
+			mutex.unlock();
+		}
+	}
+
+	/**
+	 * Writes all the queued records, stops the writer thread and closes the
+	 * log file.
+	 */
+	@Override
+	public final void close() {
+
+		mutex.lock();
+		try {
+
+			if (closed) {
+				return;
+			}
+
+			closed = true;
+
+			recordQueued.signal();
+			roomAvailable.signalAll();
+
+		} finally {
+			mutex.unlock();
+		}
+
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Decides if a record that does not fit in the buffer waits for room,
+	 * according to the overflow policy. Must be called while holding the
+	 * mutex.
+	 *
+	 * @return True if the record waits; False if it is dropped.
+	 */
+	private boolean waitsOnOverflow() {
+
+		switch (overflowPolicy) {
+
+		case BLOCK:
+			return true;
+
+		case SAMPLE:
+			return (overflowed++ % sampleRate) == 0;
+
+		default:
+			return false;
+
+		}
+	}
+
+	/**
+	 * Writes the queued records in batches until the handler is closed.
+	 */
+	private void writeRecords() {
+
+		final LogRecord[] batch = new LogRecord[buffer.length];
+
+		while (true) {
+
+			int batchSize = 0;
+			long droppedRecords = 0;
+
+			mutex.lock();
+			try {
+
+				while ((queued == 0) && (dropped == 0) && (!closed)) {
+					recordQueued.awaitUninterruptibly();
+				}
+
+				if ((queued == 0) && (dropped == 0) && closed) {
+					break;
+				}
+
+				while (queued > 0) {
+					batch[batchSize++] = buffer[head];
+					buffer[head] = null;
+					head = (head + 1) % buffer.length;
+					queued--;
+				}
+
+				droppedRecords = dropped;
+				dropped = 0;
+				writing = true;
+
+				roomAvailable.signalAll();
+
+			} finally {
+				mutex.unlock();
+			}
+
+			if (droppedRecords > 0) {
+				write(new LogRecord(Level.WARNING, droppedRecords
+						+ " log records were dropped because the log "
+						+ "buffer was full"));
+			}
+
+			for (int index = 0; index < batchSize; index++) {
+				write(batch[index]);
+				batch[index] = null;
+			}
+
+			flushFile();
+
+			mutex.lock();
+			try {
+				writing = false;
+				batchesWritten++;
+				batchWritten.signalAll();
+			} finally {
+				mutex.unlock();
+			}
+		}
+
+		closeFile();
+
+		mutex.lock();
+		try {
+			batchWritten.signalAll();
+		} finally {
+			mutex.unlock();
+		}
+	}
+
+	/**
+	 * Formats and writes a record into the log file, rotating the file if it
+	 * grows past the rotation size.
+	 *
+	 * @param record Log record.
+	 */
+	private void write(final LogRecord record) {
+
+		if (output == null) {
+			return;
+		}
+
+		final byte[] bytes;
+		try {
+
+			bytes = format(record).getBytes(encodingName());
+
+		} catch (UnsupportedEncodingException e) {
+			reportError(null, e, ErrorManager.FORMAT_FAILURE);
+			return;
+		} catch (RuntimeException e) {
+			reportError(null, e, ErrorManager.FORMAT_FAILURE);
+			return;
+		}
+
+		try {
+
+			output.write(bytes);
+			written += bytes.length;
+
+			if ((rotationSize > 0) && (written >= rotationSize)) {
+				rotate();
+			}
+
+		} catch (IOException e) {
+			reportError(null, e, ErrorManager.WRITE_FAILURE);
+		}
+	}
+
+	/**
+	 * Formats a record with the handler formatter.
+	 *
+	 * @param record Log record.
+	 * @return The formatted record.
+	 */
+	private String format(final LogRecord record) {
+
+		final Formatter formatter = getFormatter();
+
+		if (formatter == null) {
+			return String.valueOf(record.getMessage())
+					+ System.getProperty("line.separator");
+		}
+
+		return formatter.format(record);
+	}
+
+	/**
+	 * Returns the encoding of the log file.
+	 *
+	 * @return Encoding set to the handler, or the platform encoding.
+	 */
+	private String encodingName() {
+
+		final String encoding = getEncoding();
+
+		if (encoding == null) {
+			return System.getProperty("file.encoding");
+		}
+
+		return encoding;
+	}
+
+	/**
+	 * Closes the current log file, shifts the rotated files and opens a new
+	 * log file.
+	 *
+	 * @throws IOException If the new log file can't be opened.
+	 */
+	private void rotate() throws IOException {
+
+		closeFile();
+
+		if (rotationCount > 0) {
+
+			new File(path + "." + rotationCount).delete();
+
+			for (int index = rotationCount - 1; index >= 1; index--) {
+				new File(path + "." + index).renameTo(
+						new File(path + "." + (index + 1)));
+			}
+
+			new File(path).renameTo(new File(path + ".1"));
+		}
+
+		openFile();
+	}
+
+	/**
+	 * Opens the log file, overwriting it.
+	 *
+	 * @throws IOException If the log file can't be opened.
+	 */
+	private void openFile() throws IOException {
+
+		output = new BufferedOutputStream(new FileOutputStream(path),
+				OUTPUT_BUFFER_SIZE);
+		written = 0;
+	}
+
+	/**
+	 * Flushes the log file.
+	 */
+	private void flushFile() {
+
+		if (output == null) {
+			return;
+		}
+
+		try {
+			output.flush();
+		} catch (IOException e) {
+			reportError(null, e, ErrorManager.FLUSH_FAILURE);
+		}
+	}
+
+	/**
+	 * Closes the log file.
+	 */
+	private void closeFile() {
+
+		if (output == null) {
+			return;
+		}
+
+		try {
+			output.close();
+		} catch (IOException e) {
+			reportError(null, e, ErrorManager.CLOSE_FAILURE);
+		}
+
+		output = null;
+	}
+
+}
@@ -0,0 +1,278 @@
+package suncertify.log;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Traces the method entries and returns of a logger, checking if tracing is
+ * on before doing anything else. The parameters are passed to fixed arity
+ * methods, with primitive overloads, so a call made while tracing is off
+ * does not allocate an array nor box a value.
+ * <br />Tracing is on when it is compiled in ({@link #COMPILED}), enabled at
+ * runtime (logging.trace property or {@link #setEnabled(boolean)}) and the
+ * logger level is FINER or lower.
+ *
+ * @author Leo Gutierrez
+ */
+public class Tracer {
+
+	/**
+	 * Compile time switch of the tracing. When false, the tracing methods
+	 * have no code and the JIT removes their calls.
+	 */
+	public static final boolean COMPILED = true;
+
+	/**
+	 * Runtime switch of the tracing, shared by all the tracers.
+	 */
+	private static volatile boolean enabled =
+			new AppLoggerProperties().readTracingEnabled();
+
+	/**
+	 * Logger where the method entries and returns are logged.
+	 */
+	private final Logger logger;
+
+	/**
+	 * Constructs a <code>Tracer</code> object.
+	 *
+	 * @param tracedLogger Logger where the method entries and returns are
+	 *                     logged.
+	 */
+	public Tracer(final Logger tracedLogger) {
+		logger = tracedLogger;
+	}
+
+	/**
+	 * Switches the tracing on or off at runtime, for all the tracers.
+	 *
+	 * @param tracingEnabled True to switch the tracing on; False otherwise.
+	 */
+	public static void setEnabled(final boolean tracingEnabled) {
+		enabled = tracingEnabled;
+	}
+
+	/**
+	 * Verifies if the tracing is switched on at runtime.
+	 *
+	 * @return True if the tracing is switched on; False otherwise.
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Verifies if the method entries and returns are logged.
+	 *
+	 * @return True if the method entries and returns are logged; False
+	 *         otherwise.
+	 */
+	public final boolean isTracing() {
+		return COMPILED && enabled && logger.isLoggable(Level.FINER);
+	}
+
+	/**
+	 * Logs a method entry.
+	 *
+	 * @param sourceClass Name of class that issued the logging request.
+	 * @param sourceMethod Name of method that is being entered.
+	 */
+	public final void entering(final String sourceClass,
+			final String sourceMethod) {
+
+		if (COMPILED && isTracing()) {
+			logger.entering(sourceClass, sourceMethod);
+		}
+	}
+
+	/**
+	 * Logs a method entry.
+	 *
+	 * @param sourceClass Name of class that issued the logging request.
+	 * @param sourceMethod Name of method that is being entered.
+	 * @param param Parameter of the method being entered.
+	 */
+	public final void entering(final String sourceClass,
+			final String sourceMethod, final Object param) {
+
+		if (COMPILED && isTracing()) {
+			logger.entering(sourceClass, sourceMethod, param);
+		}
+	}
+
+	/**
+	 * Logs a method entry.
+	 *
+	 * @param sourceClass Name of class that issued the logging request.
+	 * @param sourceMethod Name of method that is being entered.
+	 * @param param Parameter of the method being entered.
+	 */
+	public final void entering(final String sourceClass,
+			final String sourceMethod, final int param) {
+
+		if (COMPILED && isTracing()) {
+			logger.entering(sourceClass, sourceMethod, Integer.valueOf(param));
+		}
+	}
+
+	/**
+	 * Logs a method entry.
+	 *
+	 * @param sourceClass Name of class that issued the logging request.
+	 * @param sourceMethod Name of method that is being entered.
+	 * @param param1 First parameter of the method being entered.
+	 * @param param2 Second parameter of the method being entered.
+	 */
+	public final void entering(final String sourceClass,
+			final String sourceMethod, final Object param1,
+			final Object param2) {
+
+		if (COMPILED && isTracing()) {
+			logger.entering(sourceClass, sourceMethod,
+					new Object[] {param1, param2});
+		}
+	}
+
+	/**
+	 * Logs a method entry.
+	 *
+	 * @param sourceClass Name of class that issued the logging request.
+	 * @param sourceMethod Name of method that is being entered.
+	 * @param param1 First parameter of the method being entered.
+	 * @param param2 Second parameter of the method being entered.
+	 * @param param3 Third parameter of the method being entered.
+	 */
+	public final void entering(final String sourceClass,
+			final String sourceMethod, final Object param1,
+			final Object param2, final Object param3) {
+
+		if (COMPILED && isTracing()) {
+			logger.entering(sourceClass, sourceMethod,
+					new Object[] {param1, param2, param3});
+		}
+	}
+
+	/**
+	 * Logs a method entry.
+	 *
+	 * @param sourceClass Name of class that issued the logging request.
+	 * @param sourceMethod Name of method that is being entered.
+	 * @param param1 First parameter of the method being entered.
+	 * @param param2 Second parameter of the method being entered.
+	 */
+	public final void entering(final String sourceClass,
+			final String sourceMethod, final int param1, final Object param2) {
+
+		if (COMPILED && isTracing()) {
+			logger.entering(sourceClass, sourceMethod,
+					new Object[] {Integer.valueOf(param1), param2});
+		}
+	}
+
+	/**
+	 * Logs a method entry.
+	 *
+	 * @param sourceClass Name of class that issued the logging request.
+	 * @param sourceMethod Name of method that is being entered.
+	 * @param param1 First parameter of the method being entered.
+	 * @param param2 Second parameter of the method being entered.
+	 */
+	public final void entering(final String sourceClass,
+			final String sourceMethod, final int param1, final long param2) {
+
+		if (COMPILED && isTracing()) {
+			logger.entering(sourceClass, sourceMethod,
+					new Object[] {Integer.valueOf(param1), Long.valueOf(param2)});
+		}
+	}
+
+	/**
+	 * Logs a method entry.
+	 *
+	 * @param sourceClass Name of class that issued the logging request.
+	 * @param sourceMethod Name of method that is being entered.
+	 * @param params Parameters of the method being entered.
+	 */
+	public final void entering(final String sourceClass,
+			final String sourceMethod, final Object[] params) {
+
+		if (COMPILED && isTracing()) {
+			logger.entering(sourceClass, sourceMethod, params);
+		}
+	}
+
+	/**
+	 * Logs a method return.
+	 *
+	 * @param sourceClass Name of class that issued the logging request.
+	 * @param sourceMethod Name of the method.
+	 */
+	public final void exiting(final String sourceClass,
+			final String sourceMethod) {
+
+		if (COMPILED && isTracing()) {
+			logger.exiting(sourceClass, sourceMethod);
+		}
+	}
+
+	/**
+	 * Logs a method return.
+	 *
+	 * @param sourceClass Name of class that issued the logging request.
+	 * @param sourceMethod Name of the method.
+	 * @param result Object that is being returned.
+	 */
+	public final void exiting(final String sourceClass,
+			final String sourceMethod, final Object result) {
+
+		if (COMPILED && isTracing()) {
+			logger.exiting(sourceClass, sourceMethod, result);
+		}
+	}
+
+	/**
+	 * Logs a method return.
+	 *
+	 * @param sourceClass Name of class that issued the logging request.
+	 * @param sourceMethod Name of the method.
+	 * @param result Value that is being returned.
+	 */
+	public final void exiting(final String sourceClass,
+			final String sourceMethod, final int result) {
+
+		if (COMPILED && isTracing()) {
+			logger.exiting(sourceClass, sourceMethod, Integer.valueOf(result));
+		}
+	}
+
+	/**
+	 * Logs a method return.
+	 *
+	 * @param sourceClass Name of class that issued the logging request.
+	 * @param sourceMethod Name of the method.
+	 * @param result Value that is being returned.
+	 */
+	public final void exiting(final String sourceClass,
+			final String sourceMethod, final long result) {
+
+		if (COMPILED && isTracing()) {
+			logger.exiting(sourceClass, sourceMethod, Long.valueOf(result));
+		}
+	}
+
+	/**
+	 * Logs a method return.
+	 *
+	 * @param sourceClass Name of class that issued the logging request.
+	 * @param sourceMethod Name of the method.
+	 * @param result Value that is being returned.
+	 */
+	public final void exiting(final String sourceClass,
+			final String sourceMethod, final boolean result) {
+
+		if (COMPILED && isTracing()) {
+			logger.exiting(sourceClass, sourceMethod, Boolean.valueOf(result));
+		}
+	}
+
+}
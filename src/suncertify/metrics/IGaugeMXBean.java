@@ -0,0 +1,18 @@
+package suncertify.metrics;
+
+/**
+ * Management interface of a gauge: a value read when it is requested, such
+ * as the size of a table.
+ *
+ * @author Leo Gutierrez
+ */
+public interface IGaugeMXBean {
+
+	/**
+	 * Returns the current value of the gauge.
+	 *
+	 * @return Current value.
+	 */
+	long getValue();
+
+}
@@ -0,0 +1,60 @@
+package suncertify.metrics;
+
+/**
+ * Management interface of the metrics of an operation. The latencies are
+ * in nanoseconds.
+ *
+ * @author Leo Gutierrez
+ */
+public interface IOperationMetricsMXBean {
+
+	/**
+	 * Returns the number of times the operation was called.
+	 *
+	 * @return Number of calls.
+	 */
+	long getCount();
+
+	/**
+	 * Returns the number of calls that failed.
+	 *
+	 * @return Number of failed calls.
+	 */
+	long getErrorCount();
+
+	/**
+	 * Returns the mean latency of the operation.
+	 *
+	 * @return Mean latency.
+	 */
+	long getMeanLatency();
+
+	/**
+	 * Returns the median latency of the operation.
+	 *
+	 * @return Median latency.
+	 */
+	long getMedianLatency();
+
+	/**
+	 * Returns the 99th percentile latency of the operation.
+	 *
+	 * @return 99th percentile latency.
+	 */
+	long getP99Latency();
+
+	/**
+	 * Returns the 99.9th percentile latency of the operation.
+	 *
+	 * @return 99.9th percentile latency.
+	 */
+	long getP999Latency();
+
+	/**
+	 * Returns the highest latency of the operation.
+	 *
+	 * @return Highest latency.
+	 */
+	long getMaxLatency();
+
+}
@@ -0,0 +1,239 @@
+package suncertify.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of latencies, in nanoseconds, with logarithmic buckets: every
+ * power of two is split into 8 sub-buckets, so a latency is known with a
+ * precision of 12.5% whatever its magnitude. Latencies over 2^41 ns (about
+ * 36 minutes) are counted in the last bucket.
+ * <br />The buckets and the latency sum are striped by thread, so recording
+ * a latency never locks and seldom contends; the stripes are added up only
+ * when the histogram is read.
+ *
+ * @author Leo Gutierrez
+ */
+public class LatencyHistogram {
+
+	/**
+	 * Number of bits of the sub-bucket index.
+	 */
+	private static final int SUB_BUCKET_BITS = 3;
+
+	/**
+	 * Number of sub-buckets per power of two.
+	 */
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	/**
+	 * Highest power of two with its own buckets.
+	 */
+	private static final int MAX_EXPONENT = 40;
+
+	/**
+	 * Highest latency with its own bucket.
+	 */
+	private static final long MAX_LATENCY = (1L << (MAX_EXPONENT + 1)) - 1;
+
+	/**
+	 * Number of buckets per stripe.
+	 */
+	private static final int BUCKETS =
+			(MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+	/**
+	 * Distance between the latency sums of two stripes, so they are not in
+	 * the same cache line.
+	 */
+	private static final int SUM_PADDING = 8;
+
+	/**
+	 * Number of stripes, a power of two.
+	 */
+	private static final int STRIPES = numberOfStripes();
+
+	/**
+	 * Count of latencies by stripe and bucket.
+	 */
+	private final AtomicLongArray counts =
+			new AtomicLongArray(STRIPES * BUCKETS);
+
+	/**
+	 * Sum of latencies by stripe.
+	 */
+	private final AtomicLongArray sums =
+			new AtomicLongArray(STRIPES * SUM_PADDING);
+
+	/**
+	 * Highest latency recorded.
+	 */
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Records a latency.
+	 *
+	 * @param latency Latency in nanoseconds; negative values count as 0.
+	 */
+	public final void record(final long latency) {
+
+		final long value = Math.max(0, latency);
+		final int stripe =
+				(int) Thread.currentThread().getId() & (STRIPES - 1);
+
+		counts.incrementAndGet(stripe * BUCKETS + bucketOf(value));
+		sums.addAndGet(stripe * SUM_PADDING, value);
+
+		long currentMax = max.get();
+		while ((value > currentMax) && (!max.compareAndSet(currentMax, value))) {
+			currentMax = max.get();
+		}
+	}
+
+	/**
+	 * Returns the number of latencies recorded.
+	 *
+	 * @return Number of latencies recorded.
+	 */
+	public final long getCount() {
+
+		long count = 0;
+		for (int index = 0; index < counts.length(); index++) {
+			count += counts.get(index);
+		}
+
+		return count;
+	}
+
+	/**
+	 * Returns the mean of the latencies recorded.
+	 *
+	 * @return Mean latency in nanoseconds, 0 if nothing was recorded.
+	 */
+	public final long getMean() {
+
+		final long count = getCount();
+		if (count == 0) {
+			return 0;
+		}
+
+		long sum = 0;
+		for (int stripe = 0; stripe < STRIPES; stripe++) {
+			sum += sums.get(stripe * SUM_PADDING);
+		}
+
+		return sum / count;
+	}
+
+	/**
+	 * Returns the highest latency recorded.
+	 *
+	 * @return Highest latency in nanoseconds, 0 if nothing was recorded.
+	 */
+	public final long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * Returns the latency under which the given percentage of the latencies
+	 * recorded are, rounded up to the end of its bucket.
+	 *
+	 * @param percentile Percentage, from 0 to 100.
+	 * @return Latency in nanoseconds, 0 if nothing was recorded.
+	 */
+	public final long getPercentile(final double percentile) {
+
+		final long[] bucketCounts = new long[BUCKETS];
+
+		long count = 0;
+		for (int index = 0; index < counts.length(); index++) {
+			final long bucketCount = counts.get(index);
+			bucketCounts[index % BUCKETS] += bucketCount;
+			count += bucketCount;
+		}
+
+		if (count == 0) {
+			return 0;
+		}
+
+		final long rank = Math.max(1,
+				(long) Math.ceil(count * Math.min(100, percentile) / 100));
+
+		long seen = 0;
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+
+			seen += bucketCounts[bucket];
+
+			if (seen >= rank) {
+				return Math.min(upperBoundOf(bucket), getMax());
+			}
+		}
+
+		return getMax();
+	}
+
+	/**
+	 * Returns the bucket where a latency is counted.
+	 *
+	 * @param latency Latency in nanoseconds, not negative.
+	 * @return Bucket index.
+	 */
+	private static int bucketOf(final long latency) {
+
+		if (latency < SUB_BUCKETS) {
+			return (int) latency;
+		}
+
+		final long value = Math.min(latency, MAX_LATENCY);
+		final int exponent = 63 - Long.numberOfLeadingZeros(value);
+		final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS))
+				& (SUB_BUCKETS - 1);
+
+		return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS)
+				| subBucket;
+	}
+
+	/**
+	 * Returns the highest latency counted in a bucket.
+	 *
+	 * @param bucket Bucket index.
+	 * @return Highest latency of the bucket, in nanoseconds.
+	 */
+	private static long upperBoundOf(final int bucket) {
+
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+
+		// The last bucket also counts the latencies over the maximum
+		if (bucket == BUCKETS - 1) {
+			return Long.MAX_VALUE;
+		}
+
+		final int shift = (bucket >> SUB_BUCKET_BITS) - 1;
+		final long lowerBound =
+				(long) (SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1))) << shift;
+
+		return lowerBound + (1L << shift) - 1;
+	}
+
+	/**
+	 * Returns the number of stripes: the number of processors rounded up to
+	 * a power of two, at most 16.
+	 *
+	 * @return Number of stripes.
+	 */
+	private static int numberOfStripes() {
+
+		final int processors = Math.min(16,
+				Runtime.getRuntime().availableProcessors());
+
+		int stripes = 1;
+		while (stripes < processors) {
+			stripes <<= 1;
+		}
+
+		return stripes;
+	}
+
+}
@@ -0,0 +1,52 @@
+package suncertify.metrics;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import suncertify.log.AppLogger;
+
+/**
+ * Logger to use into <code>suncertify.metrics</code> package.
+ * 
+ * @author Leo Gutierrez
+ */
+public class MetricsLogger {
+
+	/**
+	 * Logger.
+	 */
+	private static final Logger LOGGER = 
+			AppLogger.getLogger("suncertify.metrics");
+	
+	/**
+	 * Constructor.
+	 */
+	protected MetricsLogger() {
+		
+	}
+	
+	/**
+	 * Logs a message with the level INFO.
+	 * 
+	 * @param sourceClass Name of class that issued the logging request.
+	 * @param sourceMethod Name of the method.
+	 * @param msg Message to log.
+	 */
+	public static void info(final String sourceClass, 
+			final String sourceMethod, final String msg) {
+		LOGGER.logp(Level.INFO, sourceClass, sourceMethod, msg);
+	}
+	
+	/**
+	 * Logs a message with the level WARNING.
+	 * 
+	 * @param sourceClass Name of class that issued the logging request.
+	 * @param sourceMethod Name of the method.
+	 * @param msg Message to log.
+	 */
+	public static void warning(final String sourceClass, 
+			final String sourceMethod, final String msg) {
+		LOGGER.logp(Level.WARNING, sourceClass, sourceMethod, msg);
+	}
+	
+}
@@ -0,0 +1,264 @@
+package suncertify.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Keeps the metrics of the application by name, and publishes them over JMX
+ * under the suncertify domain as they are registered:
+ * <br />- suncertify:type=Operation,name=<i>name</i> for the operations.
+ * <br />- suncertify:type=Gauge,name=<i>name</i> for the gauges.
+ * <br />- suncertify:type=Profiler,name=<i>name</i> for the profilers.
+ * <br />The metrics can also be written periodically into the log.
+ *
+ * @author Leo Gutierrez
+ */
+public class MetricsRegistry {
+
+	/**
+	 * Class name.
+	 */
+	private static final String CLASS_NAME = MetricsRegistry.class.getName();
+
+	/**
+	 * JMX domain of the metrics.
+	 */
+	private static final String JMX_DOMAIN = "suncertify";
+
+	/**
+	 * Operation metrics, by name.
+	 */
+	private static final ConcurrentMap<String, OperationMetrics> OPERATIONS =
+			new ConcurrentSkipListMap<String, OperationMetrics>();
+
+	/**
+	 * Gauges, by name.
+	 */
+	private static final ConcurrentMap<String, IGaugeMXBean> GAUGES =
+			new ConcurrentSkipListMap<String, IGaugeMXBean>();
+
+	/**
+	 * Executor of the periodic dump, null if it is not started.
+	 */
+	private static ScheduledExecutorService dumpExecutor;
+
+	/**
+	 * Constructor.
+	 */
+	protected MetricsRegistry() {
+
+	}
+
+	/**
+	 * Returns the metrics of the operation with the given name, registering
+	 * them if they do not exist.
+	 *
+	 * @param name Operation name.
+	 * @return Metrics of the operation.
+	 */
+	public static OperationMetrics operation(final String name) {
+
+		final OperationMetrics metrics = OPERATIONS.get(name);
+		if (metrics != null) {
+			return metrics;
+		}
+
+		final OperationMetrics newMetrics = new OperationMetrics(name);
+
+		final OperationMetrics existingMetrics =
+				OPERATIONS.putIfAbsent(name, newMetrics);
+		if (existingMetrics != null) {
+			return existingMetrics;
+		}
+
+		registerMBean("Operation", name, newMetrics);
+
+		return newMetrics;
+	}
+
+	/**
+	 * Registers a gauge with the given name, replacing the previous gauge
+	 * with the same name.
+	 *
+	 * @param name Gauge name.
+	 * @param gauge Gauge to register.
+	 */
+	public static void registerGauge(final String name,
+			final IGaugeMXBean gauge) {
+
+		if (GAUGES.put(name, gauge) != null) {
+			unregisterMBean("Gauge", name);
+		}
+
+		registerMBean("Gauge", name, gauge);
+	}
+
+	/**
+	 * Publishes a profiler over JMX. The profiler is not part of the 
+	 * metrics summary.
+	 *
+	 * @param name Profiler name.
+	 * @param profiler MBean or MXBean of the profiler.
+	 */
+	public static void registerProfiler(final String name,
+			final Object profiler) {
+
+		registerMBean("Profiler", name, profiler);
+	}
+
+	/**
+	 * Returns a summary of all the metrics, one line per metric, sorted by
+	 * name.
+	 *
+	 * @return Summary of the metrics.
+	 */
+	public static List<String> report() {
+
+		final List<String> lines = new ArrayList<String>();
+
+		for (OperationMetrics metrics : OPERATIONS.values()) {
+			lines.add(metrics.toString());
+		}
+
+		for (Map.Entry<String, IGaugeMXBean> gauge : GAUGES.entrySet()) {
+			lines.add(gauge.getKey() + ": " + gauge.getValue().getValue());
+		}
+
+		return lines;
+	}
+
+	/**
+	 * Starts writing the metrics into the log periodically, at the level
+	 * INFO. If the dump is already started, it is restarted with the given
+	 * period.
+	 *
+	 * @param periodSeconds Seconds between two dumps.
+	 */
+	public static synchronized void startDump(final long periodSeconds) {
+
+		stopDump();
+
+		dumpExecutor = Executors.newSingleThreadScheduledExecutor(
+				new ThreadFactory() {
+
+					public Thread newThread(final Runnable runnable) {
+
+						final Thread thread =
+								new Thread(runnable, "MetricsDump");
+						thread.setDaemon(true);
+
+						return thread;
+					}
+
+				});
+
+		dumpExecutor.scheduleAtFixedRate(new Runnable() {
+
+			public void run() {
+				dump();
+			}
+
+		}, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Stops the periodic dump of the metrics, if started.
+	 */
+	public static synchronized void stopDump() {
+
+		if (dumpExecutor != null) {
+			dumpExecutor.shutdownNow();
+			dumpExecutor = null;
+		}
+	}
+
+	/**
+	 * Writes all the metrics into the log.
+	 */
+	public static void dump() {
+
+		final StringBuilder message = new StringBuilder("Metrics:");
+
+		for (String line : report()) {
+			message.append(System.getProperty("line.separator"));
+			message.append(line);
+		}
+
+		MetricsLogger.info(CLASS_NAME, "dump", message.toString());
+	}
+
+	/**
+	 * Registers a bean into the platform MBean server. A failure is logged,
+	 * the metrics still work without JMX.
+	 *
+	 * @param type Metric type.
+	 * @param name Metric name.
+	 * @param bean Bean to register.
+	 */
+	private static void registerMBean(final String type, final String name,
+			final Object bean) {
+
+		try {
+
+			ManagementFactory.getPlatformMBeanServer().registerMBean(bean,
+					objectName(type, name));
+
+		} catch (JMException e) {
+
+			MetricsLogger.warning(CLASS_NAME, "registerMBean", "Unable to "
+					+ "register the metric " + name + " into JMX: "
+					+ e.getMessage());
+
+		}
+	}
+
+	/**
+	 * Unregisters a bean from the platform MBean server.
+	 *
+	 * @param type Metric type.
+	 * @param name Metric name.
+	 */
+	private static void unregisterMBean(final String type,
+			final String name) {
+
+		try {
+
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(
+					objectName(type, name));
+
+		} catch (JMException e) {
+
+			MetricsLogger.warning(CLASS_NAME, "unregisterMBean", "Unable to "
+					+ "unregister the metric " + name + " from JMX: "
+					+ e.getMessage());
+
+		}
+	}
+
+	/**
+	 * Returns the JMX name of a metric.
+	 *
+	 * @param type Metric type.
+	 * @param name Metric name.
+	 * @return JMX name of the metric.
+	 * @throws JMException If the name is not valid.
+	 */
+	private static ObjectName objectName(final String type, final String name)
+			throws JMException {
+
+		return new ObjectName(JMX_DOMAIN + ":type=" + type + ",name="
+				+ ObjectName.quote(name));
+	}
+
+}
@@ -0,0 +1,154 @@
+package suncertify.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the calls, the errors and the latencies of an operation.
+ * <br />The caller takes the start time with <code>System.nanoTime()</code>
+ * and records the call when the operation ends:
+ * <br /><code>final long startTime = System.nanoTime();</code>
+ * <br /><code>...</code>
+ * <br /><code>metrics.record(startTime, succeeded);</code>
+ *
+ * @author Leo Gutierrez
+ */
+public class OperationMetrics implements IOperationMetricsMXBean {
+
+	/**
+	 * Operation name.
+	 */
+	private final String name;
+
+	/**
+	 * Latencies of the calls.
+	 */
+	private final LatencyHistogram latencies = new LatencyHistogram();
+
+	/**
+	 * Number of calls that failed.
+	 */
+	private final AtomicLong errors = new AtomicLong();
+
+	/**
+	 * Constructs an <code>OperationMetrics</code> object.
+	 *
+	 * @param operationName Operation name.
+	 */
+	public OperationMetrics(final String operationName) {
+		name = operationName;
+	}
+
+	/**
+	 * Records a call of the operation that ends now.
+	 *
+	 * @param startTime Value of <code>System.nanoTime()</code> when the call
+	 *                  started.
+	 * @param succeeded True if the call succeeded; False if it failed.
+	 */
+	public final void record(final long startTime, final boolean succeeded) {
+
+		latencies.record(System.nanoTime() - startTime);
+
+		if (!succeeded) {
+			errors.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Records the latency of a successful call of the operation.
+	 *
+	 * @param latency Latency in nanoseconds.
+	 */
+	public final void recordLatency(final long latency) {
+		latencies.record(latency);
+	}
+
+	/**
+	 * Returns the operation name.
+	 *
+	 * @return Operation name.
+	 */
+	public final String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns the number of times the operation was called.
+	 *
+	 * @return Number of calls.
+	 */
+	public final long getCount() {
+		return latencies.getCount();
+	}
+
+	/**
+	 * Returns the number of calls that failed.
+	 *
+	 * @return Number of failed calls.
+	 */
+	public final long getErrorCount() {
+		return errors.get();
+	}
+
+	/**
+	 * Returns the mean latency of the operation, in nanoseconds.
+	 *
+	 * @return Mean latency.
+	 */
+	public final long getMeanLatency() {
+		return latencies.getMean();
+	}
+
+	/**
+	 * Returns the median latency of the operation, in nanoseconds.
+	 *
+	 * @return Median latency.
+	 */
+	public final long getMedianLatency() {
+		return latencies.getPercentile(50);
+	}
+
+	/**
+	 * Returns the 99th percentile latency of the operation, in 
+	 * nanoseconds.
+	 *
+	 * @return 99th percentile latency.
+	 */
+	public final long getP99Latency() {
+		return latencies.getPercentile(99);
+	}
+
+	/**
+	 * Returns the 99.9th percentile latency of the operation, in 
+	 * nanoseconds.
+	 *
+	 * @return 99.9th percentile latency.
+	 */
+	public final long getP999Latency() {
+		return latencies.getPercentile(99.9);
+	}
+
+	/**
+	 * Returns the highest latency of the operation, in nanoseconds.
+	 *
+	 * @return Highest latency.
+	 */
+	public final long getMaxLatency() {
+		return latencies.getMax();
+	}
+
+	/**
+	 * Returns a one line summary of the metrics, latencies in nanoseconds.
+	 *
+	 * @return Summary of the metrics.
+	 */
+	public final String toString() {
+
+		return name + ": count=" + getCount() + " errors=" + getErrorCount()
+				+ " mean=" + getMeanLatency() + "ns p50="
+				+ getMedianLatency() + "ns p99=" + getP99Latency()
+				+ "ns p99.9=" + getP999Latency() + "ns max="
+				+ getMaxLatency() + "ns";
+	}
+
+}
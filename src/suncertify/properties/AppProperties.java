@@ -8,6 +8,8 @@ import java.util.Properties;
 
 /**
  * Loads the suncertify.properties file.
+ * <br />A system property with the same name overrides the value of the 
+ * file (i.e. -Ddb.path=...), without updating the file.
  * 
  * @author Leo Gutierrez
  */
@@ -137,9 +139,9 @@ public class AppProperties {
 	}
 	
 	/**
-	 * Searches for the property with the specified name in the properties 
-	 * file. If the property is not found, then the specified default value
-	 * is returned.
+	 * Searches for the property with the specified name in the system 
+	 * properties, and then in the properties file. If the property is not 
+	 * found, then the specified default value is returned.
 	 * 
 	 * @param propertyName Property to search.
 	 * @param defaultValue Default value to set if property is not found.
@@ -147,6 +149,68 @@ public class AppProperties {
 	 */
 	public final String readPropertyValue(final String propertyName,
 			final String defaultValue) {
-		return PROPERTIES.getProperty(propertyName, defaultValue);
+		return System.getProperty(propertyName, 
+				PROPERTIES.getProperty(propertyName, defaultValue));
+	}
+	
+	/**
+	 * Reads a positive numeric property value. If the property is not 
+	 * defined or is not a positive number, the default value is returned.
+	 * 
+	 * @param propertyName Property to read.
+	 * @param defaultValue Default value.
+	 * @return Property value if valid; otherwise the default value.
+	 */
+	protected final long readLongPropertyValue(final String propertyName, 
+			final long defaultValue) {
+		return readLongPropertyValue(propertyName, defaultValue, 1);
+	}
+	
+	/**
+	 * Reads a non-negative numeric property value. If the property is not 
+	 * defined or is a negative number or not a number, the default value 
+	 * is returned.
+	 * 
+	 * @param propertyName Property to read.
+	 * @param defaultValue Default value.
+	 * @return Property value if valid; otherwise the default value.
+	 */
+	protected final long readNonNegativeLongPropertyValue(
+			final String propertyName, final long defaultValue) {
+		return readLongPropertyValue(propertyName, defaultValue, 0);
+	}
+	
+	/**
+	 * Reads a numeric property value not lower than the given minimum. If 
+	 * the property is not defined or is not a valid number, the default 
+	 * value is returned.
+	 * 
+	 * @param propertyName Property to read.
+	 * @param defaultValue Default value.
+	 * @param minValue Minimum valid value.
+	 * @return Property value if valid; otherwise the default value.
+	 */
+	private long readLongPropertyValue(final String propertyName, 
+			final long defaultValue, final long minValue) {
+		
+		final String value = readPropertyValue(propertyName, null);
+		
+		if (value == null) {
+			return defaultValue;
+		}
+		
+		try {
+			
+			final long longValue = Long.parseLong(value.trim());
+			
+			if (longValue >= minValue) {
+				return longValue;
+			}
+			
+		} catch (NumberFormatException e) {
+			// The default value is returned
+		}
+		
+		return defaultValue;
 	}
 }
@@ -5,6 +5,8 @@ import java.rmi.RemoteException;
 import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
 
+import suncertify.metrics.MetricsRegistry;
+
 /**
  * Registers and initializes the server (Database) through RMI.
  * 
@@ -30,7 +32,8 @@ public class RegisterDatabase {
 	}
 	
 	/**
-	 * Binds the database and initializes the server.
+	 * Binds the database and initializes the server, and starts the 
+	 * periodic dump of the metrics into the log.
 	 * 
 	 * @throws RemoteException If any networking error occurs.
 	 */
@@ -47,6 +50,9 @@ public class RegisterDatabase {
 			registry.rebind(RemoteConstants.DATABASE_BIND_NAME,
 					new RemoteDatabase());
 			
+			MetricsRegistry.startDump(
+					new RemoteProperties().readMetricsDumpInterval());
+			
 		} finally {
 			
 			RemoteLogger.exiting(CLASS_NAME, methodName);
@@ -55,13 +61,15 @@ public class RegisterDatabase {
 	}
 
 	/**
-	 * Unbinds the server.
+	 * Unbinds the server, and stops the periodic dump of the metrics.
 	 */
 	public static void unbind() {
 		
 		final String methodName = "unbind";
 		RemoteLogger.entering(CLASS_NAME, methodName);
 		
+		MetricsRegistry.stopDump();
+		
 		if (registry != null) {
 			
 			try {
@@ -33,4 +33,15 @@ public class RemoteConstants {
 	 * Bind name for the database.
 	 */
 	public static final String DATABASE_BIND_NAME = "DBMediator";
+	
+	/**
+	 * metrics.dump.interval property name.
+	 */
+	public static final String METRICS_DUMP_INTERVAL_PROP = 
+			"metrics.dump.interval";
+	
+	/**
+	 * Default seconds between two dumps of the metrics into the log.
+	 */
+	public static final long DEFAULT_METRICS_DUMP_INTERVAL = 60;
 }
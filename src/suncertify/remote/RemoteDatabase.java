@@ -7,8 +7,11 @@ import java.util.List;
 import suncertify.db.Database;
 import suncertify.db.DuplicateKeyException;
 import suncertify.db.IDatabase;
+import suncertify.db.MatchMode;
 import suncertify.db.Record;
 import suncertify.db.RecordNotFoundException;
+import suncertify.metrics.MetricsRegistry;
+import suncertify.metrics.OperationMetrics;
 
 /**
  * Provides the functionality for remote access to the database.
@@ -23,6 +26,60 @@ public class RemoteDatabase extends UnicastRemoteObject implements IDatabase {
 	 */
 	private static final long serialVersionUID = 8974663L;
 
+	/**
+	 * Metrics of the remote create operation.
+	 */
+	private static final OperationMetrics CREATE_METRICS = 
+			MetricsRegistry.operation("RemoteDatabase.create");
+	
+	/**
+	 * Metrics of the remote delete operation.
+	 */
+	private static final OperationMetrics DELETE_METRICS = 
+			MetricsRegistry.operation("RemoteDatabase.delete");
+	
+	/**
+	 * Metrics of the remote update operation.
+	 */
+	private static final OperationMetrics UPDATE_METRICS = 
+			MetricsRegistry.operation("RemoteDatabase.update");
+	
+	/**
+	 * Metrics of the remote book operation.
+	 */
+	private static final OperationMetrics BOOK_METRICS = 
+			MetricsRegistry.operation("RemoteDatabase.book");
+	
+	/**
+	 * Metrics of the remote read operation.
+	 */
+	private static final OperationMetrics READ_METRICS = 
+			MetricsRegistry.operation("RemoteDatabase.read");
+	
+	/**
+	 * Metrics of the remote batch read operation.
+	 */
+	private static final OperationMetrics READ_MANY_METRICS = 
+			MetricsRegistry.operation("RemoteDatabase.readMany");
+	
+	/**
+	 * Metrics of the remote find operation.
+	 */
+	private static final OperationMetrics FIND_METRICS = 
+			MetricsRegistry.operation("RemoteDatabase.find");
+
+	/**
+	 * Metrics of the remote open cursor operation.
+	 */
+	private static final OperationMetrics OPEN_CURSOR_METRICS = 
+			MetricsRegistry.operation("RemoteDatabase.openCursor");
+	
+	/**
+	 * Metrics of the remote next page operation.
+	 */
+	private static final OperationMetrics NEXT_PAGE_METRICS = 
+			MetricsRegistry.operation("RemoteDatabase.nextPage");
+
 	/**
 	 * Reference to the database object.
 	 */
@@ -49,7 +106,20 @@ public class RemoteDatabase extends UnicastRemoteObject implements IDatabase {
 	public final int create(final Record record) throws DuplicateKeyException,
 			RemoteException {
 		
-		return database.create(record);
+		final long startTime = System.nanoTime();
+		boolean succeeded = false;
+		
+		try {
+			
+			final int recordRow = database.create(record);
+			
+			succeeded = true;
+			
+			return recordRow;
+			
+		} finally {
+			CREATE_METRICS.record(startTime, succeeded);
+		}
 		
 	}
 
@@ -64,7 +134,18 @@ public class RemoteDatabase extends UnicastRemoteObject implements IDatabase {
 	public final void delete(final int recordRow) throws RecordNotFoundException,
 			RemoteException {
 
-		database.delete(recordRow);
+		final long startTime = System.nanoTime();
+		boolean succeeded = false;
+		
+		try {
+			
+			database.delete(recordRow);
+			
+			succeeded = true;
+			
+		} finally {
+			DELETE_METRICS.record(startTime, succeeded);
+		}
 
 	}
 
@@ -80,7 +161,51 @@ public class RemoteDatabase extends UnicastRemoteObject implements IDatabase {
 	public final void update(final int recordRow, final Record record)
 			throws RecordNotFoundException, RemoteException {
 		
-		database.update(recordRow, record);
+		final long startTime = System.nanoTime();
+		boolean succeeded = false;
+		
+		try {
+			
+			database.update(recordRow, record);
+			
+			succeeded = true;
+			
+		} finally {
+			UPDATE_METRICS.record(startTime, succeeded);
+		}
+		
+	}
+
+	/**
+	 * Books the room of the specified record position for the given owner,
+	 * only if the room is not booked yet.
+	 * 
+	 * @param recordRow Record position of the room to book.
+	 * @param ownerId Owner id value that books the room.
+	 * @return True if the room was booked; False if it was already booked.
+	 * @throws RecordNotFoundException If the record is not found or it is 
+	 *                                 deleted.
+	 * @throws IllegalArgumentException If the owner id value is not valid.
+	 * @throws RemoteException If any networking error occurs.
+	 */
+	public final boolean book(final int recordRow, final String ownerId)
+			throws RecordNotFoundException, IllegalArgumentException, 
+			RemoteException {
+		
+		final long startTime = System.nanoTime();
+		boolean succeeded = false;
+		
+		try {
+			
+			final boolean roomBooked = database.book(recordRow, ownerId);
+			
+			succeeded = true;
+			
+			return roomBooked;
+			
+		} finally {
+			BOOK_METRICS.record(startTime, succeeded);
+		}
 		
 	}
 
@@ -97,10 +222,51 @@ public class RemoteDatabase extends UnicastRemoteObject implements IDatabase {
 	public final Record read(final int recordRow) throws RecordNotFoundException,
 			RemoteException {
 		
-		return database.read(recordRow);
+		final long startTime = System.nanoTime();
+		boolean succeeded = false;
+		
+		try {
+			
+			final Record record = database.read(recordRow);
+			
+			succeeded = true;
+			
+			return record;
+			
+		} finally {
+			READ_METRICS.record(startTime, succeeded);
+		}
 		
 	}
 
+	/**
+	 * Reads the records in the specified record positions at once. The 
+	 * record positions not found, or deleted, are skipped.
+	 * 
+	 * @param recordRows Record positions where to read.
+	 * @return The records read, in the same order as their positions. 
+	 * @throws RemoteException If any networking error occurs.
+	 */
+	public final List<Record> readMany(final int[] recordRows) 
+			throws RemoteException {
+		
+		final long startTime = System.nanoTime();
+		boolean succeeded = false;
+		
+		try {
+			
+			final List<Record> records = database.readMany(recordRows);
+			
+			succeeded = true;
+			
+			return records;
+			
+		} finally {
+			READ_MANY_METRICS.record(startTime, succeeded);
+		}
+		
+	}
+	
 	/**
 	 * Locates and retrieves record(s) in the database that start with
 	 * the given name and location values. 
@@ -122,7 +288,129 @@ public class RemoteDatabase extends UnicastRemoteObject implements IDatabase {
 	public final List<Record> find(final String name, final String location)
 			throws RemoteException {
 		
-		return database.find(name, location);
+		return find(name, location, MatchMode.STARTS_WITH);
+		
+	}
+	
+	/**
+	 * Locates and retrieves record(s) in the database whose name and location
+	 * match the given values in the given match mode. The values are 
+	 * compared on the server, through the field indexes, so only the 
+	 * matching records are retrieved.
+	 * <br />The values can be null or empty:
+	 * <br />- If name is null or empty, all name values in database will 
+	 * match.
+	 * <br />- If location is null or empty, all location values in database 
+	 * will match.
+	 * <br />- If both are null or empty, all records are retrieved.
+	 * 
+	 * @param name Name to search. Can be null or empty (will match any name 
+	 *             value).
+	 * @param location Location to search. Can be null or empty (will match 
+	 *                 any location value).
+	 * @param matchMode How the values are compared with the name and 
+	 *                  location of the records.
+	 * @return Record(s) found during the search. If no record is found, an 
+	 *         empty list is returned.
+	 * @throws RemoteException If any networking error occurs.
+	 */
+	public final List<Record> find(final String name, final String location,
+			final MatchMode matchMode) throws RemoteException {
+		
+		final long startTime = System.nanoTime();
+		boolean succeeded = false;
+		
+		try {
+			
+			final List<Record> records = 
+					database.find(name, location, matchMode);
+			
+			succeeded = true;
+			
+			return records;
+			
+		} finally {
+			FIND_METRICS.record(startTime, succeeded);
+		}
+		
+	}
+	
+	/**
+	 * Opens a cursor over the record(s) in the database that start with the
+	 * given name and location values, as {@link #find(String, String)} 
+	 * does. The records are retrieved one page at a time with 
+	 * {@link #nextPage(long)}; the cursor must be closed with 
+	 * {@link #closeCursor(long)} if not all the pages are retrieved.
+	 * 
+	 * @param name Name to search. Can be null or empty (will match any name 
+	 *             value).
+	 * @param location Location to search. Can be null or empty (will match 
+	 *                 any location value).
+	 * @param pageSize Maximum number of records of each page.
+	 * @return Id of the cursor.
+	 * @throws RemoteException If any networking error occurs.
+	 */
+	public final long openCursor(final String name, final String location,
+			final int pageSize) throws RemoteException {
+		
+		final long startTime = System.nanoTime();
+		boolean succeeded = false;
+		
+		try {
+			
+			final long cursorId = 
+					database.openCursor(name, location, pageSize);
+			
+			succeeded = true;
+			
+			return cursorId;
+			
+		} finally {
+			OPEN_CURSOR_METRICS.record(startTime, succeeded);
+		}
+		
+	}
+	
+	/**
+	 * Retrieves the next page of records of a find cursor. An empty page 
+	 * means that all the records were retrieved, and the cursor is closed.
+	 * 
+	 * @param cursorId Id of the cursor.
+	 * @return The records of the next page, empty if there are no more.
+	 * @throws IllegalArgumentException If the cursor is not open, or it was
+	 *                                  closed because it was idle.
+	 * @throws RemoteException If any networking error occurs.
+	 */
+	public final List<Record> nextPage(final long cursorId) 
+			throws IllegalArgumentException, RemoteException {
+		
+		final long startTime = System.nanoTime();
+		boolean succeeded = false;
+		
+		try {
+			
+			final List<Record> page = database.nextPage(cursorId);
+			
+			succeeded = true;
+			
+			return page;
+			
+		} finally {
+			NEXT_PAGE_METRICS.record(startTime, succeeded);
+		}
+		
+	}
+	
+	/**
+	 * Closes a find cursor. Closing a cursor that is not open does nothing.
+	 * 
+	 * @param cursorId Id of the cursor.
+	 * @throws RemoteException If any networking error occurs.
+	 */
+	public final void closeCursor(final long cursorId) 
+			throws RemoteException {
+		
+		database.closeCursor(cursorId);
 		
 	}
 
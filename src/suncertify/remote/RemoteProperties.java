@@ -55,4 +55,16 @@ public class RemoteProperties extends AppProperties {
 	public final void updateRMIHost(final String rmiHost) {
 		savePropertyValue(RemoteConstants.RMI_HOST_PROP, rmiHost);
 	}
+	
+	/**
+	 * Reads the seconds between two dumps of the server metrics into the 
+	 * log. If the property is not found or is not a positive number, the 
+	 * default value is returned as 60.
+	 * 
+	 * @return Seconds between two dumps of the metrics.
+	 */
+	public final long readMetricsDumpInterval() {
+		return readLongPropertyValue(RemoteConstants.METRICS_DUMP_INTERVAL_PROP,
+				RemoteConstants.DEFAULT_METRICS_DUMP_INTERVAL);
+	}
 }
@@ -0,0 +1,109 @@
+package suncertify.db.test;
+
+import java.io.IOException;
+
+import junit.framework.TestCase;
+import suncertify.db.BookResult;
+import suncertify.db.Data;
+import suncertify.db.Database;
+import suncertify.db.Record;
+import suncertify.db.RecordNotFoundException;
+
+public class DataBookTest extends TestCase {
+
+	private Data data;
+
+	private Database database;
+
+	public void setUp() throws IOException {
+
+		GeneratedDataFile.open();
+
+		data = new Data();
+		database = new Database();
+	}
+
+	public void testBookWritesOnlyTheOwner() throws Exception {
+
+		final int recordRow = GeneratedDataFile.createRecord(data);
+		final byte[] before = GeneratedDataFile.readRecordBytes(recordRow);
+
+		assertEquals(BookResult.BOOKED, data.book(recordRow, "12345678"));
+
+		final byte[] after = GeneratedDataFile.readRecordBytes(recordRow);
+
+		for (int index = 0; index < before.length; index++) {
+
+			if (index < GeneratedDataFile.OWNER_OFFSET) {
+				assertEquals(before[index], after[index]);
+			} else {
+				assertEquals("12345678".charAt(
+						index - GeneratedDataFile.OWNER_OFFSET), after[index]);
+			}
+		}
+
+		assertEquals("12345678",
+				data.read(recordRow)[Record.OWNER_FIELD_INDEX]);
+	}
+
+	public void testBookAlreadyBooked() throws Exception {
+
+		final int recordRow = GeneratedDataFile.createRecord(data);
+
+		assertEquals(BookResult.BOOKED, data.book(recordRow, "11111111"));
+		assertEquals(BookResult.ALREADY_BOOKED,
+				data.book(recordRow, "22222222"));
+		assertEquals("11111111",
+				data.read(recordRow)[Record.OWNER_FIELD_INDEX]);
+
+		assertFalse(database.book(recordRow, "33333333"));
+	}
+
+	public void testBookLockedRecord() throws Exception {
+
+		final int recordRow = GeneratedDataFile.createRecord(data);
+		final String[] values = data.read(recordRow);
+
+		final long cookie = data.lock(recordRow);
+		try {
+
+			assertEquals(BookResult.RECORD_LOCKED,
+					data.book(recordRow, "44444444"));
+
+			try {
+				data.update(recordRow, values, cookie + 1);
+				fail("Updated with a cookie that does not own the lock");
+			} catch (SecurityException e) {
+				assertTrue(true);
+			}
+
+		} finally {
+			data.unlock(recordRow, cookie);
+		}
+
+		assertTrue(database.book(recordRow, "44444444"));
+		assertEquals("44444444",
+				data.read(recordRow)[Record.OWNER_FIELD_INDEX]);
+	}
+
+	public void testBookMissingRecord() throws Exception {
+
+		final int recordRow = GeneratedDataFile.createRecord(data);
+
+		try {
+			data.book(recordRow + 1, "55555555");
+			fail("Booked a record that does not exist");
+		} catch (RecordNotFoundException e) {
+			assertTrue(true);
+		}
+
+		try {
+			database.book(recordRow, "invalid");
+			fail("Booked with an owner that is not valid");
+		} catch (IllegalArgumentException e) {
+			assertTrue(true);
+		}
+
+		assertEquals("", data.read(recordRow)[Record.OWNER_FIELD_INDEX]);
+	}
+}
@@ -0,0 +1,39 @@
+package suncertify.db.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import suncertify.db.DataFileFormat;
+import suncertify.db.tools.DataFileGenerator;
+
+public final class DataFileFixture {
+
+	public static final String[] FIELD_NAMES = {"name", "city"};
+
+	public static final int[] FIELD_LENGTHS = {4, 3};
+
+	public static final int RECORD_LENGTH = 8;
+
+	private DataFileFixture() {
+
+	}
+
+	public static DataFileFormat createDataFileFormat(final File dataFile)
+			throws IOException {
+
+		final RandomAccessFile database = new RandomAccessFile(dataFile, "rw");
+
+		try {
+
+			DataFileGenerator.writeHeader(database, FIELD_NAMES,
+					FIELD_LENGTHS);
+			database.seek(0);
+
+			return new DataFileFormat(database);
+
+		} finally {
+			database.close();
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package suncertify.db.test;
+
+import java.io.IOException;
+import java.util.List;
+
+import junit.framework.TestCase;
+import suncertify.db.Data;
+import suncertify.db.Database;
+import suncertify.db.Record;
+import suncertify.db.RecordBatch;
+
+public class DataReadManyTest extends TestCase {
+
+	private Data data;
+
+	private Database database;
+
+	public void setUp() throws IOException {
+
+		GeneratedDataFile.open();
+
+		data = new Data();
+		database = new Database();
+	}
+
+	public void testReadManySkipsMissingRows() throws Exception {
+
+		final int firstRow = GeneratedDataFile.createRecord(data);
+		final int deletedRow = GeneratedDataFile.createRecord(data);
+		final int secondRow = GeneratedDataFile.createRecord(data);
+
+		final long cookie = data.lock(deletedRow);
+		try {
+			data.delete(deletedRow, cookie);
+		} finally {
+			data.unlock(deletedRow, cookie);
+		}
+
+		final int[] validRows =
+				data.find(new String[Record.TOTAL_RECORD_FIELDS]);
+		final int missingRow = validRows[validRows.length - 1]
+				+ GeneratedDataFile.RECORD_LENGTH;
+
+		final int[] recordRows = {firstRow, deletedRow, missingRow, secondRow,
+				secondRow + 1, firstRow};
+
+		final String[][] recordsData = data.readMany(recordRows);
+
+		assertEquals(recordRows.length, recordsData.length);
+		assertEquals(data.read(firstRow)[0], recordsData[0][0]);
+		assertNull(recordsData[1]);
+		assertNull(recordsData[2]);
+		assertEquals(data.read(secondRow)[0], recordsData[3][0]);
+		assertNull(recordsData[4]);
+		assertEquals(data.read(firstRow)[0], recordsData[5][0]);
+
+		final List<Record> records = database.readMany(recordRows);
+
+		assertTrue(records instanceof RecordBatch);
+		assertEquals(3, records.size());
+		assertEquals(firstRow, records.get(0).getDatabaseRow());
+		assertEquals(secondRow, records.get(1).getDatabaseRow());
+		assertEquals(firstRow, records.get(2).getDatabaseRow());
+		assertEquals(database.read(secondRow), records.get(1));
+
+		assertTrue(database.readMany(new int[0]).isEmpty());
+	}
+}
@@ -0,0 +1,95 @@
+package suncertify.db.test;
+
+import java.io.IOException;
+
+import junit.framework.TestCase;
+import suncertify.db.Data;
+import suncertify.db.DatabaseConstants;
+import suncertify.db.ITimedLockDB;
+import suncertify.db.RecordNotFoundException;
+
+public class DataTryLockTest extends TestCase {
+
+	private Data fixtureData;
+
+	private ITimedLockDB data;
+
+	public void setUp() throws IOException {
+
+		GeneratedDataFile.open();
+
+		fixtureData = new Data();
+		data = fixtureData;
+	}
+
+	public void testTryLockTimesOut() throws Exception {
+
+		final int recordRow = GeneratedDataFile.createRecord(fixtureData);
+
+		final long cookie = data.lock(recordRow);
+		try {
+
+			final long start = System.currentTimeMillis();
+			assertEquals(DatabaseConstants.LOCK_NOT_ACQUIRED,
+					data.tryLock(recordRow, 200));
+			assertTrue(System.currentTimeMillis() - start >= 200);
+
+			assertEquals(DatabaseConstants.LOCK_NOT_ACQUIRED,
+					data.tryLock(recordRow, 0));
+
+		} finally {
+			data.unlock(recordRow, cookie);
+		}
+	}
+
+	public void testTryLockAcquiresTheRecord() throws Exception {
+
+		final int recordRow = GeneratedDataFile.createRecord(fixtureData);
+
+		final long cookie = data.tryLock(recordRow, 0);
+		assertTrue(cookie != DatabaseConstants.LOCK_NOT_ACQUIRED);
+
+		try {
+			data.update(recordRow, data.read(recordRow), cookie);
+		} finally {
+			data.unlock(recordRow, cookie);
+		}
+
+		final long[] waiterCookie = new long[1];
+		final long firstCookie = data.lock(recordRow);
+
+		final Thread waiter = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				try {
+					waiterCookie[0] = data.tryLock(recordRow, 5000);
+				} catch (RecordNotFoundException e) {
+					waiterCookie[0] = DatabaseConstants.LOCK_NOT_ACQUIRED;
+				}
+			}
+
+		});
+		waiter.start();
+
+		Thread.sleep(100);
+		data.unlock(recordRow, firstCookie);
+		waiter.join(5000);
+
+		assertFalse(waiter.isAlive());
+		assertTrue(waiterCookie[0] != DatabaseConstants.LOCK_NOT_ACQUIRED);
+		data.unlock(recordRow, waiterCookie[0]);
+	}
+
+	public void testTryLockMissingRecord() throws Exception {
+
+		final int recordRow = GeneratedDataFile.createRecord(fixtureData);
+
+		try {
+			data.tryLock(recordRow + 1, 0);
+			fail("Locked a record that does not exist");
+		} catch (RecordNotFoundException e) {
+			assertTrue(true);
+		}
+	}
+}
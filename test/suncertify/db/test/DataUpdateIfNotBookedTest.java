@@ -0,0 +1,97 @@
+package suncertify.db.test;
+
+import java.io.IOException;
+
+import junit.framework.TestCase;
+import suncertify.db.BookResult;
+import suncertify.db.Data;
+import suncertify.db.Database;
+import suncertify.db.Record;
+import suncertify.db.RecordNotFoundException;
+
+public class DataUpdateIfNotBookedTest extends TestCase {
+
+	private Data data;
+
+	private Database database;
+
+	public void setUp() throws IOException {
+
+		GeneratedDataFile.open();
+
+		data = new Data();
+		database = new Database();
+	}
+
+	public void testUpdateIfNotBooked() throws Exception {
+
+		final int recordRow = GeneratedDataFile.createRecord(data);
+		final String[] values = data.read(recordRow);
+
+		values[Record.RATE_FIELD_INDEX] = "$111.00";
+
+		assertTrue(data.updateIfNotBooked(recordRow, values));
+		assertEquals("$111.00",
+				data.read(recordRow)[Record.RATE_FIELD_INDEX]);
+	}
+
+	public void testUpdateIfNotBookedLockedRecord() throws Exception {
+
+		final int recordRow = GeneratedDataFile.createRecord(data);
+		final String[] values = data.read(recordRow);
+
+		values[Record.RATE_FIELD_INDEX] = "$222.00";
+
+		final long cookie = data.lock(recordRow);
+		try {
+			assertFalse(data.updateIfNotBooked(recordRow, values));
+		} finally {
+			data.unlock(recordRow, cookie);
+		}
+
+		assertEquals("$150.00",
+				data.read(recordRow)[Record.RATE_FIELD_INDEX]);
+
+		final Record record = database.read(recordRow);
+		record.setRate("$222.00");
+		database.update(recordRow, record);
+
+		assertEquals("$222.00", database.read(recordRow).getRate());
+	}
+
+	public void testUpdateBookedRoomFails() throws Exception {
+
+		final int recordRow = GeneratedDataFile.createRecord(data);
+
+		final Record record = database.read(recordRow);
+		record.setRate("$333.00");
+
+		assertEquals(BookResult.BOOKED, data.book(recordRow, "66666666"));
+
+		try {
+			data.updateIfNotBooked(recordRow, data.read(recordRow));
+			fail("Updated a booked room");
+		} catch (RecordNotFoundException e) {
+			assertTrue(true);
+		}
+
+		try {
+			database.update(recordRow, record);
+			fail("Updated a booked room");
+		} catch (RecordNotFoundException e) {
+			assertEquals("66666666", database.read(recordRow).getOwner());
+		}
+	}
+
+	public void testUpdateIfNotBookedMissingRecord() throws Exception {
+
+		final int recordRow = GeneratedDataFile.createRecord(data);
+
+		try {
+			data.updateIfNotBooked(recordRow + 1, data.read(recordRow));
+			fail("Updated a record that does not exist");
+		} catch (RecordNotFoundException e) {
+			assertTrue(true);
+		}
+	}
+}
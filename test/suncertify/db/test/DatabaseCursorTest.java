@@ -0,0 +1,150 @@
+package suncertify.db.test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+import suncertify.db.Data;
+import suncertify.db.Database;
+import suncertify.db.DatabaseConstants;
+import suncertify.db.Record;
+
+public class DatabaseCursorTest extends TestCase {
+
+	private Data data;
+
+	private Database database;
+
+	public void setUp() throws IOException {
+
+		GeneratedDataFile.open();
+
+		data = new Data();
+		database = new Database();
+	}
+
+	public void testCursorPaging() {
+
+		final int[] validRows =
+				data.find(new String[Record.TOTAL_RECORD_FIELDS]);
+
+		final long cursorId = database.openCursor(null, null, 30);
+
+		int recordIndex = 0;
+		List<Record> page = database.nextPage(cursorId);
+
+		while (!page.isEmpty()) {
+
+			assertTrue(page.size() <= 30);
+
+			for (Record record: page) {
+				assertEquals(validRows[recordIndex++], record.getDatabaseRow());
+			}
+
+			page = database.nextPage(cursorId);
+		}
+
+		assertEquals(validRows.length, recordIndex);
+
+		try {
+			database.nextPage(cursorId);
+			fail("Read a page of a cursor already exhausted");
+		} catch (IllegalArgumentException e) {
+			assertTrue(true);
+		}
+
+		final long closedCursorId = database.openCursor("Palace", null, 5);
+		assertFalse(database.nextPage(closedCursorId).isEmpty());
+		database.closeCursor(closedCursorId);
+
+		try {
+			database.nextPage(closedCursorId);
+			fail("Read a page of a closed cursor");
+		} catch (IllegalArgumentException e) {
+			assertTrue(true);
+		}
+	}
+
+	public void testIdleCursorExpires() throws InterruptedException {
+
+		final Database expiringDatabase = databaseWithIdleTimeout(100);
+
+		final long idleCursorId = expiringDatabase.openCursor(null, null, 10);
+		final long unreadCursorId = expiringDatabase.openCursor(null, null, 10);
+
+		assertEquals(10, expiringDatabase.nextPage(idleCursorId).size());
+
+		Thread.sleep(300);
+
+		try {
+			expiringDatabase.nextPage(idleCursorId);
+			fail("Read a page of an idle cursor");
+		} catch (IllegalArgumentException e) {
+			assertTrue(true);
+		}
+
+		try {
+			expiringDatabase.nextPage(unreadCursorId);
+			fail("Read a page of an idle cursor");
+		} catch (IllegalArgumentException e) {
+			assertTrue(true);
+		}
+
+		final long cursorId = database.openCursor(null, null, 10);
+		assertEquals(10, database.nextPage(cursorId).size());
+		database.closeCursor(cursorId);
+	}
+
+	public void testOpenCursorsAreCapped() throws Exception {
+
+		final Database cappedDatabase = databaseWithIdleTimeout(1000);
+
+		final String name = data.read(GeneratedDataFile.createRecord(data))
+				[Record.HOTEL_NAME_FIELD_INDEX];
+
+		final List<Long> cursorIds = new ArrayList<Long>();
+		for (int index = 0; index < DatabaseConstants.MAX_OPEN_CURSORS;
+				index++) {
+			cursorIds.add(cappedDatabase.openCursor(name, null, 1));
+		}
+
+		try {
+			cappedDatabase.openCursor(name, null, 1);
+			fail("Opened more cursors than the maximum");
+		} catch (IllegalStateException e) {
+			assertTrue(true);
+		}
+
+		cappedDatabase.closeCursor(cursorIds.get(0));
+		final long cursorId = cappedDatabase.openCursor(name, null, 1);
+		assertEquals(1, cappedDatabase.nextPage(cursorId).size());
+
+		Thread.sleep(1200);
+
+		try {
+			cappedDatabase.nextPage(cursorIds.get(1));
+			fail("Read a page of an idle cursor");
+		} catch (IllegalArgumentException e) {
+			assertTrue(true);
+		}
+
+		// The idle cursors no longer count against the maximum
+		for (int index = 1; index < DatabaseConstants.MAX_OPEN_CURSORS;
+				index++) {
+			cappedDatabase.openCursor(name, null, 1);
+		}
+	}
+
+	private Database databaseWithIdleTimeout(final long idleTimeout) {
+
+		System.setProperty(DatabaseConstants.DB_CURSOR_IDLE_TIMEOUT_PROP,
+				String.valueOf(idleTimeout));
+
+		try {
+			return new Database();
+		} finally {
+			System.clearProperty(DatabaseConstants.DB_CURSOR_IDLE_TIMEOUT_PROP);
+		}
+	}
+}
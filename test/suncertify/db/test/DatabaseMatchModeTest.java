@@ -0,0 +1,93 @@
+package suncertify.db.test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+import suncertify.db.Data;
+import suncertify.db.Database;
+import suncertify.db.MatchMode;
+import suncertify.db.Record;
+import suncertify.db.RecordNotFoundException;
+
+public class DatabaseMatchModeTest extends TestCase {
+
+	private Data data;
+
+	private Database database;
+
+	public void setUp() throws IOException {
+
+		GeneratedDataFile.open();
+
+		data = new Data();
+		database = new Database();
+	}
+
+	public void testFindByMatchMode() throws Exception {
+
+		assertFound("Palace", null, MatchMode.EXACT);
+		assertFound("Palace", null, MatchMode.STARTS_WITH);
+		assertFound("palace", "xanadu", MatchMode.EXACT_IGNORE_CASE);
+		assertFound("pal", null, MatchMode.STARTS_WITH_IGNORE_CASE);
+		assertFound(null, "Whoville", MatchMode.EXACT);
+
+		assertTrue(database.find("palace", null, MatchMode.EXACT).isEmpty());
+		assertTrue(database.find("Pal", null, MatchMode.EXACT).isEmpty());
+
+		assertTrue(database.find("Palace", null, MatchMode.STARTS_WITH).size()
+				> database.find("Palace", null, MatchMode.EXACT).size());
+		assertEquals(allRows().length,
+				database.find(null, "", MatchMode.EXACT).size());
+	}
+
+	private void assertFound(final String name, final String location,
+			final MatchMode matchMode) throws RecordNotFoundException {
+
+		final List<Integer> expectedRows = new ArrayList<Integer>();
+
+		for (int recordRow: allRows()) {
+
+			final String[] values = data.read(recordRow);
+
+			if (matches(values[Record.HOTEL_NAME_FIELD_INDEX], name, matchMode)
+					&& matches(values[Record.LOCATION_FIELD_INDEX], location,
+							matchMode)) {
+				expectedRows.add(recordRow);
+			}
+		}
+
+		final List<Integer> foundRows = new ArrayList<Integer>();
+
+		for (Record record: database.find(name, location, matchMode)) {
+			foundRows.add(record.getDatabaseRow());
+		}
+
+		assertFalse(expectedRows.isEmpty());
+		assertEquals(expectedRows, foundRows);
+	}
+
+	private boolean matches(final String value, final String criteria,
+			final MatchMode matchMode) {
+
+		if (criteria == null) {
+			return true;
+		}
+
+		switch (matchMode) {
+		case EXACT:
+			return value.equals(criteria);
+		case EXACT_IGNORE_CASE:
+			return value.equalsIgnoreCase(criteria);
+		case STARTS_WITH:
+			return value.startsWith(criteria);
+		default:
+			return value.toLowerCase().startsWith(criteria.toLowerCase());
+		}
+	}
+
+	private int[] allRows() {
+		return data.find(new String[Record.TOTAL_RECORD_FIELDS]);
+	}
+}
@@ -0,0 +1,89 @@
+package suncertify.db.test;
+
+import java.util.Set;
+
+import junit.framework.TestCase;
+import suncertify.db.FieldIndex;
+import suncertify.db.MatchMode;
+
+public class FieldIndexTest extends TestCase {
+
+	private final FieldIndex index = new FieldIndex();
+
+	public void setUp() {
+		index.add("Palace", 74);
+		index.add("Palace  ", 554);
+		index.add("Palacio", 4074);
+		index.add("Pal", 234);
+		index.add("Castle", 394);
+		index.add(null, 714);
+	}
+
+	public void testRowsEqualTo() {
+
+		final Set<Integer> rows = index.rowsEqualTo(" Palace ");
+
+		assertEquals(2, rows.size());
+		assertTrue(rows.contains(74));
+		assertTrue(rows.contains(554));
+
+		assertTrue(index.rowsEqualTo("Pala").isEmpty());
+		assertTrue(index.rowsEqualTo("").contains(714));
+	}
+
+	public void testRowsStartingWith() {
+
+		Set<Integer> rows = index.rowsStartingWith("Pal");
+		assertEquals(4, rows.size());
+		assertFalse(rows.contains(394));
+
+		rows = index.rowsStartingWith("Palac");
+		assertEquals(3, rows.size());
+		assertFalse(rows.contains(234));
+
+		rows = index.rowsStartingWith("Palacio");
+		assertEquals(1, rows.size());
+		assertTrue(rows.contains(4074));
+
+		assertTrue(index.rowsStartingWith("Palaces").isEmpty());
+		assertTrue(index.rowsStartingWith("Z").isEmpty());
+		assertEquals(6, index.rowsStartingWith("").size());
+	}
+
+	public void testRowsMatchingIgnoreCase() {
+
+		index.add("PALACE", 1194);
+		index.add("palacete", 1314);
+
+		Set<Integer> rows = index.rowsMatching("palace", MatchMode.EXACT);
+		assertTrue(rows.isEmpty());
+
+		rows = index.rowsMatching("palace", MatchMode.EXACT_IGNORE_CASE);
+		assertEquals(3, rows.size());
+		assertFalse(rows.contains(1314));
+
+		rows = index.rowsMatching("PALAC", MatchMode.STARTS_WITH);
+		assertEquals(1, rows.size());
+		assertTrue(rows.contains(1194));
+
+		rows = index.rowsMatching("PalacE", MatchMode.STARTS_WITH_IGNORE_CASE);
+		assertEquals(4, rows.size());
+		assertTrue(rows.contains(1314));
+		assertFalse(rows.contains(4074));
+
+		assertEquals(4, index.rowsStartingWith("Pal").size());
+	}
+
+	public void testRemove() {
+
+		index.remove("Palace", 74);
+		index.remove("Palacio", 4074);
+
+		final Set<Integer> rows = index.rowsStartingWith("Palac");
+		assertEquals(1, rows.size());
+		assertTrue(rows.contains(554));
+
+		index.remove("Palace", 554);
+		assertTrue(index.rowsEqualTo("Palace").isEmpty());
+	}
+}
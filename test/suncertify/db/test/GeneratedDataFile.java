@@ -0,0 +1,86 @@
+package suncertify.db.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import suncertify.db.Data;
+import suncertify.db.DatabaseConstants;
+import suncertify.db.DuplicateKeyException;
+import suncertify.db.tools.DataFileGenerator;
+
+public final class GeneratedDataFile {
+
+	public static final int ROWS = 200;
+
+	public static final int RECORD_LENGTH = 160;
+
+	public static final int OWNER_OFFSET = 152;
+
+	public static final int OWNER_LENGTH = 8;
+
+	private static File dataFile;
+
+	private static int createdRecords;
+
+	private GeneratedDataFile() {
+
+	}
+
+	public static synchronized File open() throws IOException {
+
+		// Data opens a single database file per virtual machine
+		if (dataFile == null) {
+
+			final File file = File.createTempFile("generated", ".db");
+			file.deleteOnExit();
+
+			final DataFileGenerator generator = new DataFileGenerator();
+			generator.setRows(ROWS);
+			generator.setNameCount(20);
+			generator.setLocationCount(5);
+			generator.generate(file);
+
+			System.setProperty(DatabaseConstants.DB_PATH_PROP,
+					file.getAbsolutePath());
+			System.setProperty(DatabaseConstants.DB_WAL_PROP, "false");
+
+			dataFile = file;
+		}
+
+		return dataFile;
+	}
+
+	public static synchronized int createRecord(final Data data)
+			throws DuplicateKeyException {
+
+		createdRecords++;
+
+		final int recordRow = data.create(new String[] {
+				"Fixture " + createdRecords, "Testville", "4", "Y", "$150.00",
+				"2026/10/18", ""});
+
+		if (recordRow == -1) {
+			throw new IllegalStateException("Unable to create a record");
+		}
+
+		return recordRow;
+	}
+
+	public static byte[] readRecordBytes(final int recordRow)
+			throws IOException {
+
+		final byte[] bytes = new byte[RECORD_LENGTH];
+
+		final RandomAccessFile database = new RandomAccessFile(dataFile, "r");
+
+		try {
+			database.seek(recordRow);
+			database.readFully(bytes);
+		} finally {
+			database.close();
+		}
+
+		return bytes;
+	}
+}
@@ -0,0 +1,63 @@
+package suncertify.db.test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.TestCase;
+import suncertify.db.DatabaseConstants;
+import suncertify.db.LockCookieGenerator;
+
+public class LockCookieGeneratorTest extends TestCase {
+
+	private final LockCookieGenerator generator = new LockCookieGenerator();
+
+	public void testCookiesAreUniqueAcrossThreads()
+			throws InterruptedException {
+
+		final int threads = 8;
+		final int cookiesPerThread = 20000;
+		final long[][] cookies = new long[threads][cookiesPerThread];
+
+		final Thread[] workers = new Thread[threads];
+		for (int index = 0; index < threads; index++) {
+
+			final long[] threadCookies = cookies[index];
+
+			workers[index] = new Thread(new Runnable() {
+
+				@Override
+				public void run() {
+					for (int cookie = 0; cookie < cookiesPerThread; cookie++) {
+						threadCookies[cookie] = generator.nextCookie();
+					}
+				}
+
+			});
+			workers[index].start();
+		}
+
+		final Set<Long> uniqueCookies = new HashSet<Long>();
+		for (int index = 0; index < threads; index++) {
+
+			workers[index].join();
+
+			for (long cookie : cookies[index]) {
+				assertTrue(cookie != DatabaseConstants.LOCK_NOT_ACQUIRED);
+				assertTrue(cookie != 0);
+				assertTrue(uniqueCookies.add(cookie));
+			}
+		}
+
+		assertEquals(threads * cookiesPerThread, uniqueCookies.size());
+	}
+
+	public void testCookiesAreNotSequential() {
+
+		final long first = generator.nextCookie();
+		final long second = generator.nextCookie();
+
+		assertTrue(Math.abs(second - first) > 1024);
+		assertTrue(first != new LockCookieGenerator().nextCookie());
+	}
+
+}
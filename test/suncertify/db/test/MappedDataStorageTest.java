@@ -0,0 +1,100 @@
+package suncertify.db.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import junit.framework.TestCase;
+import suncertify.db.MappedDataStorage;
+
+public class MappedDataStorageTest extends TestCase {
+
+	private static final int DATA_OFFSET = 10;
+
+	private static final int RECORD_LENGTH = 100;
+
+	private File dataFile;
+
+	private RandomAccessFile database;
+
+	private MappedDataStorage storage;
+
+	public void setUp() throws IOException {
+
+		dataFile = File.createTempFile("storage-test", ".db");
+
+		database = new RandomAccessFile(dataFile, "rw");
+		database.write(new byte[DATA_OFFSET + RECORD_LENGTH]);
+
+		storage = new MappedDataStorage(database, DATA_OFFSET);
+	}
+
+	public void tearDown() throws IOException {
+
+		storage.close();
+		database.close();
+		dataFile.delete();
+	}
+
+	public void testAppendedRecordsKeepTheFileLength() throws IOException {
+
+		for (int record = 1; record <= 2000; record++) {
+
+			final byte[] bytes = recordBytes(record);
+
+			storage.write(DATA_OFFSET + (record * RECORD_LENGTH), bytes, 0,
+					bytes.length);
+
+			assertEquals(DATA_OFFSET + ((record + 1) * RECORD_LENGTH),
+					storage.length());
+		}
+
+		storage.force();
+		assertEquals(storage.length(), dataFile.length());
+
+		for (int record = 1; record <= 2000; record++) {
+
+			final byte[] bytes = new byte[RECORD_LENGTH];
+
+			storage.read(DATA_OFFSET + (record * RECORD_LENGTH), bytes, 0,
+					bytes.length);
+
+			assertEquals(new String(recordBytes(record)), new String(bytes));
+		}
+	}
+
+	public void testOverwriteAcrossTheMappingEnd() throws IOException {
+
+		final byte[] bytes = recordBytes(7);
+
+		storage.write(DATA_OFFSET + (RECORD_LENGTH / 2), bytes, 0,
+				bytes.length);
+
+		final byte[] read = new byte[RECORD_LENGTH];
+		storage.read(DATA_OFFSET + (RECORD_LENGTH / 2), read, 0, read.length);
+
+		assertEquals(new String(bytes), new String(read));
+		assertEquals(DATA_OFFSET + (RECORD_LENGTH * 3 / 2), storage.length());
+	}
+
+	public void testReadAfterTheEndFails() {
+
+		try {
+			storage.read(DATA_OFFSET + RECORD_LENGTH, new byte[1], 0, 1);
+			fail("Read after the end of the file");
+		} catch (IOException e) {
+			assertTrue(true);
+		}
+	}
+
+	private byte[] recordBytes(final int record) {
+
+		final byte[] bytes = new byte[RECORD_LENGTH];
+
+		for (int index = 0; index < bytes.length; index++) {
+			bytes[index] = (byte) ('a' + ((record + index) % 26));
+		}
+
+		return bytes;
+	}
+}
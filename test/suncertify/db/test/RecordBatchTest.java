@@ -0,0 +1,124 @@
+package suncertify.db.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+import suncertify.db.Record;
+import suncertify.db.RecordBatch;
+
+public class RecordBatchTest extends TestCase {
+
+	private final List<Record> records = new ArrayList<Record>();
+
+	public void setUp() {
+
+		for (int index = 0; index < 300; index++) {
+
+			final Record record = new Record();
+			record.setHotelName("Hotel " + (index % 10));
+			record.setLocation("City " + (index % 4));
+			record.setSize(String.valueOf(1 + (index % 3)));
+			record.setSmoking((index % 2 == 0) ? "Y" : "N");
+			record.setRate("$" + (100 + (index % 5)) + ".00");
+			record.setDate("2011/08/2" + (index % 7));
+			record.setOwner((index % 3 == 0) ? String.valueOf(index + 1) : "");
+			record.setDatabaseRow(74 + (index * 160));
+
+			records.add(record);
+		}
+	}
+
+	public void testRecordRoundTrip() throws Exception {
+
+		final Record record = records.get(3);
+
+		final Record copy = (Record) deserialize(serialize(record));
+
+		assertEquals(record, copy);
+		assertEquals(record.getDatabaseRow(), copy.getDatabaseRow());
+		assertEquals("4", copy.getOwner());
+	}
+
+	public void testBatchRoundTrip() throws Exception {
+
+		final RecordBatch batch = new RecordBatch();
+		batch.addAll(records);
+
+		final List<?> copy = (List<?>) deserialize(serialize(batch));
+
+		assertEquals(records.size(), copy.size());
+
+		for (int index = 0; index < records.size(); index++) {
+
+			final Record copyRecord = (Record) copy.get(index);
+
+			assertEquals(records.get(index), copyRecord);
+			assertEquals(records.get(index).getDatabaseRow(),
+					copyRecord.getDatabaseRow());
+		}
+
+		assertSame(((Record) copy.get(0)).getLocation(),
+				((Record) copy.get(4)).getLocation());
+	}
+
+	public void testManyDistinctValues() throws Exception {
+
+		final RecordBatch batch = new RecordBatch();
+
+		for (int index = 0; index < 70000; index++) {
+
+			final Record record = new Record();
+			record.setHotelName("Hotel " + index);
+			record.setDatabaseRow(index);
+
+			batch.add(record);
+		}
+
+		final List<?> copy = (List<?>) deserialize(serialize(batch));
+
+		assertEquals("Hotel 69999", ((Record) copy.get(69999)).getHotelName());
+		assertNull(((Record) copy.get(69999)).getOwner());
+	}
+
+	public void testBatchIsSmallerThanList() throws Exception {
+
+		final RecordBatch batch = new RecordBatch();
+		batch.addAll(records);
+
+		final int listSize = serialize(new ArrayList<Record>(records)).length;
+		final int batchSize = serialize(batch).length;
+
+		assertTrue("batch " + batchSize + ", list " + listSize,
+				batchSize * 3 < listSize);
+	}
+
+	private byte[] serialize(final Serializable object) throws IOException {
+
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		final ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(object);
+		out.close();
+
+		return bytes.toByteArray();
+	}
+
+	private Object deserialize(final byte[] bytes) throws Exception {
+
+		final ObjectInputStream in =
+				new ObjectInputStream(new ByteArrayInputStream(bytes));
+
+		try {
+			return in.readObject();
+		} finally {
+			in.close();
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package suncertify.db.test;
+
+import java.io.File;
+import java.io.IOException;
+
+import junit.framework.TestCase;
+import suncertify.db.DataFileFormat;
+import suncertify.db.RecordDecoder;
+
+public class RecordDecoderTest extends TestCase {
+
+	private File dataFile;
+
+	private RecordDecoder decoder;
+
+	public void setUp() throws IOException {
+
+		dataFile = File.createTempFile("decoder-test", ".db");
+
+		final DataFileFormat dataFileFormat =
+				DataFileFixture.createDataFileFormat(dataFile);
+
+		decoder = new RecordDecoder(dataFileFormat);
+	}
+
+	public void tearDown() {
+		dataFile.delete();
+	}
+
+	public void testFieldLayout() {
+
+		assertEquals(2, decoder.numberOfFields());
+		assertEquals(1, decoder.fieldOffset(0));
+		assertEquals(4, decoder.fieldLength(0));
+		assertEquals(5, decoder.fieldOffset(1));
+		assertEquals(3, decoder.fieldLength(1));
+	}
+
+	public void testDecodeTrimsPadding() {
+
+		final byte[] record = record(" Ab    ");
+
+		assertEquals("Ab", decoder.decodeField(record, 0, 0));
+		assertEquals("", decoder.decodeField(record, 0, 1));
+
+		final byte[] chunk = new byte[16];
+		System.arraycopy(record("NameXYZ"), 0, chunk, 8, 8);
+
+		assertEquals("Name", decoder.decodeField(chunk, 8, 0));
+		assertEquals("XYZ", decoder.decodeField(chunk, 8, 1));
+	}
+
+	public void testDecodeLatin1() {
+
+		final byte[] record = record("Caf  X ");
+		record[4] = (byte) 0xE9;
+
+		assertEquals("Caf\u00e9", decoder.decodeField(record, 0, 0));
+		assertEquals("X", decoder.decodeField(record, 0, 1));
+	}
+
+	private byte[] record(final String fields) {
+
+		final byte[] record = new byte[DataFileFixture.RECORD_LENGTH];
+		System.arraycopy(fields.getBytes(), 0, record, 1, fields.length());
+
+		return record;
+	}
+}
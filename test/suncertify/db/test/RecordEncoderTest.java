@@ -0,0 +1,75 @@
+package suncertify.db.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import junit.framework.TestCase;
+import suncertify.db.DataFileFormat;
+import suncertify.db.RecordDecoder;
+import suncertify.db.RecordEncoder;
+
+public class RecordEncoderTest extends TestCase {
+
+	private File dataFile;
+
+	private RecordEncoder encoder;
+
+	private RecordDecoder decoder;
+
+	public void setUp() throws IOException {
+
+		dataFile = File.createTempFile("encoder-test", ".db");
+
+		final DataFileFormat dataFileFormat =
+				DataFileFixture.createDataFileFormat(dataFile);
+
+		encoder = new RecordEncoder(dataFileFormat);
+		decoder = new RecordDecoder(dataFileFormat);
+	}
+
+	public void tearDown() {
+		dataFile.delete();
+	}
+
+	public void testEncode() {
+
+		final ByteBuffer record = encoder.encode(new String[] {"Ab", "City"});
+
+		assertEquals(0, record.position());
+		assertEquals(8, record.limit());
+		assertEquals(0, record.get(0));
+		assertEquals("Ab  Cit", new String(record.array(), 1, 7));
+	}
+
+	public void testEncodeNullAndNonAsciiValues() {
+
+		final byte[] record =
+				encoder.encode(new String[] {"\u00e9t\u00e9", null}).array();
+
+		assertEquals((byte) 0xE9, record[1]);
+		assertEquals("\u00e9t\u00e9", decoder.decodeField(record, 0, 0));
+		assertEquals("", decoder.decodeField(record, 0, 1));
+	}
+
+	public void testBufferIsReusedByThread() {
+
+		final ByteBuffer first = encoder.encode(new String[] {"Long", "XYZ"});
+		final ByteBuffer second = encoder.encode(new String[] {"S", ""});
+
+		assertSame(first, second);
+		assertEquals("S      ", new String(second.array(), 1, 7));
+	}
+
+	public void testEncodeField() {
+
+		encoder.encode(new String[] {"Name", "XYZ"});
+
+		final ByteBuffer field = encoder.encodeField(1, "Q");
+
+		assertEquals(5, field.position());
+		assertEquals(8, field.limit());
+		assertEquals("NameQ  ", new String(field.array(), 1, 7));
+	}
+
+}
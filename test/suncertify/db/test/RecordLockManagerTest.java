@@ -0,0 +1,241 @@
+package suncertify.db.test;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+import suncertify.db.RecordLockManager;
+import suncertify.db.RecordLockStatistics;
+
+public class RecordLockManagerTest extends TestCase {
+
+	private final RecordLockManager lockManager = new RecordLockManager(4);
+
+	public void testLockUnlock() throws InterruptedException {
+
+		lockManager.lock(74, 10L);
+
+		assertTrue(lockManager.isLockedBy(74, 10L));
+		assertFalse(lockManager.isLockedBy(74, 11L));
+		assertFalse(lockManager.unlock(74, 11L));
+
+		assertTrue(lockManager.unlock(74, 10L));
+		assertFalse(lockManager.isLocked(74));
+		assertFalse(lockManager.unlock(74, 10L));
+	}
+
+	public void testDifferentRecordsDoNotBlock() throws InterruptedException {
+
+		lockManager.lock(74, 1L);
+
+		final Thread t = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				try {
+					lockManager.lock(234, 2L);
+				} catch (InterruptedException e) {
+					System.out.println(e.getMessage());
+				}
+			}
+
+		});
+		t.start();
+		t.join(5000);
+
+		assertFalse(t.isAlive());
+		assertTrue(lockManager.isLockedBy(234, 2L));
+
+		assertTrue(lockManager.unlock(234, 2L));
+		assertTrue(lockManager.unlock(74, 1L));
+	}
+
+	public void testWaiterAcquiresAfterRelease() throws InterruptedException {
+
+		lockManager.lock(394, 1L);
+
+		final Thread t = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				try {
+					lockManager.lock(394, 2L);
+				} catch (InterruptedException e) {
+					System.out.println(e.getMessage());
+				}
+			}
+
+		});
+		t.start();
+
+		Thread.sleep(500);
+		assertTrue(t.isAlive());
+		assertTrue(lockManager.isLockedBy(394, 1L));
+
+		assertTrue(lockManager.unlock(394, 1L));
+		t.join(5000);
+
+		assertFalse(t.isAlive());
+		assertTrue(lockManager.isLockedBy(394, 2L));
+		assertTrue(lockManager.unlock(394, 2L));
+	}
+
+	public void testInterruptedWaiter() throws InterruptedException {
+
+		lockManager.lock(554, 1L);
+
+		final boolean [] interrupted = new boolean[1];
+		final Thread t = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				try {
+					lockManager.lock(554, 2L);
+				} catch (InterruptedException e) {
+					interrupted[0] = true;
+				}
+			}
+
+		});
+		t.start();
+
+		Thread.sleep(500);
+		t.interrupt();
+		t.join(5000);
+
+		assertTrue(interrupted[0]);
+		assertTrue(lockManager.isLockedBy(554, 1L));
+		assertTrue(lockManager.unlock(554, 1L));
+		assertFalse(lockManager.isLocked(554));
+	}
+
+	public void testProfilingHottestRecords() throws InterruptedException {
+
+		lockManager.setProfiling(true);
+
+		for (int index = 0; index < 3; index++) {
+			lockManager.lock(714, 1L);
+			assertTrue(lockManager.unlock(714, 1L));
+		}
+
+		lockManager.lock(554, 1L);
+
+		final Thread t = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				try {
+					lockManager.lock(554, 2L);
+				} catch (InterruptedException e) {
+					System.out.println(e.getMessage());
+				}
+			}
+
+		});
+		t.start();
+
+		Thread.sleep(200);
+		assertTrue(lockManager.unlock(554, 1L));
+		t.join(5000);
+
+		final List<RecordLockStatistics> hottest =
+				lockManager.hottestRecords(1);
+		assertEquals(1, hottest.size());
+
+		final RecordLockStatistics statistics = hottest.get(0);
+		assertEquals(554, statistics.getRecordRow());
+		assertEquals(2, statistics.getAcquisitions());
+		assertEquals(1, statistics.getContendedAcquisitions());
+		assertTrue(statistics.getMaxWaitTime() >= 100000000L);
+		assertTrue(statistics.getMaxHoldTime() >= 100000000L);
+		assertTrue(statistics.isLocked());
+		assertEquals(2L, statistics.getOwnerCookie());
+
+		assertEquals(3, lockManager.statisticsOf(714).getAcquisitions());
+		assertFalse(lockManager.statisticsOf(714).isLocked());
+		assertEquals(2, lockManager.hottestRecords(10).size());
+
+		assertTrue(lockManager.unlock(554, 2L));
+
+		lockManager.resetStatistics();
+		assertNull(lockManager.statisticsOf(554));
+		assertTrue(lockManager.hottestRecords(10).isEmpty());
+	}
+
+	public void testProfilingKeepsTheRecentRecords()
+			throws InterruptedException {
+
+		final RecordLockManager singleStripe = new RecordLockManager(1);
+		singleStripe.setProfiling(true);
+
+		assertFalse(new RecordLockManager().isProfiling());
+
+		for (int recNo = 1; recNo <= 1000; recNo++) {
+			singleStripe.lock(recNo, 1L);
+			assertTrue(singleStripe.unlock(recNo, 1L));
+		}
+
+		final int profiledRecords =
+				singleStripe.hottestRecords(Integer.MAX_VALUE).size();
+
+		assertTrue(profiledRecords > 0);
+		assertTrue(profiledRecords < 1000);
+		assertNull(singleStripe.statisticsOf(1));
+		assertEquals(1, singleStripe.statisticsOf(1000).getAcquisitions());
+	}
+
+	public void testTryLockTimesOut() throws InterruptedException {
+
+		lockManager.lock(874, 1L);
+
+		final long start = System.currentTimeMillis();
+		assertFalse(lockManager.tryLock(874, 2L, 200));
+		assertTrue(System.currentTimeMillis() - start >= 200);
+		assertFalse(lockManager.tryLock(874, 2L, 0));
+
+		assertTrue(lockManager.isLockedBy(874, 1L));
+		assertTrue(lockManager.unlock(874, 1L));
+
+		assertTrue(lockManager.tryLock(874, 2L, 0));
+		assertTrue(lockManager.unlock(874, 2L));
+		assertEquals(0, lockManager.lockedRecordCount());
+	}
+
+	public void testWaiterReclaimsExpiredLease() throws InterruptedException {
+
+		lockManager.setLeaseTimeout(200);
+		lockManager.lock(1034, 1L);
+
+		final long start = System.currentTimeMillis();
+		lockManager.lock(1034, 2L);
+		assertTrue(System.currentTimeMillis() - start >= 150);
+
+		assertTrue(lockManager.isLockedBy(1034, 2L));
+		assertFalse(lockManager.unlock(1034, 1L));
+		assertEquals(1, lockManager.expiredLeaseCount());
+
+		assertTrue(lockManager.unlock(1034, 2L));
+	}
+
+	public void testReaperExpiresAbandonedLeases() throws InterruptedException {
+
+		lockManager.setLeaseTimeout(100);
+		lockManager.lock(1194, 1L);
+		lockManager.lock(1354, 1L);
+		assertEquals(2, lockManager.lockedRecordCount());
+
+		lockManager.startLeaseReaper(20);
+		try {
+
+			Thread.sleep(400);
+
+			assertEquals(2, lockManager.expiredLeaseCount());
+			assertEquals(0, lockManager.lockedRecordCount());
+			assertFalse(lockManager.isLocked(1194));
+			assertFalse(lockManager.unlock(1354, 1L));
+
+		} finally {
+			lockManager.stopLeaseReaper();
+		}
+	}
+
+}
@@ -0,0 +1,60 @@
+package suncertify.db.test;
+
+import java.util.Iterator;
+
+import junit.framework.TestCase;
+import suncertify.db.RecordRowSet;
+
+public class RecordRowSetTest extends TestCase {
+
+	public void testAddKeepsRowsSorted() {
+
+		final RecordRowSet rows = new RecordRowSet();
+
+		assertTrue(rows.add(554));
+		assertTrue(rows.add(74));
+		assertTrue(rows.add(1194));
+		assertTrue(rows.add(234));
+		assertFalse(rows.add(554));
+
+		assertEquals(4, rows.size());
+		assertTrue(rows.contains(234));
+		assertFalse(rows.contains(394));
+
+		final int[] copy = new int[5];
+		assertEquals(5, rows.copyTo(copy, 1));
+		assertEquals(74, copy[1]);
+		assertEquals(1194, copy[4]);
+	}
+
+	public void testRemove() {
+
+		final RecordRowSet rows = new RecordRowSet(new int[] {74, 234, 554});
+
+		assertTrue(rows.remove(234));
+		assertFalse(rows.remove(234));
+		assertEquals(2, rows.size());
+
+		final Iterator<Integer> iterator = rows.iterator();
+		assertEquals(74, iterator.next().intValue());
+		iterator.remove();
+		assertEquals(554, iterator.next().intValue());
+		assertFalse(iterator.hasNext());
+
+		assertEquals(1, rows.size());
+		assertTrue(rows.contains(554));
+	}
+
+	public void testManyRowsInAscendingOrder() {
+
+		final RecordRowSet rows = new RecordRowSet();
+
+		for (int row = 0; row < 100000; row++) {
+			rows.add(74 + (row * 160));
+		}
+
+		assertEquals(100000, rows.size());
+		assertTrue(rows.contains(74 + (99999 * 160)));
+		assertFalse(rows.contains(75));
+	}
+}
@@ -0,0 +1,132 @@
+package suncertify.db.test;
+
+import java.io.File;
+import java.io.IOException;
+
+import junit.framework.TestCase;
+import suncertify.db.DataFileFormat;
+import suncertify.db.RecordStore;
+
+public class RecordStoreTest extends TestCase {
+
+	private File dataFile;
+
+	private RecordStore store;
+
+	private int firstRow;
+
+	public void setUp() throws IOException {
+
+		dataFile = File.createTempFile("store-test", ".db");
+
+		final DataFileFormat dataFileFormat =
+				DataFileFixture.createDataFileFormat(dataFile);
+
+		firstRow = (int) dataFileFormat.getDataSectionOffset();
+
+		// Capacity is exceeded on purpose to test the store growth
+		store = new RecordStore(dataFileFormat, 1);
+		for (int record = 0; record < 20; record++) {
+			store.write(rowOf(record), record(0, "R" + record, "C"), 0, 8);
+		}
+	}
+
+	public void tearDown() {
+		dataFile.delete();
+	}
+
+	public void testRead() {
+
+		assertEquals(20, store.size());
+
+		final String[] record = store.read(rowOf(19));
+		assertEquals("R19", record[0]);
+		assertEquals("C", record[1]);
+
+		assertEquals("R3", store.readField(rowOf(3), 0));
+
+		assertNull(store.read(rowOf(20)));
+		assertNull(store.read(rowOf(3) + 1));
+		assertNull(store.read(firstRow - 8));
+	}
+
+	public void testDelete() {
+
+		store.write(rowOf(3), new byte[] {1}, 0, 1);
+		store.write(rowOf(3), new byte[] {1}, 0, 1);
+
+		assertEquals(19, store.size());
+		assertFalse(store.contains(rowOf(3)));
+		assertTrue(store.isDeleted(rowOf(3)));
+		assertNull(store.read(rowOf(3)));
+
+		final int[] deletedRows = store.deletedRecordRows();
+		assertEquals(1, deletedRows.length);
+		assertEquals(rowOf(3), deletedRows[0]);
+
+		store.write(rowOf(3), record(0, "New", "X"), 0, 8);
+
+		assertEquals(20, store.size());
+		assertEquals("New", store.read(rowOf(3))[0]);
+	}
+
+	public void testValidRecordRows() {
+
+		store.write(rowOf(20), record(1, "Gone", "Z"), 0, 8);
+
+		final int[] validRows = store.validRecordRows();
+		assertEquals(20, validRows.length);
+		assertEquals(rowOf(0), validRows[0]);
+		assertEquals(rowOf(19), validRows[19]);
+	}
+
+	public void testPartialWrite() {
+
+		store.write(rowOf(5) + 5, "XY".getBytes(), 0, 2);
+
+		assertEquals("XY", store.readField(rowOf(5), 1));
+		assertEquals(20, store.size());
+	}
+
+	public void testRegionMatches() {
+
+		final byte[] record = record(0, "R7", "C");
+		final int cityOffset = store.fieldOffset(1);
+
+		assertEquals(5, cityOffset);
+		assertEquals(3, store.fieldLength(1));
+		assertTrue(store.regionMatches(rowOf(7) + cityOffset, record,
+				cityOffset, store.fieldLength(1)));
+		assertTrue(store.regionMatches(rowOf(7), record, 0, record.length));
+		assertFalse(store.regionMatches(rowOf(8), record, 0, record.length));
+		assertFalse(store.regionMatches(rowOf(19) + 4, record, 0,
+				record.length));
+	}
+
+	public void testWriteOutOfDataSection() {
+
+		try {
+			store.write(rowOf(21), record(0, "Gap", "G"), 0, 8);
+			fail("A write that leaves a gap must be rejected");
+		} catch (IllegalArgumentException e) {
+			assertEquals(20, store.size());
+		}
+	}
+
+	private int rowOf(final int record) {
+		return firstRow + record * 8;
+	}
+
+	private byte[] record(final int deletedFlag, final String name,
+			final String city) {
+
+		final byte[] record = new byte[8];
+		record[0] = (byte) deletedFlag;
+
+		final String fields = (name + "    ").substring(0, 4)
+				+ (city + "   ").substring(0, 3);
+		System.arraycopy(fields.getBytes(), 0, record, 1, 7);
+
+		return record;
+	}
+}
@@ -0,0 +1,206 @@
+package suncertify.db.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+
+import junit.framework.TestCase;
+import suncertify.db.RandomAccessDataStorage;
+import suncertify.db.WriteAheadLog;
+
+public class WriteAheadLogTest extends TestCase {
+
+	private File dataFile;
+
+	private File logFile;
+
+	public void setUp() throws IOException {
+		dataFile = File.createTempFile("wal-test", ".db");
+		logFile = new File(dataFile.getPath() + ".wal");
+	}
+
+	public void tearDown() {
+		dataFile.delete();
+		logFile.delete();
+	}
+
+	public void testRecoverSavedWrites() throws IOException {
+
+		final RandomAccessFile data = new RandomAccessFile(dataFile, "rw");
+		final RandomAccessDataStorage storage =
+				new RandomAccessDataStorage(data);
+
+		// Checkpoints never happen, so the writes stay only in the log
+		final WriteAheadLog log = new WriteAheadLog(logFile, storage,
+				Long.MAX_VALUE, Long.MAX_VALUE);
+		log.start();
+
+		log.append(0, "hello".getBytes(), 0, 5);
+		final long sequence = log.append(10, "world".getBytes(), 0, 5);
+		log.awaitSaved(sequence);
+
+		assertEquals(0, data.length());
+		data.close();
+
+		final RandomAccessFile recoveredData =
+				new RandomAccessFile(dataFile, "rw");
+		final WriteAheadLog recoveredLog = new WriteAheadLog(logFile,
+				new RandomAccessDataStorage(recoveredData),
+				Long.MAX_VALUE, Long.MAX_VALUE);
+
+		assertEquals(2, recoveredLog.recover());
+		assertEquals(0, logFile.length());
+
+		final byte[] content = new byte[15];
+		recoveredData.seek(0);
+		recoveredData.readFully(content);
+
+		assertEquals("hello", new String(content, 0, 5));
+		assertEquals("world", new String(content, 10, 5));
+
+		recoveredLog.close();
+	}
+
+	public void testIgnoreIncompleteEntry() throws IOException {
+
+		final RandomAccessFile data = new RandomAccessFile(dataFile, "rw");
+		final WriteAheadLog log = new WriteAheadLog(logFile,
+				new RandomAccessDataStorage(data), Long.MAX_VALUE,
+				Long.MAX_VALUE);
+		log.start();
+
+		log.awaitSaved(log.append(0, "hello".getBytes(), 0, 5));
+
+		// Simulates a crash in the middle of the second entry
+		final RandomAccessFile logContent = new RandomAccessFile(logFile, "rw");
+		logContent.seek(logContent.length());
+		logContent.writeLong(10);
+		logContent.writeInt(5);
+		logContent.write("wo".getBytes());
+		logContent.close();
+
+		final WriteAheadLog recoveredLog = new WriteAheadLog(logFile,
+				new RandomAccessDataStorage(data), Long.MAX_VALUE,
+				Long.MAX_VALUE);
+
+		assertEquals(1, recoveredLog.recover());
+		assertEquals(5, data.length());
+
+		recoveredLog.close();
+	}
+
+	public void testCheckpointAppliesWrites() throws Exception {
+
+		final RandomAccessFile data = new RandomAccessFile(dataFile, "rw");
+		final WriteAheadLog log = new WriteAheadLog(logFile,
+				new RandomAccessDataStorage(data), 1, Long.MAX_VALUE);
+		log.start();
+
+		log.awaitSaved(log.append(0, "hello".getBytes(), 0, 5));
+		log.close();
+
+		assertEquals(5, data.length());
+		assertEquals(0, logFile.length());
+	}
+
+	public void testBackgroundCheckpointKeepsLaterWrites() throws Exception {
+
+		final RandomAccessFile data = new RandomAccessFile(dataFile, "rw");
+		final WriteAheadLog log = new WriteAheadLog(logFile,
+				new RandomAccessDataStorage(data), 1, 20);
+		log.start();
+
+		for (int index = 0; index < 200; index++) {
+
+			final byte[] bytes = String.valueOf(index % 10).getBytes();
+
+			log.awaitSaved(log.append(index, bytes, 0, 1));
+		}
+
+		final long deadline = System.currentTimeMillis() + 5000;
+		while ((logFile.length() > 0)
+				&& (System.currentTimeMillis() < deadline)) {
+			Thread.sleep(10);
+		}
+
+		assertEquals(0, logFile.length());
+		assertEquals(200, data.length());
+
+		final byte[] content = new byte[200];
+		data.seek(0);
+		data.readFully(content);
+
+		assertEquals("0123456789", new String(content, 190, 10));
+
+		log.close();
+	}
+
+	public void testInterruptedWriterFailsWaitingWrites() throws Exception {
+
+		final RandomAccessFile data = new RandomAccessFile(dataFile, "rw");
+		final WriteAheadLog log = new WriteAheadLog(logFile,
+				new RandomAccessDataStorage(data), Long.MAX_VALUE,
+				Long.MAX_VALUE);
+		log.start();
+
+		for (Thread thread: Thread.getAllStackTraces().keySet()) {
+			if ("WriteAheadLog-writer".equals(thread.getName())) {
+				thread.interrupt();
+				thread.join();
+			}
+		}
+
+		try {
+			log.awaitSaved(log.append(0, "hello".getBytes(), 0, 5));
+			fail("The write was saved without a writer");
+		} catch (IOException e) {
+			assertTrue(true);
+		}
+
+		log.close();
+		data.close();
+	}
+
+	public void testFailingChannelRejectsWrites() throws Exception {
+
+		final RandomAccessFile data = new RandomAccessFile(dataFile, "rw");
+
+		final FileChannel failingChannel =
+				new RandomAccessFile(logFile, "rw").getChannel();
+		failingChannel.close();
+
+		final WriteAheadLog log = new WriteAheadLog(failingChannel,
+				new RandomAccessDataStorage(data), Long.MAX_VALUE,
+				Long.MAX_VALUE);
+		log.start();
+
+		final long sequence = log.append(0, "hello".getBytes(), 0, 5);
+
+		try {
+			log.awaitSaved(sequence);
+			fail("The write was saved into a closed channel");
+		} catch (IOException e) {
+			assertTrue(true);
+		}
+
+		assertTrue(log.isFailed());
+		assertEquals(0, log.getSavedSequence());
+
+		try {
+			log.append(5, "world".getBytes(), 0, 5);
+			fail("The write was appended after the log failed");
+		} catch (IOException e) {
+			assertTrue(true);
+		}
+
+		try {
+			log.close();
+		} catch (IOException e) {
+			assertTrue(true);
+		}
+
+		assertEquals(0, data.length());
+		data.close();
+	}
+}
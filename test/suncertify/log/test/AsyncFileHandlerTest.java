@@ -0,0 +1,144 @@
+package suncertify.log.test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import junit.framework.TestCase;
+import suncertify.log.AsyncFileHandler;
+
+public class AsyncFileHandlerTest extends TestCase {
+
+	private File logFile;
+
+	public void setUp() throws IOException {
+		logFile = File.createTempFile("async", ".log");
+	}
+
+	public void tearDown() {
+		for (int index = 0; index <= 3; index++) {
+			new File(logFile.getPath() + (index == 0 ? "" : "." + index))
+					.delete();
+		}
+	}
+
+	public void testWritesAllRecordsInOrder() throws IOException {
+
+		final AsyncFileHandler handler = newHandler(16, 0, 0,
+				AsyncFileHandler.OverflowPolicy.BLOCK);
+
+		for (int index = 0; index < 1000; index++) {
+			handler.publish(new LogRecord(Level.INFO, "record " + index));
+		}
+
+		handler.flush();
+		assertEquals(1000, countLines(logFile));
+
+		handler.close();
+
+		final BufferedReader reader = new BufferedReader(
+				new FileReader(logFile));
+		try {
+			for (int index = 0; index < 1000; index++) {
+				assertEquals("record " + index, reader.readLine());
+			}
+		} finally {
+			reader.close();
+		}
+	}
+
+	public void testRotatesBySize() throws IOException {
+
+		final AsyncFileHandler handler = newHandler(16, 100, 2,
+				AsyncFileHandler.OverflowPolicy.BLOCK);
+
+		// 10 bytes per record, a file every 10 records
+		for (int index = 0; index < 45; index++) {
+			handler.publish(new LogRecord(Level.INFO, "record " + (index % 10)
+					+ " "));
+		}
+
+		handler.close();
+
+		assertEquals(5, countLines(logFile));
+		assertEquals(10, countLines(new File(logFile.getPath() + ".1")));
+		assertEquals(10, countLines(new File(logFile.getPath() + ".2")));
+		assertFalse(new File(logFile.getPath() + ".3").exists());
+	}
+
+	public void testDropsOnlyLowLevelRecords() throws IOException {
+
+		final AsyncFileHandler handler = newHandler(1, 0, 0,
+				AsyncFileHandler.OverflowPolicy.DROP);
+
+		for (int index = 0; index < 1000; index++) {
+			handler.publish(new LogRecord(Level.FINE, "fine"));
+			handler.publish(new LogRecord(Level.WARNING, "warning"));
+		}
+
+		handler.close();
+
+		int warnings = 0;
+		int fines = 0;
+		long dropped = 0;
+
+		final BufferedReader reader = new BufferedReader(
+				new FileReader(logFile));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.equals("warning")) {
+					warnings++;
+				} else if (line.equals("fine")) {
+					fines++;
+				} else {
+					dropped += Long.parseLong(line.substring(0,
+							line.indexOf(' ')));
+				}
+			}
+		} finally {
+			reader.close();
+		}
+
+		assertEquals(1000, warnings);
+		assertEquals(1000, fines + dropped);
+	}
+
+	private AsyncFileHandler newHandler(final int bufferSize,
+			final long fileSize, final int fileCount,
+			final AsyncFileHandler.OverflowPolicy policy) throws IOException {
+
+		final AsyncFileHandler handler = new AsyncFileHandler(
+				logFile.getPath(), bufferSize, fileSize, fileCount, policy, 10);
+
+		handler.setFormatter(new Formatter() {
+
+			@Override
+			public String format(final LogRecord record) {
+				return record.getMessage() + "\n";
+			}
+
+		});
+
+		return handler;
+	}
+
+	private static int countLines(final File file) throws IOException {
+
+		final BufferedReader reader = new BufferedReader(new FileReader(file));
+		try {
+			int lines = 0;
+			while (reader.readLine() != null) {
+				lines++;
+			}
+			return lines;
+		} finally {
+			reader.close();
+		}
+	}
+
+}
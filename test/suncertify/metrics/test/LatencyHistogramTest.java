@@ -0,0 +1,92 @@
+package suncertify.metrics.test;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.ObjectName;
+
+import junit.framework.TestCase;
+import suncertify.metrics.LatencyHistogram;
+import suncertify.metrics.MetricsRegistry;
+import suncertify.metrics.OperationMetrics;
+
+public class LatencyHistogramTest extends TestCase {
+
+	public void testEmpty() {
+
+		final LatencyHistogram histogram = new LatencyHistogram();
+
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getMean());
+		assertEquals(0, histogram.getMax());
+		assertEquals(0, histogram.getPercentile(99));
+	}
+
+	public void testSmallValuesAreExact() {
+
+		final LatencyHistogram histogram = new LatencyHistogram();
+
+		for (int latency = 1; latency <= 10; latency++) {
+			histogram.record(latency);
+		}
+
+		assertEquals(10, histogram.getCount());
+		assertEquals(5, histogram.getMean());
+		assertEquals(10, histogram.getMax());
+		assertEquals(5, histogram.getPercentile(50));
+		assertEquals(10, histogram.getPercentile(100));
+	}
+
+	public void testPercentilePrecision() {
+
+		final LatencyHistogram histogram = new LatencyHistogram();
+
+		for (int latency = 1; latency <= 100000; latency++) {
+			histogram.record(latency * 1000L);
+		}
+
+		assertEquals(100000, histogram.getCount());
+
+		final long median = histogram.getPercentile(50);
+		assertTrue(median >= 50000000L);
+		assertTrue(median <= 50000000L * 1.125);
+
+		final long p99 = histogram.getPercentile(99);
+		assertTrue(p99 >= 99000000L);
+		assertTrue(p99 <= 100000000L);
+
+		assertEquals(100000000L, histogram.getPercentile(100));
+	}
+
+	public void testHugeAndNegativeValues() {
+
+		final LatencyHistogram histogram = new LatencyHistogram();
+
+		histogram.record(-5);
+		histogram.record(Long.MAX_VALUE);
+
+		assertEquals(2, histogram.getCount());
+		assertEquals(0, histogram.getPercentile(50));
+		assertEquals(Long.MAX_VALUE, histogram.getPercentile(100));
+	}
+
+	public void testOperationMetricsOverJMX() throws Exception {
+
+		final OperationMetrics metrics =
+				MetricsRegistry.operation("LatencyHistogramTest.operation");
+
+		assertSame(metrics,
+				MetricsRegistry.operation("LatencyHistogramTest.operation"));
+
+		metrics.record(System.nanoTime(), true);
+		metrics.record(System.nanoTime(), false);
+
+		final Object errors = ManagementFactory.getPlatformMBeanServer()
+				.getAttribute(new ObjectName("suncertify:type=Operation,"
+						+ "name=\"LatencyHistogramTest.operation\""),
+						"ErrorCount");
+
+		assertEquals(Long.valueOf(1), errors);
+		assertEquals(2, metrics.getCount());
+	}
+
+}
@@ -0,0 +1,450 @@
+package suncertify.db.tools;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Generates hotel database files with the same layout read by
+ * <code>DataFileFormat</code>: magic number, record length, schema
+ * description and fixed-width records. The records are written as they are
+ * generated, so the file size is only limited by the disk.
+ * <br />The hotel names and locations are drawn from a configurable number
+ * of distinct values, with a uniform or a Zipf (skewed) distribution. The
+ * other fields are uniform.
+ * <br />Usage: DataFileGenerator file rows [deleted=0.1] [names=1000]
+ * [nameDistribution=uniform|zipf] [locations=100]
+ * [locationDistribution=uniform|zipf] [seed=257]
+ * <br />Files over 2 GB can be generated, but <code>Data</code> addresses
+ * the records with int offsets and can't open them.
+ *
+ * @author Leo Gutierrez
+ */
+public class DataFileGenerator {
+
+	/**
+	 * Distribution of the generated values.
+	 */
+	public enum Distribution {
+
+		/**
+		 * Every value has the same probability.
+		 */
+		UNIFORM,
+
+		/**
+		 * The probability of the n-th value is proportional to 1/n.
+		 */
+		ZIPF
+	}
+
+	/**
+	 * Magic number of the database file.
+	 */
+	private static final int MAGIC_NUMBER = 257;
+
+	/**
+	 * Field names of the schema, in file order.
+	 */
+	private static final String[] FIELD_NAMES = {"name", "location", "size",
+		"smoking", "rate", "date", "owner"};
+
+	/**
+	 * Field value lengths of the schema, in file order.
+	 */
+	private static final int[] FIELD_LENGTHS = {64, 64, 4, 1, 8, 10, 8};
+
+	/**
+	 * Base hotel names; distinct names are numbered after them.
+	 */
+	private static final String[] HOTEL_NAMES = {"Palace", "Castle",
+		"Excelsior", "Grandview", "Bed & Breakfast & Business",
+		"Dew Drop Inn", "Elephant Inn", "Pandemonium", "Splendide",
+		"Mayfair"};
+
+	/**
+	 * Base locations; distinct locations are numbered after them.
+	 */
+	private static final String[] LOCATIONS = {"Smallville", "Whoville",
+		"Lendmarch", "Atlantis", "Xanadu", "EmeraldCity", "Hobbiton",
+		"Pleasantville", "Bali Hai", "Digitopolis"};
+
+	/**
+	 * Size of the output buffer.
+	 */
+	private static final int BUFFER_SIZE = 1024 * 1024;
+
+	/**
+	 * Number of records to generate.
+	 */
+	private long rows;
+
+	/**
+	 * Ratio, from 0 to 1, of deleted records.
+	 */
+	private double deletedRatio = 0.1;
+
+	/**
+	 * Number of distinct hotel names.
+	 */
+	private int nameCount = 1000;
+
+	/**
+	 * Distribution of the hotel names.
+	 */
+	private Distribution nameDistribution = Distribution.UNIFORM;
+
+	/**
+	 * Number of distinct locations.
+	 */
+	private int locationCount = 100;
+
+	/**
+	 * Distribution of the locations.
+	 */
+	private Distribution locationDistribution = Distribution.UNIFORM;
+
+	/**
+	 * Seed of the generated values.
+	 */
+	private long seed = MAGIC_NUMBER;
+
+	/**
+	 * Generates a database file from the command line arguments.
+	 *
+	 * @param args File, rows and the optional name=value settings.
+	 * @throws IOException If the file can't be written.
+	 */
+	public static void main(final String[] args) throws IOException {
+
+		if (args.length < 2) {
+			System.out.println("Usage: DataFileGenerator file rows "
+					+ "[deleted=0.1] [names=1000] "
+					+ "[nameDistribution=uniform|zipf] [locations=100] "
+					+ "[locationDistribution=uniform|zipf] [seed=257]");
+			return;
+		}
+
+		final DataFileGenerator generator = new DataFileGenerator();
+		generator.setRows(Long.parseLong(args[1]));
+
+		for (String setting: Arrays.asList(args).subList(2, args.length)) {
+
+			final int separator = setting.indexOf('=');
+			final String name = setting.substring(0, separator);
+			final String value = setting.substring(separator + 1);
+
+			if ("deleted".equals(name)) {
+				generator.setDeletedRatio(Double.parseDouble(value));
+			} else if ("names".equals(name)) {
+				generator.setNameCount(Integer.parseInt(value));
+			} else if ("nameDistribution".equals(name)) {
+				generator.setNameDistribution(
+						Distribution.valueOf(value.toUpperCase()));
+			} else if ("locations".equals(name)) {
+				generator.setLocationCount(Integer.parseInt(value));
+			} else if ("locationDistribution".equals(name)) {
+				generator.setLocationDistribution(
+						Distribution.valueOf(value.toUpperCase()));
+			} else if ("seed".equals(name)) {
+				generator.setSeed(Long.parseLong(value));
+			} else {
+				throw new IllegalArgumentException("Unknown setting: "
+						+ setting);
+			}
+		}
+
+		final long start = System.currentTimeMillis();
+
+		generator.generate(new File(args[0]));
+
+		System.out.println("Generated " + generator.rows + " records in "
+				+ (System.currentTimeMillis() - start) + " ms");
+	}
+
+	/**
+	 * Generates the database file.
+	 *
+	 * @param file File to write; it is overwritten if it exists.
+	 * @throws IOException If the file can't be written.
+	 */
+	public final void generate(final File file) throws IOException {
+
+		final Random random = new Random(seed);
+
+		final ValueSource names = new ValueSource(HOTEL_NAMES, nameCount,
+				nameDistribution);
+		final ValueSource locations = new ValueSource(LOCATIONS,
+				locationCount, locationDistribution);
+
+		// Reused for every record, blank owner included
+		final byte[] record = new byte[1 + recordLength(FIELD_LENGTHS)];
+
+		final DataOutputStream output = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(file),
+						BUFFER_SIZE));
+		try {
+
+			writeHeader(output, FIELD_NAMES, FIELD_LENGTHS);
+
+			final long progressStep = Math.max(1, rows / 10);
+
+			for (long row = 0; row < rows; row++) {
+
+				Arrays.fill(record, (byte) ' ');
+
+				record[0] = (byte) (random.nextDouble() < deletedRatio ? 1 : 0);
+
+				int offset = 1;
+				offset = putField(record, offset, 0, names.next(random));
+				offset = putField(record, offset, 1, locations.next(random));
+				offset = putField(record, offset, 2,
+						String.valueOf(1 + random.nextInt(6)));
+				offset = putField(record, offset, 3,
+						random.nextBoolean() ? "Y" : "N");
+				offset = putField(record, offset, 4,
+						"$" + (50 + random.nextInt(250)) + ".00");
+				putField(record, offset, 5, "2005/"
+						+ twoDigits(1 + random.nextInt(12)) + "/"
+						+ twoDigits(1 + random.nextInt(28)));
+
+				output.write(record);
+
+				if ((row + 1) % progressStep == 0) {
+					System.out.println("Written " + (row + 1) + " of " + rows
+							+ " records");
+				}
+			}
+
+		} finally {
+			output.close();
+		}
+
+		// Data requires the database file to be executable
+		file.setExecutable(true);
+	}
+
+	/**
+	 * Sets the number of records to generate.
+	 *
+	 * @param rowsValue Number of records.
+	 */
+	public final void setRows(final long rowsValue) {
+		rows = rowsValue;
+	}
+
+	/**
+	 * Sets the ratio of deleted records.
+	 *
+	 * @param ratio Ratio, from 0 to 1, of deleted records.
+	 */
+	public final void setDeletedRatio(final double ratio) {
+		deletedRatio = ratio;
+	}
+
+	/**
+	 * Sets the number of distinct hotel names.
+	 *
+	 * @param count Number of distinct hotel names.
+	 */
+	public final void setNameCount(final int count) {
+		nameCount = count;
+	}
+
+	/**
+	 * Sets the distribution of the hotel names.
+	 *
+	 * @param distribution Distribution of the hotel names.
+	 */
+	public final void setNameDistribution(final Distribution distribution) {
+		nameDistribution = distribution;
+	}
+
+	/**
+	 * Sets the number of distinct locations.
+	 *
+	 * @param count Number of distinct locations.
+	 */
+	public final void setLocationCount(final int count) {
+		locationCount = count;
+	}
+
+	/**
+	 * Sets the distribution of the locations.
+	 *
+	 * @param distribution Distribution of the locations.
+	 */
+	public final void setLocationDistribution(
+			final Distribution distribution) {
+		locationDistribution = distribution;
+	}
+
+	/**
+	 * Sets the seed of the generated values.
+	 *
+	 * @param seedValue Seed of the generated values.
+	 */
+	public final void setSeed(final long seedValue) {
+		seed = seedValue;
+	}
+
+	/**
+	 * Writes the start of the file and the description of the given schema,
+	 * so files with other schemas can be written for the tests.
+	 *
+	 * @param output Stream where the header is written.
+	 * @param fieldNames Field names, in file order.
+	 * @param fieldLengths Field value lengths, in file order.
+	 * @throws IOException If the header can't be written.
+	 */
+	public static void writeHeader(final DataOutput output,
+			final String[] fieldNames, final int[] fieldLengths)
+					throws IOException {
+
+		output.writeInt(MAGIC_NUMBER);
+		output.writeInt(recordLength(fieldLengths));
+		output.writeShort(fieldNames.length);
+
+		for (int field = 0; field < fieldNames.length; field++) {
+			output.writeShort(fieldNames[field].length());
+			output.writeBytes(fieldNames[field]);
+			output.writeShort(fieldLengths[field]);
+		}
+	}
+
+	/**
+	 * Adds up the field value lengths.
+	 *
+	 * @param fieldLengths Field value lengths.
+	 * @return Record length, without the deleted flag.
+	 */
+	private static int recordLength(final int[] fieldLengths) {
+
+		int recordLength = 0;
+		for (int length: fieldLengths) {
+			recordLength += length;
+		}
+
+		return recordLength;
+	}
+
+	/**
+	 * Copies a field value into the record, truncated to the field length.
+	 * The rest of the field keeps the spaces it was filled with.
+	 *
+	 * @param record Record bytes.
+	 * @param offset Offset of the field in the record.
+	 * @param field Field position.
+	 * @param value Field value.
+	 * @return Offset of the next field.
+	 */
+	private static int putField(final byte[] record, final int offset,
+			final int field, final String value) {
+
+		final int length = Math.min(value.length(), FIELD_LENGTHS[field]);
+
+		for (int index = 0; index < length; index++) {
+			record[offset + index] = (byte) value.charAt(index);
+		}
+
+		return offset + FIELD_LENGTHS[field];
+	}
+
+	/**
+	 * Formats a number with two digits.
+	 *
+	 * @param number Number from 0 to 99.
+	 * @return The number with a leading zero if needed.
+	 */
+	private static String twoDigits(final int number) {
+
+		if (number < 10) {
+			return "0" + number;
+		}
+
+		return String.valueOf(number);
+	}
+
+	/**
+	 * Source of the values of a field, drawn from a number of distinct
+	 * values with a distribution.
+	 */
+	private static final class ValueSource {
+
+		/**
+		 * Distinct values.
+		 */
+		private final String[] values;
+
+		/**
+		 * Cumulative probability of each value, null if uniform.
+		 */
+		private final double[] cumulativeProbabilities;
+
+		/**
+		 * Constructs a <code>ValueSource</code> object.
+		 *
+		 * @param baseValues Base values; the values after them are the base
+		 *                   values followed by a number.
+		 * @param count Number of distinct values.
+		 * @param distribution Distribution of the values.
+		 */
+		ValueSource(final String[] baseValues, final int count,
+				final Distribution distribution) {
+
+			values = new String[Math.max(1, count)];
+			for (int value = 0; value < values.length; value++) {
+
+				final String baseValue = baseValues[value % baseValues.length];
+				final int round = value / baseValues.length;
+
+				values[value] = round == 0 ? baseValue : baseValue + " " + round;
+			}
+
+			if (distribution == Distribution.ZIPF) {
+
+				cumulativeProbabilities = new double[values.length];
+
+				double total = 0;
+				for (int value = 0; value < values.length; value++) {
+					total += 1.0 / (value + 1);
+					cumulativeProbabilities[value] = total;
+				}
+
+				for (int value = 0; value < values.length; value++) {
+					cumulativeProbabilities[value] /= total;
+				}
+
+			} else {
+				cumulativeProbabilities = null;
+			}
+		}
+
+		/**
+		 * Draws the next value.
+		 *
+		 * @param random Source of randomness.
+		 * @return The value drawn.
+		 */
+		String next(final Random random) {
+
+			if (cumulativeProbabilities == null) {
+				return values[random.nextInt(values.length)];
+			}
+
+			final int index = Arrays.binarySearch(cumulativeProbabilities,
+					random.nextDouble());
+
+			// Not found returns (-(insertion point) - 1)
+			final int value = index >= 0 ? index : -index - 1;
+
+			return values[Math.min(value, values.length - 1)];
+		}
+	}
+
+}